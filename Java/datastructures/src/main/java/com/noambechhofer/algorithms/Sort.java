@@ -2,7 +2,14 @@ package com.noambechhofer.algorithms;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
 
 /**
  * This class contains static methods for sorting arrays and lists.
@@ -10,6 +17,605 @@ import java.util.List;
  * @author Noam Bechhofer
  */
 public final class Sort {
+    /**
+     * Runs no longer than this are sorted with binary insertion sort before
+     * merge sort starts merging.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    /**
+     * Default number of elements below which {@link #parallelMergeSort(Comparable[])}
+     * sorts or merges sequentially rather than splitting the work further.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
+    /** Primitive arrays shorter than this are insertion sorted instead of radix sorted */
+    private static final int RADIX_SORT_THRESHOLD = 64;
+    /** Radix sort consumes keys this many bits at a time */
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int DIGIT_MASK = RADIX - 1;
+
+    /**
+     * Sorts {@code arr[lo, hi)} and leaves the result in {@code arr}, or in
+     * {@code buffer} if {@code intoBuffer} is set, using the other array as
+     * scratch space. The two halves are sorted in parallel into the opposite
+     * array from this task's, so that merging them lands the result where it
+     * belongs without copying back.
+     */
+    private static final class MergeSortTask<E> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient E[] arr;
+        private final transient E[] buffer;
+        private final int lo;
+        private final int hi;
+        private final transient Comparator<? super E> c;
+        private final int threshold;
+        private final boolean intoBuffer;
+
+        MergeSortTask(E[] arr, E[] buffer, int lo, int hi, Comparator<? super E> c, int threshold,
+                boolean intoBuffer) {
+            this.arr = arr;
+            this.buffer = buffer;
+            this.lo = lo;
+            this.hi = hi;
+            this.c = c;
+            this.threshold = threshold;
+            this.intoBuffer = intoBuffer;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= threshold) {
+                mergeSort(arr, lo, hi, buffer, c);
+                if (intoBuffer) {
+                    System.arraycopy(arr, lo, buffer, lo, hi - lo);
+                }
+                return;
+            }
+
+            final int mid = (lo + hi) >>> 1;
+            invokeAll(new MergeSortTask<>(arr, buffer, lo, mid, c, threshold, !intoBuffer),
+                    new MergeSortTask<>(arr, buffer, mid, hi, c, threshold, !intoBuffer));
+            final E[] src = intoBuffer ? arr : buffer;
+            final E[] dst = intoBuffer ? buffer : arr;
+            new MergeTask<>(src, lo, mid, mid, hi, dst, lo, c, threshold).compute();
+        }
+    }
+
+    /**
+     * Merges the sorted runs {@code src[lo1, hi1)} and {@code src[lo2, hi2)} into
+     * {@code dst} starting at {@code k}. A large merge is split in two at the
+     * middle of the longer run and at the matching position in the shorter,
+     * found by binary search, and the halves are merged in parallel. Ties still
+     * go to the first run, so the merge is stable.
+     */
+    private static final class MergeTask<E> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient E[] src;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final transient E[] dst;
+        private final int k;
+        private final transient Comparator<? super E> c;
+        private final int threshold;
+
+        MergeTask(E[] src, int lo1, int hi1, int lo2, int hi2, E[] dst, int k, Comparator<? super E> c,
+                int threshold) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.k = k;
+            this.c = c;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            // at least 3 elements guarantees both halves of a split are non-empty
+            if ((hi1 - lo1) + (hi2 - lo2) <= Math.max(threshold, 2)) {
+                mergeRuns(src, lo1, hi1, lo2, hi2, dst, k, c);
+                return;
+            }
+
+            final int m1;
+            final int m2;
+            if (hi1 - lo1 >= hi2 - lo2) {
+                m1 = (lo1 + hi1) >>> 1;
+                // elements of the second run equal to the pivot stay after it
+                m2 = lowerBound(src, lo2, hi2, src[m1], c);
+            } else {
+                m2 = (lo2 + hi2) >>> 1;
+                // elements of the first run equal to the pivot stay before it
+                m1 = upperBound(src, lo1, hi1, src[m2], c);
+            }
+            invokeAll(new MergeTask<>(src, lo1, m1, lo2, m2, dst, k, c, threshold),
+                    new MergeTask<>(src, m1, hi1, m2, hi2, dst, k + (m1 - lo1) + (m2 - lo2), c, threshold));
+        }
+    }
+
+    /**
+     * State for one call to {@link #timSort(Comparable[])}: the array, a merge
+     * buffer that grows as needed, and the stack of runs waiting to be merged.
+     */
+    private static final class TimSorter<E> {
+        /** Arrays shorter than this are sorted with a single binary insertion sort */
+        private static final int MIN_MERGE = 64;
+        /** Consecutive wins by one run after which a merge starts galloping */
+        private static final int MIN_GALLOP = 7;
+        /**
+         * Each run on the stack is longer than the sum of the two above it, so run
+         * lengths grow at least as fast as the Fibonacci numbers and 49 runs
+         * cover any array that fits in an int.
+         */
+        private static final int MAX_STACK = 49;
+
+        private final E[] a;
+        private final Comparator<? super E> c;
+        private E[] tmp;
+        /** Galloping threshold, raised when galloping does not pay and lowered when it does */
+        private int minGallop = MIN_GALLOP;
+
+        private final int[] runBase = new int[MAX_STACK];
+        private final int[] runLen = new int[MAX_STACK];
+        private int stackSize;
+
+        TimSorter(E[] a, Comparator<? super E> c) {
+            this.a = a;
+            this.c = c;
+        }
+
+        void sort(int lo, int hi) {
+            int remaining = hi - lo;
+            if (remaining < 2) {
+                return;
+            }
+            if (remaining < MIN_MERGE) {
+                extendRun(lo, countRunAndMakeAscending(lo, hi), remaining);
+                return;
+            }
+
+            final int minRun = minRunLength(remaining);
+            do {
+                int len = countRunAndMakeAscending(lo, hi);
+                if (len < minRun) {
+                    final int force = Math.min(remaining, minRun);
+                    extendRun(lo, len, force);
+                    len = force;
+                }
+
+                runBase[stackSize] = lo;
+                runLen[stackSize] = len;
+                stackSize++;
+                mergeCollapse();
+
+                lo += len;
+                remaining -= len;
+            } while (remaining != 0);
+
+            mergeForceCollapse();
+        }
+
+        /**
+         * @return the length of the run starting at {@code lo}: the longest
+         *         non-descending or strictly descending prefix of
+         *         {@code a[lo, hi)}. A descending run is reversed in place;
+         *         being strictly descending, reversing it keeps the sort stable.
+         */
+        private int countRunAndMakeAscending(int lo, int hi) {
+            int runHi = lo + 1;
+            if (runHi == hi) {
+                return 1;
+            }
+
+            if (c.compare(a[runHi++], a[lo]) < 0) {
+                while (runHi < hi && c.compare(a[runHi], a[runHi - 1]) < 0) {
+                    runHi++;
+                }
+                for (int i = lo, j = runHi - 1; i < j; i++, j--) {
+                    final E t = a[i];
+                    a[i] = a[j];
+                    a[j] = t;
+                }
+            } else {
+                while (runHi < hi && c.compare(a[runHi], a[runHi - 1]) >= 0) {
+                    runHi++;
+                }
+            }
+            return runHi - lo;
+        }
+
+        /** Extends the sorted run {@code a[lo, lo + len)} to {@code target} elements by binary insertion. */
+        private void extendRun(int lo, int len, int target) {
+            for (int top = lo + len; top < lo + target; top++) {
+                binaryInsert(a, lo, top, c);
+            }
+        }
+
+        /**
+         * @return a run length between {@code MIN_MERGE / 2} and {@code MIN_MERGE}
+         *         such that {@code n / minRun} is a power of two or a little less,
+         *         which keeps the final merges balanced
+         */
+        private static int minRunLength(int n) {
+            int r = 0;
+            while (n >= MIN_MERGE) {
+                r |= n & 1;
+                n >>= 1;
+            }
+            return n + r;
+        }
+
+        /**
+         * Merges runs until the stack satisfies, for every three consecutive
+         * runs X, Y, Z from the bottom, {@code X > Y + Z} and {@code Y > Z}. The
+         * check reaches one run further down than the textbook version, which
+         * could otherwise let the invariant break deeper in the stack.
+         */
+        private void mergeCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1]
+                        || n > 1 && runLen[n - 2] <= runLen[n - 1] + runLen[n]) {
+                    if (runLen[n - 1] < runLen[n + 1]) {
+                        n--;
+                    }
+                } else if (runLen[n] > runLen[n + 1]) {
+                    break;
+                }
+                mergeAt(n);
+            }
+        }
+
+        /** Merges all remaining runs, once there are no more to push. */
+        private void mergeForceCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+                    n--;
+                }
+                mergeAt(n);
+            }
+        }
+
+        /** Merges the runs at stack positions {@code i} and {@code i + 1}. */
+        private void mergeAt(int i) {
+            int base1 = runBase[i];
+            int len1 = runLen[i];
+            final int base2 = runBase[i + 1];
+            int len2 = runLen[i + 1];
+
+            runLen[i] = len1 + len2;
+            if (i == stackSize - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLen[i + 1] = runLen[i + 2];
+            }
+            stackSize--;
+
+            // elements of run 1 that are not greater than the start of run 2, and
+            // elements of run 2 that are not less than the end of run 1, are
+            // already in place
+            final int k = gallopRight(a[base2], a, base1, len1, 0, c);
+            base1 += k;
+            len1 -= k;
+            if (len1 == 0) {
+                return;
+            }
+            len2 = gallopLeft(a[base1 + len1 - 1], a, base2, len2, len2 - 1, c);
+            if (len2 == 0) {
+                return;
+            }
+
+            if (len1 <= len2) {
+                mergeLo(base1, len1, base2, len2);
+            } else {
+                mergeHi(base1, len1, base2, len2);
+            }
+        }
+
+        /**
+         * @return the leftmost position in the sorted {@code arr[base, base + len)}
+         *         at which {@code key} could be inserted, searching outwards from
+         *         {@code hint} in exponentially growing steps before finishing
+         *         with a binary search
+         */
+        private static <E> int gallopLeft(E key, E[] arr, int base, int len, int hint, Comparator<? super E> c) {
+            int lastOfs = 0;
+            int ofs = 1;
+            if (c.compare(key, arr[base + hint]) > 0) {
+                final int maxOfs = len - hint;
+                while (ofs < maxOfs && c.compare(key, arr[base + hint + ofs]) > 0) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = maxOfs;
+                    }
+                }
+                ofs = Math.min(ofs, maxOfs);
+                lastOfs += hint;
+                ofs += hint;
+            } else {
+                final int maxOfs = hint + 1;
+                while (ofs < maxOfs && c.compare(key, arr[base + hint - ofs]) <= 0) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = maxOfs;
+                    }
+                }
+                ofs = Math.min(ofs, maxOfs);
+                final int t = lastOfs;
+                lastOfs = hint - ofs;
+                ofs = hint - t;
+            }
+
+            // arr[base + lastOfs] < key <= arr[base + ofs]
+            lastOfs++;
+            while (lastOfs < ofs) {
+                final int m = lastOfs + ((ofs - lastOfs) >>> 1);
+                if (c.compare(key, arr[base + m]) > 0) {
+                    lastOfs = m + 1;
+                } else {
+                    ofs = m;
+                }
+            }
+            return ofs;
+        }
+
+        /**
+         * Like {@link #gallopLeft}, but returns the rightmost insertion position,
+         * so that {@code key} goes after elements equal to it.
+         */
+        private static <E> int gallopRight(E key, E[] arr, int base, int len, int hint, Comparator<? super E> c) {
+            int lastOfs = 0;
+            int ofs = 1;
+            if (c.compare(key, arr[base + hint]) < 0) {
+                final int maxOfs = hint + 1;
+                while (ofs < maxOfs && c.compare(key, arr[base + hint - ofs]) < 0) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = maxOfs;
+                    }
+                }
+                ofs = Math.min(ofs, maxOfs);
+                final int t = lastOfs;
+                lastOfs = hint - ofs;
+                ofs = hint - t;
+            } else {
+                final int maxOfs = len - hint;
+                while (ofs < maxOfs && c.compare(key, arr[base + hint + ofs]) >= 0) {
+                    lastOfs = ofs;
+                    ofs = (ofs << 1) + 1;
+                    if (ofs <= 0) {
+                        ofs = maxOfs;
+                    }
+                }
+                ofs = Math.min(ofs, maxOfs);
+                lastOfs += hint;
+                ofs += hint;
+            }
+
+            // arr[base + lastOfs] <= key < arr[base + ofs]
+            lastOfs++;
+            while (lastOfs < ofs) {
+                final int m = lastOfs + ((ofs - lastOfs) >>> 1);
+                if (c.compare(key, arr[base + m]) < 0) {
+                    ofs = m;
+                } else {
+                    lastOfs = m + 1;
+                }
+            }
+            return ofs;
+        }
+
+        /**
+         * Merges adjacent runs in place, copying the shorter first run into the
+         * buffer and filling from the left. Requires that the first element of
+         * run 2 is less than the first of run 1, and that the last element of
+         * run 1 is greater than every element of run 2.
+         */
+        private void mergeLo(int base1, int len1, int base2, int len2) {
+            final E[] t = ensureCapacity(len1);
+            System.arraycopy(a, base1, t, 0, len1);
+            int cursor1 = 0;
+            int cursor2 = base2;
+            int dest = base1;
+
+            a[dest++] = a[cursor2++];
+            if (--len2 == 0) {
+                System.arraycopy(t, cursor1, a, dest, len1);
+                return;
+            }
+            if (len1 == 1) {
+                System.arraycopy(a, cursor2, a, dest, len2);
+                a[dest + len2] = t[cursor1];
+                return;
+            }
+
+            int gallop = minGallop;
+            outer: while (true) {
+                int count1 = 0;
+                int count2 = 0;
+
+                // one element at a time until one run starts winning consistently
+                do {
+                    if (c.compare(a[cursor2], t[cursor1]) < 0) {
+                        a[dest++] = a[cursor2++];
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 0) {
+                            break outer;
+                        }
+                    } else {
+                        a[dest++] = t[cursor1++];
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 1) {
+                            break outer;
+                        }
+                    }
+                } while ((count1 | count2) < gallop);
+
+                // then gallop, copying whole stretches, until that stops paying off
+                do {
+                    count1 = gallopRight(a[cursor2], t, cursor1, len1, 0, c);
+                    if (count1 != 0) {
+                        System.arraycopy(t, cursor1, a, dest, count1);
+                        dest += count1;
+                        cursor1 += count1;
+                        len1 -= count1;
+                        if (len1 <= 1) {
+                            break outer;
+                        }
+                    }
+                    a[dest++] = a[cursor2++];
+                    if (--len2 == 0) {
+                        break outer;
+                    }
+
+                    count2 = gallopLeft(t[cursor1], a, cursor2, len2, 0, c);
+                    if (count2 != 0) {
+                        System.arraycopy(a, cursor2, a, dest, count2);
+                        dest += count2;
+                        cursor2 += count2;
+                        len2 -= count2;
+                        if (len2 == 0) {
+                            break outer;
+                        }
+                    }
+                    a[dest++] = t[cursor1++];
+                    if (--len1 == 1) {
+                        break outer;
+                    }
+                    gallop--;
+                } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+                gallop = Math.max(gallop, 0) + 2;
+            }
+            minGallop = Math.max(gallop, 1);
+
+            if (len1 == 1) {
+                System.arraycopy(a, cursor2, a, dest, len2);
+                a[dest + len2] = t[cursor1];
+            } else if (len1 == 0) {
+                throw new IllegalArgumentException("Comparison method violates its general contract");
+            } else {
+                System.arraycopy(t, cursor1, a, dest, len1);
+            }
+        }
+
+        /**
+         * Mirror image of {@link #mergeLo}: copies the shorter second run into
+         * the buffer and fills from the right.
+         */
+        private void mergeHi(int base1, int len1, int base2, int len2) {
+            final E[] t = ensureCapacity(len2);
+            System.arraycopy(a, base2, t, 0, len2);
+            int cursor1 = base1 + len1 - 1;
+            int cursor2 = len2 - 1;
+            int dest = base2 + len2 - 1;
+
+            a[dest--] = a[cursor1--];
+            if (--len1 == 0) {
+                System.arraycopy(t, 0, a, dest - (len2 - 1), len2);
+                return;
+            }
+            if (len2 == 1) {
+                dest -= len1;
+                cursor1 -= len1;
+                System.arraycopy(a, cursor1 + 1, a, dest + 1, len1);
+                a[dest] = t[cursor2];
+                return;
+            }
+
+            int gallop = minGallop;
+            outer: while (true) {
+                int count1 = 0;
+                int count2 = 0;
+
+                do {
+                    if (c.compare(t[cursor2], a[cursor1]) < 0) {
+                        a[dest--] = a[cursor1--];
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 0) {
+                            break outer;
+                        }
+                    } else {
+                        a[dest--] = t[cursor2--];
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 1) {
+                            break outer;
+                        }
+                    }
+                } while ((count1 | count2) < gallop);
+
+                do {
+                    count1 = len1 - gallopRight(t[cursor2], a, base1, len1, len1 - 1, c);
+                    if (count1 != 0) {
+                        dest -= count1;
+                        cursor1 -= count1;
+                        len1 -= count1;
+                        System.arraycopy(a, cursor1 + 1, a, dest + 1, count1);
+                        if (len1 == 0) {
+                            break outer;
+                        }
+                    }
+                    a[dest--] = t[cursor2--];
+                    if (--len2 == 1) {
+                        break outer;
+                    }
+
+                    count2 = len2 - gallopLeft(a[cursor1], t, 0, len2, len2 - 1, c);
+                    if (count2 != 0) {
+                        dest -= count2;
+                        cursor2 -= count2;
+                        len2 -= count2;
+                        System.arraycopy(t, cursor2 + 1, a, dest + 1, count2);
+                        if (len2 <= 1) {
+                            break outer;
+                        }
+                    }
+                    a[dest--] = a[cursor1--];
+                    if (--len1 == 0) {
+                        break outer;
+                    }
+                    gallop--;
+                } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+                gallop = Math.max(gallop, 0) + 2;
+            }
+            minGallop = Math.max(gallop, 1);
+
+            if (len2 == 1) {
+                dest -= len1;
+                cursor1 -= len1;
+                System.arraycopy(a, cursor1 + 1, a, dest + 1, len1);
+                a[dest] = t[cursor2];
+            } else if (len2 == 0) {
+                throw new IllegalArgumentException("Comparison method violates its general contract");
+            } else {
+                System.arraycopy(t, 0, a, dest - (len2 - 1), len2);
+            }
+        }
+
+        /** @return the merge buffer, grown if needed to hold {@code minCapacity} elements */
+        @SuppressWarnings("unchecked")
+        private E[] ensureCapacity(int minCapacity) {
+            if (tmp == null || tmp.length < minCapacity) {
+                final int newSize = Math.max(minCapacity,
+                        Math.min(Integer.highestOneBit(minCapacity) << 1, a.length >>> 1));
+                tmp = (E[]) Array.newInstance(a.getClass().getComponentType(), newSize);
+            }
+            return tmp;
+        }
+    }
+
     /**
      * This class should not be instantiated.
      */
@@ -21,13 +627,13 @@ public final class Sort {
      * @param start inclusive
      * @param end   exclusive
      */
-    private static <E extends Comparable<E>> void insertionSort(E[] arr, int start, int end) {
+    private static <E> void insertionSort(E[] arr, int start, int end, Comparator<? super E> c) {
         /** items below the partition are sorted */
         int partition = start + 1;
         for (; partition < end; partition++) {
             E item = arr[partition];
             int i = partition - 1;
-            while (i >= start && arr[i].compareTo(item) > 0) {
+            while (i >= start && c.compare(arr[i], item) > 0) {
                 arr[i + 1] = arr[i];
                 i--;
             }
@@ -36,32 +642,25 @@ public final class Sort {
     }
 
     /**
-     * @param list  list to be sorted
-     * @param start inclusive
-     * @param end   exclusive
+     * Sorts the array using insertion sort.
+     * 
+     * @param <E> type of elements in the array
+     * @param arr array to be sorted
      */
-    private static <E extends Comparable<E>> void insertionSort(List<E> list, int start, int end) {
-        /** items below the partition are sorted */
-        int partition = start + 1;
-        for (; partition < end; partition++) {
-            E item = list.get(partition);
-            int i = partition - 1;
-            while (i >= start && list.get(i).compareTo(item) > 0) {
-                list.set(i + 1, list.get(i));
-                i--;
-            }
-            list.set(i + 1, item);
-        }
+    public static <E extends Comparable<E>> void insertionSort(E[] arr) {
+        insertionSort(arr, Comparator.naturalOrder());
     }
 
     /**
-     * Sorts the array using insertion sort.
+     * Sorts the array using insertion sort, in the order imposed by the given
+     * comparator.
      * 
      * @param <E> type of elements in the array
      * @param arr array to be sorted
+     * @param c   comparator to order by, or {@code null} for natural order
      */
-    public static <E extends Comparable<E>> void insertionSort(E[] arr) {
-        insertionSort(arr, 0, arr.length);
+    public static <E> void insertionSort(E[] arr, Comparator<? super E> c) {
+        insertionSort(arr, 0, arr.length, orNatural(c));
     }
 
     /**
@@ -71,7 +670,22 @@ public final class Sort {
      * @param list list to be sorted
      */
     public static <E extends Comparable<E>> void insertionSort(List<E> list) {
-        insertionSort(list, 0, list.size());
+        insertionSort(list, Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts the list using insertion sort, in the order imposed by the given
+     * comparator. The list is copied into an array, sorted there, and written
+     * back through a {@link ListIterator}, so no indexed access is made.
+     * 
+     * @param <E>  type of elements in the list
+     * @param list list to be sorted
+     * @param c    comparator to order by, or {@code null} for natural order
+     */
+    public static <E> void insertionSort(List<E> list, Comparator<? super E> c) {
+        final E[] arr = toArray(list);
+        insertionSort(arr, 0, arr.length, orNatural(c));
+        writeBack(list, arr);
     }
 
     /**
@@ -84,6 +698,14 @@ public final class Sort {
      *              lives at this index.
      */
     static <E extends Comparable<E>> void binaryInsert(E[] arr, int start, int end) {
+        binaryInsert(arr, start, end, Comparator.naturalOrder());
+    }
+
+    /**
+     * {@link #binaryInsert(Comparable[], int, int)} in the order imposed by the
+     * given comparator.
+     */
+    static <E> void binaryInsert(E[] arr, int start, int end, Comparator<? super E> c) {
         if (start < 0 || end > arr.length) {
             throw new ArrayIndexOutOfBoundsException(
                     String.format(
@@ -97,17 +719,17 @@ public final class Sort {
                     String.format(
                             "start %d end %d: end must be greater than start",
                             start, end));
-        } else if (numElements == 1 || arr[end].compareTo(arr[end - 1]) > 0) {
+        } else if (numElements == 1 || c.compare(arr[end], arr[end - 1]) > 0) {
             // already sorted
         } else if (numElements == 2) { // just swap if necessary
-            if (arr[end].compareTo(arr[start]) < 0) {
+            if (c.compare(arr[end], arr[start]) < 0) {
                 E tmp = arr[start];
                 arr[start] = arr[end];
                 arr[end] = tmp;
             }
         } else {
             // three or more elements
-            binaryInsertMachinery(arr, start, end);
+            binaryInsertMachinery(arr, start, end, c);
         }
     }
 
@@ -121,35 +743,42 @@ public final class Sort {
      * Use {@link List#subList(int, int)} to get a sublist to sort.
      */
     static <E extends Comparable<E>> void binaryInsert(List<E> list) {
+        binaryInsert(list, Comparator.naturalOrder());
+    }
+
+    /**
+     * {@link #binaryInsert(List)} in the order imposed by the given comparator.
+     */
+    static <E> void binaryInsert(List<E> list, Comparator<? super E> c) {
         if (list.isEmpty()) {
             throw new IllegalArgumentException("empty list, no item to insert");
-        } else if (list.size() == 1 || list.get(list.size() - 1).compareTo(list.get(list.size() - 2)) > 0) {
+        } else if (list.size() == 1 || c.compare(list.get(list.size() - 1), list.get(list.size() - 2)) > 0) {
             // already sorted
         } else if (list.size() == 2) {
-            if (list.get(1).compareTo(list.get(0)) < 0) {
+            if (c.compare(list.get(1), list.get(0)) < 0) {
                 E tmp = list.get(0);
                 list.set(0, list.get(1));
                 list.set(1, tmp);
             }
         } else {
-            binaryInsertMachinery(list);
+            binaryInsertMachinery(list, c);
         }
 
     }
 
-    private static <E extends Comparable<E>> void binaryInsertMachinery(E[] arr, int start, int end) {
+    private static <E> void binaryInsertMachinery(E[] arr, int start, int end, Comparator<? super E> c) {
         E item = arr[end];
         int middleIndex = start + (end - start) / 2;
         E middle = arr[middleIndex];
-        int cmp = item.compareTo(middle);
+        int cmp = c.compare(item, middle);
         if (cmp < 0) {
             for (int i = end; i > middleIndex; i--) {
                 arr[i] = arr[i - 1];
             }
             arr[middleIndex] = item;
-            binaryInsert(arr, start, middleIndex);
+            binaryInsert(arr, start, middleIndex, c);
         } else if (cmp > 0) {
-            binaryInsert(arr, middleIndex + 1, end);
+            binaryInsert(arr, middleIndex + 1, end, c);
         } else /* cmp == 0 */ {
             int idx = middleIndex;
             /*
@@ -157,7 +786,7 @@ public final class Sort {
              * this insertion stable in that it preserves the order of equal
              * elements:
              */
-            while (idx < end - 1 && arr[idx].compareTo(arr[idx + 1]) == 0) {
+            while (idx < end - 1 && c.compare(arr[idx], arr[idx + 1]) == 0) {
                 idx++;
             }
             for (int i = end; i > idx + 1; i--) {
@@ -167,19 +796,19 @@ public final class Sort {
         }
     }
 
-    private static <E extends Comparable<E>> void binaryInsertMachinery(List<E> list) {
+    private static <E> void binaryInsertMachinery(List<E> list, Comparator<? super E> c) {
         E item = list.get(list.size() - 1);
         int middleIndex = list.size() / 2;
         E middle = list.get(middleIndex);
-        int cmp = item.compareTo(middle);
+        int cmp = c.compare(item, middle);
         if (cmp < 0) {
             for (int i = list.size() - 1; i > middleIndex; i--) {
                 list.set(i, list.get(i - 1));
             }
             list.set(middleIndex, item);
-            binaryInsert(list.subList(0, middleIndex + 1));
+            binaryInsert(list.subList(0, middleIndex + 1), c);
         } else if (cmp > 0) {
-            binaryInsert(list.subList(middleIndex + 1, list.size()));
+            binaryInsert(list.subList(middleIndex + 1, list.size()), c);
         } else /* cmp == 0 */ {
             int idx = middleIndex;
             /*
@@ -187,7 +816,7 @@ public final class Sort {
              * this insertion stable in that it preserves the order of equal
              * elements:
              */
-            while (idx < list.size() - 2 && list.get(idx).compareTo(list.get(idx + 1)) == 0) {
+            while (idx < list.size() - 2 && c.compare(list.get(idx), list.get(idx + 1)) == 0) {
                 idx++;
             }
             for (int i = list.size() - 1; i > idx + 1; i--) {
@@ -202,13 +831,13 @@ public final class Sort {
      * @param start inclusive
      * @param end   exclusive
      */
-    private static <E extends Comparable<E>> void binaryInsertionSort(E[] arr, int start, int end) {
+    private static <E> void binaryInsertionSort(E[] arr, int start, int end, Comparator<? super E> c) {
         if (start == end || start == end - 1) {
             return;
         }
         int bottom = start;
         for (int top = start + 1; top < end; top++) {
-            binaryInsert(arr, bottom, top);
+            binaryInsert(arr, bottom, top, c);
         }
     }
 
@@ -219,7 +848,19 @@ public final class Sort {
      * @param arr array to be sorted
      */
     public static <E extends Comparable<E>> void binaryInsertionSort(E[] arr) {
-        binaryInsertionSort(arr, 0, arr.length);
+        binaryInsertionSort(arr, Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts this array using binary insertion sort, in the order imposed by the
+     * given comparator. This is a stable sort.
+     * 
+     * @param <E> the type of elements in this array
+     * @param arr array to be sorted
+     * @param c   comparator to order by, or {@code null} for natural order
+     */
+    public static <E> void binaryInsertionSort(E[] arr, Comparator<? super E> c) {
+        binaryInsertionSort(arr, 0, arr.length, orNatural(c));
     }
 
     /**
@@ -229,22 +870,785 @@ public final class Sort {
      * @param list list to be sorted
      */
     public static <E extends Comparable<E>> void binaryInsertionSort(List<E> list) {
+        binaryInsertionSort(list, Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts this list using binary insertion sort, in the order imposed by the
+     * given comparator. The list is copied into an array, sorted there, and
+     * written back through a {@link ListIterator}, so no indexed access or
+     * {@link List#subList(int, int) subList} view is needed. This is a stable
+     * sort.
+     * 
+     * @param <E>  the type of elements in this list
+     * @param list list to be sorted
+     * @param c    comparator to order by, or {@code null} for natural order
+     */
+    public static <E> void binaryInsertionSort(List<E> list, Comparator<? super E> c) {
         if (list.size() <= 1) {
             return;
         }
-        for (int i = 1; i < list.size(); i++) {
-            binaryInsert(list.subList(0, i + 1));
-        }
+        final E[] arr = toArray(list);
+        binaryInsertionSort(arr, 0, arr.length, orNatural(c));
+        writeBack(list, arr);
     }
 
     /**
-     * Sorts this array using merge sort. This is a stable sort.
+     * Sorts this array using merge sort. This is a stable sort, and runs in
+     * O(n log n) time with a single auxiliary array of the same length.
      * 
      * @param <E> the type of elements in this array
      * @param arr array to be sorted
      */
     public static <E extends Comparable<E>> void mergeSort(E[] arr) {
-        throw new UnsupportedOperationException("not implemented");
+        mergeSort(arr, null, Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts this array using merge sort, in the order imposed by the given
+     * comparator. This is a stable sort, and runs in O(n log n) time with a
+     * single auxiliary array of the same length.
+     * 
+     * @param <E> the type of elements in this array
+     * @param arr array to be sorted
+     * @param c   comparator to order by, or {@code null} for natural order
+     */
+    public static <E> void mergeSort(E[] arr, Comparator<? super E> c) {
+        mergeSort(arr, null, c);
+    }
+
+    /**
+     * Sorts this array using merge sort, using the given buffer as scratch space.
+     * Passing the same buffer to repeated calls avoids allocating anything.
+     * This is a stable sort.
+     * 
+     * @param <E>    the type of elements in this array
+     * @param arr    array to be sorted
+     * @param buffer scratch space at least as long as {@code arr}, whose
+     *               contents are overwritten, or {@code null} to allocate one
+     * @throws IllegalArgumentException if the buffer is too short
+     */
+    public static <E extends Comparable<E>> void mergeSort(E[] arr, E[] buffer) {
+        mergeSort(arr, buffer, Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts this array using merge sort, in the order imposed by the given
+     * comparator, using the given buffer as scratch space. This is a stable
+     * sort.
+     * 
+     * @param <E>    the type of elements in this array
+     * @param arr    array to be sorted
+     * @param buffer scratch space at least as long as {@code arr}, whose
+     *               contents are overwritten, or {@code null} to allocate one
+     * @param c      comparator to order by, or {@code null} for natural order
+     * @throws IllegalArgumentException if the buffer is too short
+     */
+    public static <E> void mergeSort(E[] arr, E[] buffer, Comparator<? super E> c) {
+        c = orNatural(c);
+        if (arr.length <= INSERTION_SORT_THRESHOLD) {
+            binaryInsertionSort(arr, 0, arr.length, c);
+            return;
+        }
+        if (buffer == null) {
+            buffer = Arrays.copyOf(arr, arr.length);
+        } else if (buffer.length < arr.length) {
+            throw new IllegalArgumentException(
+                    String.format("buffer of length %d is shorter than array of length %d",
+                            buffer.length, arr.length));
+        }
+
+        mergeSort(arr, 0, arr.length, buffer, c);
+    }
+
+    /**
+     * Sorts this list using merge sort. The list is copied into an array, sorted
+     * there, and written back through a {@link ListIterator}. This is a stable
+     * sort.
+     * 
+     * @param <E>  the type of elements in this list
+     * @param list list to be sorted
+     */
+    public static <E extends Comparable<E>> void mergeSort(List<E> list) {
+        mergeSort(list, Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts this list using merge sort, in the order imposed by the given
+     * comparator. The list is copied into an array, sorted there, and written
+     * back through a {@link ListIterator}. This is a stable sort.
+     * 
+     * @param <E>  the type of elements in this list
+     * @param list list to be sorted
+     * @param c    comparator to order by, or {@code null} for natural order
+     */
+    public static <E> void mergeSort(List<E> list, Comparator<? super E> c) {
+        final E[] arr = toArray(list);
+        mergeSort(arr, null, c);
+        writeBack(list, arr);
+    }
+
+    /**
+     * Bottom-up merge sort of {@code arr[start, end)}. Runs of
+     * {@link #INSERTION_SORT_THRESHOLD} are sorted in place, then each pass
+     * merges pairs of runs from one of {@code arr} and {@code buffer} into the
+     * other, so nothing is allocated and each pass copies every element once.
+     * {@code buffer[start, end)} is used as scratch space.
+     */
+    static <E> void mergeSort(E[] arr, int start, int end, E[] buffer, Comparator<? super E> c) {
+        for (int lo = start; lo < end; lo += INSERTION_SORT_THRESHOLD) {
+            binaryInsertionSort(arr, lo, Math.min(lo + INSERTION_SORT_THRESHOLD, end), c);
+        }
+
+        E[] src = arr;
+        E[] dst = buffer;
+        for (int width = INSERTION_SORT_THRESHOLD; width < end - start; width <<= 1) {
+            for (int lo = start; lo < end; lo += width << 1) {
+                final int mid = Math.min(lo + width, end);
+                final int hi = Math.min(mid + width, end);
+                mergeRuns(src, lo, mid, hi, dst, c);
+            }
+            final E[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, start, arr, start, end - start);
+        }
+    }
+
+    /**
+     * Merges the sorted runs {@code src[lo, mid)} and {@code src[mid, hi)} into
+     * {@code dst[lo, hi)}. Ties go to the left run, which keeps the merge stable.
+     */
+    private static <E> void mergeRuns(E[] src, int lo, int mid, int hi, E[] dst, Comparator<? super E> c) {
+        mergeRuns(src, lo, mid, mid, hi, dst, lo, c);
+    }
+
+    /**
+     * Merges the sorted runs {@code src[lo1, hi1)} and {@code src[lo2, hi2)} into
+     * {@code dst} starting at {@code k}. Ties go to the first run.
+     */
+    private static <E> void mergeRuns(E[] src, int lo1, int hi1, int lo2, int hi2,
+            E[] dst, int k, Comparator<? super E> c) {
+        if (lo1 == hi1 || lo2 == hi2 || c.compare(src[hi1 - 1], src[lo2]) <= 0) {
+            // already in order
+            System.arraycopy(src, lo1, dst, k, hi1 - lo1);
+            System.arraycopy(src, lo2, dst, k + (hi1 - lo1), hi2 - lo2);
+            return;
+        }
+
+        int i = lo1;
+        int j = lo2;
+        while (i < hi1 && j < hi2) {
+            dst[k++] = c.compare(src[i], src[j]) <= 0 ? src[i++] : src[j++];
+        }
+        System.arraycopy(src, i, dst, k, hi1 - i);
+        System.arraycopy(src, j, dst, k + (hi1 - i), hi2 - j);
+    }
+
+    /** @return the first index in the sorted {@code arr[lo, hi)} whose element is not less than {@code key} */
+    private static <E> int lowerBound(E[] arr, int lo, int hi, E key, Comparator<? super E> c) {
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (c.compare(arr[mid], key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** @return the first index in the sorted {@code arr[lo, hi)} whose element is greater than {@code key} */
+    private static <E> int upperBound(E[] arr, int lo, int hi, E key, Comparator<? super E> c) {
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (c.compare(arr[mid], key) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Sorts this array using merge sort, split across the common
+     * {@link ForkJoinPool}. This is a stable sort.
+     * 
+     * @param <E> the type of elements in this array
+     * @param arr array to be sorted
+     */
+    public static <E extends Comparable<E>> void parallelMergeSort(E[] arr) {
+        parallelMergeSort(arr, Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts this array using merge sort, in the order imposed by the given
+     * comparator, split across the common {@link ForkJoinPool}. This is a stable
+     * sort.
+     * 
+     * @param <E> the type of elements in this array
+     * @param arr array to be sorted
+     * @param c   comparator to order by, or {@code null} for natural order
+     */
+    public static <E> void parallelMergeSort(E[] arr, Comparator<? super E> c) {
+        parallelMergeSort(arr, c, PARALLEL_THRESHOLD, null);
+    }
+
+    /**
+     * Sorts this array using merge sort, split across a {@link ForkJoinPool}.
+     * Both halves of every split are sorted in parallel and then merged in
+     * parallel, so all of the pool's threads are kept busy until the pieces are
+     * smaller than {@code threshold}. A single auxiliary array of the same length
+     * is allocated. This is a stable sort.
+     * 
+     * @param <E>       the type of elements in this array
+     * @param arr       array to be sorted
+     * @param threshold number of elements below which work is done sequentially
+     * @param pool      pool to run in, or {@code null} for the common pool
+     * @throws IllegalArgumentException if the threshold is less than 1
+     */
+    public static <E extends Comparable<E>> void parallelMergeSort(E[] arr, int threshold, ForkJoinPool pool) {
+        parallelMergeSort(arr, Comparator.naturalOrder(), threshold, pool);
+    }
+
+    /**
+     * {@link #parallelMergeSort(Comparable[], int, ForkJoinPool)} in the order
+     * imposed by the given comparator. This is a stable sort.
+     * 
+     * @param <E>       the type of elements in this array
+     * @param arr       array to be sorted
+     * @param c         comparator to order by, or {@code null} for natural order
+     * @param threshold number of elements below which work is done sequentially
+     * @param pool      pool to run in, or {@code null} for the common pool
+     * @throws IllegalArgumentException if the threshold is less than 1
+     */
+    public static <E> void parallelMergeSort(E[] arr, Comparator<? super E> c, int threshold, ForkJoinPool pool) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+        c = orNatural(c);
+        if (arr.length <= threshold) {
+            mergeSort(arr, null, c);
+            return;
+        }
+
+        final E[] buffer = Arrays.copyOf(arr, arr.length);
+        (pool == null ? ForkJoinPool.commonPool() : pool)
+                .invoke(new MergeSortTask<>(arr, buffer, 0, arr.length, c, threshold, false));
+    }
+
+    /**
+     * Sorts this list using merge sort, split across the common
+     * {@link ForkJoinPool}. This is a stable sort.
+     * 
+     * @param <E>  the type of elements in this list
+     * @param list list to be sorted
+     */
+    public static <E extends Comparable<E>> void parallelMergeSort(List<E> list) {
+        parallelMergeSort(list, Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts this list using merge sort, in the order imposed by the given
+     * comparator, split across the common {@link ForkJoinPool}. This is a stable
+     * sort.
+     * 
+     * @param <E>  the type of elements in this list
+     * @param list list to be sorted
+     * @param c    comparator to order by, or {@code null} for natural order
+     */
+    public static <E> void parallelMergeSort(List<E> list, Comparator<? super E> c) {
+        parallelMergeSort(list, c, PARALLEL_THRESHOLD, null);
+    }
+
+    /**
+     * Sorts this list using merge sort, split across a {@link ForkJoinPool}.
+     * The list is copied into an array, sorted there with
+     * {@link #parallelMergeSort(Comparable[], int, ForkJoinPool)}, and written
+     * back through a {@link ListIterator}. This is a stable sort.
+     * 
+     * @param <E>       the type of elements in this list
+     * @param list      list to be sorted
+     * @param threshold number of elements below which work is done sequentially
+     * @param pool      pool to run in, or {@code null} for the common pool
+     * @throws IllegalArgumentException if the threshold is less than 1
+     */
+    public static <E extends Comparable<E>> void parallelMergeSort(List<E> list, int threshold, ForkJoinPool pool) {
+        parallelMergeSort(list, Comparator.naturalOrder(), threshold, pool);
+    }
+
+    /**
+     * {@link #parallelMergeSort(List, int, ForkJoinPool)} in the order imposed by
+     * the given comparator. This is a stable sort.
+     * 
+     * @param <E>       the type of elements in this list
+     * @param list      list to be sorted
+     * @param c         comparator to order by, or {@code null} for natural order
+     * @param threshold number of elements below which work is done sequentially
+     * @param pool      pool to run in, or {@code null} for the common pool
+     * @throws IllegalArgumentException if the threshold is less than 1
+     */
+    public static <E> void parallelMergeSort(List<E> list, Comparator<? super E> c, int threshold,
+            ForkJoinPool pool) {
+        final E[] arr = toArray(list);
+        parallelMergeSort(arr, c, threshold, pool);
+        writeBack(list, arr);
+    }
+
+    /**
+     * Sorts this array with an adaptive, stable merge sort in the style of
+     * TimSort.
+     * <p>
+     * The array is split into natural runs: maximal stretches that are already
+     * ascending, or strictly descending, which are reversed. Runs shorter than a
+     * minimum length of 32 to 64 are extended by binary insertion. Runs are
+     * merged as they are found, keeping the stack of pending runs balanced, and
+     * merges switch to galloping (exponential search) when one run keeps
+     * winning, so long stretches are copied with few comparisons. Input that is
+     * already sorted, reversed, or made of a few sorted pieces is sorted in
+     * close to O(n) time; anything else takes O(n log n).
+     * 
+     * @param <E> the type of elements in this array
+     * @param arr array to be sorted
+     * @throws IllegalArgumentException if {@code compareTo} is found to be
+     *                                  inconsistent
+     */
+    public static <E extends Comparable<E>> void timSort(E[] arr) {
+        timSort(arr, Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts this array with {@link #timSort(Comparable[])}, in the order imposed
+     * by the given comparator. This is a stable sort.
+     * 
+     * @param <E> the type of elements in this array
+     * @param arr array to be sorted
+     * @param c   comparator to order by, or {@code null} for natural order
+     * @throws IllegalArgumentException if the comparator is found to be
+     *                                  inconsistent
+     */
+    public static <E> void timSort(E[] arr, Comparator<? super E> c) {
+        new TimSorter<>(arr, orNatural(c)).sort(0, arr.length);
+    }
+
+    /**
+     * Sorts this list with {@link #timSort(Comparable[])}. The list is copied
+     * into an array, sorted there, and written back through a
+     * {@link ListIterator}. This is a stable sort.
+     * 
+     * @param <E>  the type of elements in this list
+     * @param list list to be sorted
+     */
+    public static <E extends Comparable<E>> void timSort(List<E> list) {
+        timSort(list, Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts this list with {@link #timSort(Object[], Comparator)}. The list is
+     * copied into an array, sorted there, and written back through a
+     * {@link ListIterator}. This is a stable sort.
+     * 
+     * @param <E>  the type of elements in this list
+     * @param list list to be sorted
+     * @param c    comparator to order by, or {@code null} for natural order
+     */
+    public static <E> void timSort(List<E> list, Comparator<? super E> c) {
+        final E[] arr = toArray(list);
+        timSort(arr, c);
+        writeBack(list, arr);
+    }
+
+    /**
+     * Sorts this array by a key extracted from each element, in the natural
+     * order of the keys. The key function is called exactly once per element:
+     * the keys are stored in an array alongside the elements and the two are
+     * sorted together with a stable merge sort, so a costly key is never
+     * recomputed for each comparison.
+     * 
+     * @param <E> the type of elements in this array
+     * @param <K> the type of the keys
+     * @param arr array to be sorted
+     * @param key extracts the key to sort by
+     */
+    public static <E, K extends Comparable<? super K>> void sortByKey(E[] arr, Function<? super E, ? extends K> key) {
+        sortByKey(arr, key, Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts this array by a key extracted from each element, in the order
+     * imposed on the keys by the given comparator. The key function is called
+     * exactly once per element. This is a stable sort.
+     * 
+     * @param <E>           the type of elements in this array
+     * @param <K>           the type of the keys
+     * @param arr           array to be sorted
+     * @param key           extracts the key to sort by
+     * @param keyComparator comparator to order the keys by
+     */
+    public static <E, K> void sortByKey(E[] arr, Function<? super E, ? extends K> key,
+            Comparator<? super K> keyComparator) {
+        @SuppressWarnings("unchecked")
+        final K[] keys = (K[]) new Object[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            keys[i] = key.apply(arr[i]);
+        }
+        sortByKey(arr, keys, keyComparator);
+    }
+
+    /**
+     * Sorts this list by a key extracted from each element, in the natural
+     * order of the keys. The list is copied into an array, sorted there with
+     * {@link #sortByKey(Object[], Function)}, and written back through a
+     * {@link ListIterator}.
+     * 
+     * @param <E>  the type of elements in this list
+     * @param <K>  the type of the keys
+     * @param list list to be sorted
+     * @param key  extracts the key to sort by
+     */
+    public static <E, K extends Comparable<? super K>> void sortByKey(List<E> list,
+            Function<? super E, ? extends K> key) {
+        sortByKey(list, key, Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts this list by a key extracted from each element, in the order
+     * imposed on the keys by the given comparator. The key function is called
+     * exactly once per element. This is a stable sort.
+     * 
+     * @param <E>           the type of elements in this list
+     * @param <K>           the type of the keys
+     * @param list          list to be sorted
+     * @param key           extracts the key to sort by
+     * @param keyComparator comparator to order the keys by
+     */
+    public static <E, K> void sortByKey(List<E> list, Function<? super E, ? extends K> key,
+            Comparator<? super K> keyComparator) {
+        final E[] arr = toArray(list);
+        sortByKey(arr, key, keyComparator);
+        writeBack(list, arr);
+    }
+
+    /**
+     * Bottom-up merge sort of {@code keys}, moving each element of {@code arr}
+     * along with its key. The same as {@link #mergeSort(Object[], int, int,
+     * Object[], Comparator)}, but every move is made in both arrays.
+     */
+    private static <E, K> void sortByKey(E[] arr, K[] keys, Comparator<? super K> c) {
+        final int n = arr.length;
+        for (int lo = 0; lo < n; lo += INSERTION_SORT_THRESHOLD) {
+            final int hi = Math.min(lo + INSERTION_SORT_THRESHOLD, n);
+            for (int partition = lo + 1; partition < hi; partition++) {
+                final K k = keys[partition];
+                final E item = arr[partition];
+                int i = partition - 1;
+                while (i >= lo && c.compare(keys[i], k) > 0) {
+                    keys[i + 1] = keys[i];
+                    arr[i + 1] = arr[i];
+                    i--;
+                }
+                keys[i + 1] = k;
+                arr[i + 1] = item;
+            }
+        }
+        if (n <= INSERTION_SORT_THRESHOLD) {
+            return;
+        }
+
+        K[] srcKeys = keys;
+        K[] dstKeys = Arrays.copyOf(keys, n);
+        E[] src = arr;
+        E[] dst = Arrays.copyOf(arr, n);
+        for (int width = INSERTION_SORT_THRESHOLD; width < n; width <<= 1) {
+            for (int lo = 0; lo < n; lo += width << 1) {
+                final int mid = Math.min(lo + width, n);
+                final int hi = Math.min(mid + width, n);
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    if (c.compare(srcKeys[i], srcKeys[j]) <= 0) {
+                        dstKeys[k] = srcKeys[i];
+                        dst[k++] = src[i++];
+                    } else {
+                        dstKeys[k] = srcKeys[j];
+                        dst[k++] = src[j++];
+                    }
+                }
+                System.arraycopy(srcKeys, i, dstKeys, k, mid - i);
+                System.arraycopy(src, i, dst, k, mid - i);
+                k += mid - i;
+                System.arraycopy(srcKeys, j, dstKeys, k, hi - j);
+                System.arraycopy(src, j, dst, k, hi - j);
+            }
+            final K[] tmpKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = tmpKeys;
+            final E[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+        }
+    }
+
+    /** @return {@code c}, or natural order if {@code c} is {@code null} */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <E> Comparator<? super E> orNatural(Comparator<? super E> c) {
+        return c == null ? (Comparator) Comparator.naturalOrder() : c;
+    }
+
+    /**
+     * Sorts this array into ascending numerical order using LSD radix sort.
+     * <p>
+     * Keys are consumed eight bits at a time, so the four passes each scatter
+     * into 256 buckets whose counters stay in the L1 cache. All four histograms
+     * are built in a single read of the array, and a pass is skipped when every
+     * element has the same digit, as the high digits of small numbers do. Runs
+     * in O(n) time with one auxiliary array of the same length; arrays of fewer
+     * than 64 elements are insertion sorted instead.
+     * 
+     * @param arr array to be sorted
+     */
+    public static void radixSort(int[] arr) {
+        if (arr.length < RADIX_SORT_THRESHOLD) {
+            insertionSort(arr);
+            return;
+        }
+
+        final int n = arr.length;
+        final int passes = Integer.SIZE / RADIX_BITS;
+        final int[][] counts = new int[passes][RADIX + 1];
+        for (int v : arr) {
+            for (int p = 0; p < passes; p++) {
+                counts[p][intDigit(v, p) + 1]++;
+            }
+        }
+
+        int[] src = arr;
+        int[] dst = new int[n];
+        for (int p = 0; p < passes; p++) {
+            final int[] count = counts[p];
+            if (count[intDigit(src[0], p) + 1] == n) {
+                continue;
+            }
+            for (int d = 0; d < RADIX; d++) {
+                count[d + 1] += count[d];
+            }
+            for (int v : src) {
+                dst[count[intDigit(v, p)]++] = v;
+            }
+            final int[] t = src;
+            src = dst;
+            dst = t;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+        }
+    }
+
+    /**
+     * Sorts this array into ascending numerical order using LSD radix sort, in
+     * eight passes of eight bits. See {@link #radixSort(int[])}.
+     * 
+     * @param arr array to be sorted
+     */
+    public static void radixSort(long[] arr) {
+        if (arr.length < RADIX_SORT_THRESHOLD) {
+            insertionSort(arr);
+            return;
+        }
+
+        final int n = arr.length;
+        final int passes = Long.SIZE / RADIX_BITS;
+        final int[][] counts = new int[passes][RADIX + 1];
+        for (long v : arr) {
+            for (int p = 0; p < passes; p++) {
+                counts[p][longDigit(v, p) + 1]++;
+            }
+        }
+
+        long[] src = arr;
+        long[] dst = new long[n];
+        for (int p = 0; p < passes; p++) {
+            final int[] count = counts[p];
+            if (count[longDigit(src[0], p) + 1] == n) {
+                continue;
+            }
+            for (int d = 0; d < RADIX; d++) {
+                count[d + 1] += count[d];
+            }
+            for (long v : src) {
+                dst[count[longDigit(v, p)]++] = v;
+            }
+            final long[] t = src;
+            src = dst;
+            dst = t;
+        }
+
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+        }
+    }
+
+    /**
+     * Sorts this array into the ascending order of {@link Float#compare}: -0.0
+     * before 0.0, and NaNs last. NaNs are moved to the end first; the remaining
+     * values are mapped to ints that sort the same way, radix sorted with
+     * {@link #radixSort(int[])}, and mapped back bit for bit.
+     * 
+     * @param arr array to be sorted
+     */
+    public static void radixSort(float[] arr) {
+        final int n = moveNaNsToEnd(arr);
+        if (n < RADIX_SORT_THRESHOLD) {
+            insertionSort(arr, n);
+            return;
+        }
+
+        final int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = floatKey(Float.floatToRawIntBits(arr[i]));
+        }
+        radixSort(keys);
+        for (int i = 0; i < n; i++) {
+            arr[i] = Float.intBitsToFloat(floatKey(keys[i]));
+        }
+    }
+
+    /**
+     * Sorts this array into the ascending order of {@link Double#compare}: -0.0
+     * before 0.0, and NaNs last. See {@link #radixSort(float[])}.
+     * 
+     * @param arr array to be sorted
+     */
+    public static void radixSort(double[] arr) {
+        final int n = moveNaNsToEnd(arr);
+        if (n < RADIX_SORT_THRESHOLD) {
+            insertionSort(arr, n);
+            return;
+        }
+
+        final long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = doubleKey(Double.doubleToRawLongBits(arr[i]));
+        }
+        radixSort(keys);
+        for (int i = 0; i < n; i++) {
+            arr[i] = Double.longBitsToDouble(doubleKey(keys[i]));
+        }
+    }
+
+    /**
+     * @return digit {@code pass} of {@code v}, least significant first. The sign
+     *         bit is flipped in the top digit so that negative numbers sort
+     *         first.
+     */
+    private static int intDigit(int v, int pass) {
+        return ((v ^ Integer.MIN_VALUE) >>> (pass * RADIX_BITS)) & DIGIT_MASK;
+    }
+
+    /** @see #intDigit(int, int) */
+    private static int longDigit(long v, int pass) {
+        return (int) ((v ^ Long.MIN_VALUE) >>> (pass * RADIX_BITS)) & DIGIT_MASK;
+    }
+
+    /**
+     * Maps the bits of a float to an int with the same order as signed ints. A
+     * positive float's bits already order correctly; a negative float's
+     * magnitude bits are flipped so that larger magnitudes sort lower. The
+     * mapping is its own inverse.
+     */
+    private static int floatKey(int bits) {
+        return bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+    }
+
+    /** @see #floatKey(int) */
+    private static long doubleKey(long bits) {
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /** @return the number of values that are not NaN, which now precede the NaNs */
+    private static int moveNaNsToEnd(float[] arr) {
+        int n = arr.length;
+        for (int i = n - 1; i >= 0; i--) {
+            if (Float.isNaN(arr[i])) {
+                final float t = arr[i];
+                arr[i] = arr[--n];
+                arr[n] = t;
+            }
+        }
+        return n;
+    }
+
+    /** @see #moveNaNsToEnd(float[]) */
+    private static int moveNaNsToEnd(double[] arr) {
+        int n = arr.length;
+        for (int i = n - 1; i >= 0; i--) {
+            if (Double.isNaN(arr[i])) {
+                final double t = arr[i];
+                arr[i] = arr[--n];
+                arr[n] = t;
+            }
+        }
+        return n;
+    }
+
+    private static void insertionSort(int[] arr) {
+        for (int partition = 1; partition < arr.length; partition++) {
+            final int item = arr[partition];
+            int i = partition - 1;
+            while (i >= 0 && arr[i] > item) {
+                arr[i + 1] = arr[i];
+                i--;
+            }
+            arr[i + 1] = item;
+        }
+    }
+
+    private static void insertionSort(long[] arr) {
+        for (int partition = 1; partition < arr.length; partition++) {
+            final long item = arr[partition];
+            int i = partition - 1;
+            while (i >= 0 && arr[i] > item) {
+                arr[i + 1] = arr[i];
+                i--;
+            }
+            arr[i + 1] = item;
+        }
+    }
+
+    /** Insertion sorts {@code arr[0, end)}, which must not contain NaN. */
+    private static void insertionSort(float[] arr, int end) {
+        for (int partition = 1; partition < end; partition++) {
+            final float item = arr[partition];
+            int i = partition - 1;
+            while (i >= 0 && Float.compare(arr[i], item) > 0) {
+                arr[i + 1] = arr[i];
+                i--;
+            }
+            arr[i + 1] = item;
+        }
+    }
+
+    /** Insertion sorts {@code arr[0, end)}, which must not contain NaN. */
+    private static void insertionSort(double[] arr, int end) {
+        for (int partition = 1; partition < end; partition++) {
+            final double item = arr[partition];
+            int i = partition - 1;
+            while (i >= 0 && Double.compare(arr[i], item) > 0) {
+                arr[i + 1] = arr[i];
+                i--;
+            }
+            arr[i + 1] = item;
+        }
     }
 
     /**
@@ -271,25 +1675,53 @@ public final class Sort {
     }
 
     /**
-     * Merge two sorted lists into one sorted list.
+     * Merge two sorted lists into one sorted list. Each list is read once, in
+     * order, through its iterator, so no indexed access is made.
      */
     static <E extends Comparable<E>> List<E> merge(List<E> list1, List<E> list2) {
-        int i1 = 0;
-        int i2 = 0;
-
-        List<E> merged = new ArrayList<>(list1.size() + list2.size());
-        for (int i = 0; i < list1.size() + list2.size(); i++) {
-            if (i1 == list1.size()) {
-                merged.add(list2.get(i2++));
-            } else if (i2 == list2.size()) {
-                merged.add(list1.get(i1++));
-            } else if (list1.get(i1).compareTo(list2.get(i2)) < 0) {
-                merged.add(list1.get(i1++));
-            } else /* list1.get(i1).compareTo(list2.get(i2)) >= 0 */ {
-                merged.add(list2.get(i2++));
+        final List<E> merged = new ArrayList<>(list1.size() + list2.size());
+        final Iterator<E> it1 = list1.iterator();
+        final Iterator<E> it2 = list2.iterator();
+        E e1 = it1.hasNext() ? it1.next() : null;
+        E e2 = it2.hasNext() ? it2.next() : null;
+        int remaining1 = list1.size();
+        int remaining2 = list2.size();
+        while (remaining1 > 0 && remaining2 > 0) {
+            if (e1.compareTo(e2) < 0) {
+                merged.add(e1);
+                e1 = --remaining1 > 0 ? it1.next() : null;
+            } else /* e1.compareTo(e2) >= 0 */ {
+                merged.add(e2);
+                e2 = --remaining2 > 0 ? it2.next() : null;
             }
         }
+        if (remaining1 > 0) {
+            merged.add(e1);
+            it1.forEachRemaining(merged::add);
+        } else if (remaining2 > 0) {
+            merged.add(e2);
+            it2.forEachRemaining(merged::add);
+        }
 
         return merged;
     }
+
+    /**
+     * Copies a list into a new {@code Object[]}. It may only be used as an
+     * {@code E[]} where {@code E} erases to {@code Object}, as it does in the
+     * comparator-based methods.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> E[] toArray(List<E> list) {
+        return (E[]) list.toArray();
+    }
+
+    /** Overwrites the list with the contents of the array in one pass. */
+    private static <E> void writeBack(List<E> list, E[] arr) {
+        final ListIterator<E> it = list.listIterator();
+        for (E e : arr) {
+            it.next();
+            it.set(e);
+        }
+    }
 }
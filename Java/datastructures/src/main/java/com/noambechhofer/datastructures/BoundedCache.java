@@ -0,0 +1,357 @@
+package com.noambechhofer.datastructures;
+
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * An in-process cache that holds at most a fixed total weight of entries and
+ * evicts by recency or by frequency of use.
+ * <p>
+ * A {@link HashMap} finds each entry's node, and the nodes are threaded onto
+ * doubly linked lists, so a hit moves its entry in O(1) instead of shifting
+ * the O(n) positions a {@link SetList} would. Under {@link Policy#LRU} there is
+ * a single list in order of last use. Under {@link Policy#LFU} entries are
+ * grouped into buckets of equal use count, kept in increasing order of count,
+ * and a hit moves an entry to the next bucket up; ties between equally used
+ * entries are broken by recency. A new entry starts with one use, so under LFU
+ * it is the first to go if every other entry has been used more.
+ * <p>
+ * Every entry weighs 1 unless a weigher is given, so by default the maximum
+ * weight is a maximum number of entries. {@code null} keys and values are not
+ * permitted. This class is not thread-safe.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public class BoundedCache<K, V> {
+    /** Which entry to evict when the cache is over its maximum weight */
+    public enum Policy {
+        /** Evict the least recently used entry */
+        LRU,
+        /** Evict the least frequently used entry, the least recent among ties */
+        LFU
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        long weight;
+        Bucket<K, V> bucket;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(final K key, final V value, final long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /** Entries used the same number of times, least recently used first */
+    private static final class Bucket<K, V> {
+        final long frequency;
+        Node<K, V> head;
+        Node<K, V> tail;
+        Bucket<K, V> prev;
+        Bucket<K, V> next;
+
+        Bucket(final long frequency) {
+            this.frequency = frequency;
+        }
+
+        boolean isEmpty() {
+            return head == null;
+        }
+
+        void append(final Node<K, V> node) {
+            node.bucket = this;
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        void unlink(final Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+    }
+
+    private final Policy policy;
+    private final long maximumWeight;
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+    private final BiConsumer<? super K, ? super V> evictionListener;
+
+    private final HashMap<K, Node<K, V>> nodes = new HashMap<>();
+    /** Bucket with the lowest frequency; the only bucket under LRU */
+    private Bucket<K, V> lowest;
+    private long weight;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructs a cache that holds at most {@code maximumSize} entries.
+     *
+     * @param policy      which entries to evict first
+     * @param maximumSize the maximum number of entries
+     * @throws IllegalArgumentException if the maximum size is negative
+     */
+    public BoundedCache(final Policy policy, final long maximumSize) {
+        this(policy, maximumSize, (k, v) -> 1, (k, v) -> {
+        });
+    }
+
+    /**
+     * Constructs a cache that holds entries up to a maximum total weight.
+     *
+     * @param policy           which entries to evict first
+     * @param maximumWeight    the maximum total weight of the entries
+     * @param weigher          computes the weight of an entry when it is put;
+     *                         must not return a negative weight
+     * @param evictionListener called with each entry evicted to make room,
+     *                         after it has been removed. Not called for
+     *                         {@link #remove(Object)}, {@link #clear()} or
+     *                         replaced values.
+     * @throws IllegalArgumentException if the maximum weight is negative
+     * @throws NullPointerException     if any argument is null
+     */
+    public BoundedCache(final Policy policy, final long maximumWeight,
+            final ToLongBiFunction<? super K, ? super V> weigher,
+            final BiConsumer<? super K, ? super V> evictionListener) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("Illegal maximum weight: " + maximumWeight);
+        }
+        this.policy = Objects.requireNonNull(policy);
+        this.maximumWeight = maximumWeight;
+        this.weigher = Objects.requireNonNull(weigher);
+        this.evictionListener = Objects.requireNonNull(evictionListener);
+    }
+
+    /**
+     * Returns the value cached for {@code key}, counting a hit and marking the
+     * entry as used, or returns {@code null} and counts a miss. Runs in O(1).
+     *
+     * @param key the key to look up
+     * @return the cached value, or {@code null} if there is none
+     */
+    public V get(final Object key) {
+        final Node<K, V> node = nodes.get(Objects.requireNonNull(key));
+        if (node == null) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        touch(node);
+        return node.value;
+    }
+
+    /**
+     * @param key the key to look up
+     * @return whether a value is cached for {@code key}. Neither marks the entry
+     *         as used nor counts a hit or miss.
+     */
+    public boolean containsKey(final Object key) {
+        return nodes.containsKey(Objects.requireNonNull(key));
+    }
+
+    /**
+     * Caches {@code value} under {@code key}, replacing any previous value and
+     * marking the entry as used, then evicts entries until the cache is within
+     * its maximum weight. An entry heavier than the maximum weight is evicted
+     * straight away, and alone. Runs in O(1) plus O(1) per eviction.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the previous value, or {@code null} if there was none
+     * @throws IllegalArgumentException if the weigher returns a negative weight
+     */
+    public V put(final K key, final V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        final long entryWeight = weigher.applyAsLong(key, value);
+        if (entryWeight < 0) {
+            throw new IllegalArgumentException("Negative weight: " + entryWeight);
+        }
+
+        Node<K, V> node = nodes.get(key);
+        final V old;
+        if (node == null) {
+            old = null;
+            node = new Node<>(key, value, entryWeight);
+            nodes.put(key, node);
+            firstBucket().append(node);
+        } else {
+            old = node.value;
+            weight -= node.weight;
+            node.value = value;
+            node.weight = entryWeight;
+            touch(node);
+        }
+        weight += entryWeight;
+
+        if (entryWeight > maximumWeight) {
+            evict(node);
+        }
+        while (weight > maximumWeight) {
+            evict(lowest.head);
+        }
+        return old;
+    }
+
+    /**
+     * Removes the entry for {@code key}, if any. The eviction listener is not
+     * called.
+     *
+     * @param key the key
+     * @return the value that was cached, or {@code null} if there was none
+     */
+    public V remove(final Object key) {
+        final Node<K, V> node = nodes.remove(Objects.requireNonNull(key));
+        if (node == null) {
+            return null;
+        }
+
+        unlink(node);
+        weight -= node.weight;
+        return node.value;
+    }
+
+    /** Removes every entry. The eviction listener is not called. */
+    public void clear() {
+        nodes.clear();
+        lowest = null;
+        weight = 0;
+    }
+
+    /** @return the number of cached entries */
+    public int size() {
+        return nodes.size();
+    }
+
+    /** @return the total weight of the cached entries */
+    public long weight() {
+        return weight;
+    }
+
+    /** @return the maximum total weight this cache holds */
+    public long maximumWeight() {
+        return maximumWeight;
+    }
+
+    /** @return the eviction policy */
+    public Policy policy() {
+        return policy;
+    }
+
+    /** @return the number of {@link #get(Object)} calls that found a value */
+    public long hitCount() {
+        return hits;
+    }
+
+    /** @return the number of {@link #get(Object)} calls that found nothing */
+    public long missCount() {
+        return misses;
+    }
+
+    /** @return the number of entries evicted to make room */
+    public long evictionCount() {
+        return evictions;
+    }
+
+    /** @return the fraction of lookups that hit, or 1 if there have been none */
+    public double hitRate() {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 1 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BoundedCache[policy=%s, size=%d, weight=%d/%d, hits=%d, misses=%d, evictions=%d]",
+                policy, size(), weight, maximumWeight, hits, misses, evictions);
+    }
+
+    /** Marks a node as just used. */
+    private void touch(final Node<K, V> node) {
+        final Bucket<K, V> from = node.bucket;
+        if (policy == Policy.LRU) {
+            from.unlink(node);
+            from.append(node);
+            return;
+        }
+
+        Bucket<K, V> to = from.next;
+        if (to == null || to.frequency != from.frequency + 1) {
+            to = new Bucket<>(from.frequency + 1);
+            to.prev = from;
+            to.next = from.next;
+            if (from.next != null) {
+                from.next.prev = to;
+            }
+            from.next = to;
+        }
+        from.unlink(node);
+        to.append(node);
+        if (from.isEmpty()) {
+            removeBucket(from);
+        }
+    }
+
+    /** @return the bucket new entries go into, creating it if needed */
+    private Bucket<K, V> firstBucket() {
+        if (lowest == null || (policy == Policy.LFU && lowest.frequency != 1)) {
+            final Bucket<K, V> bucket = new Bucket<>(1);
+            bucket.next = lowest;
+            if (lowest != null) {
+                lowest.prev = bucket;
+            }
+            lowest = bucket;
+        }
+        return lowest;
+    }
+
+    private void unlink(final Node<K, V> node) {
+        final Bucket<K, V> bucket = node.bucket;
+        bucket.unlink(node);
+        if (bucket.isEmpty()) {
+            removeBucket(bucket);
+        }
+    }
+
+    private void removeBucket(final Bucket<K, V> bucket) {
+        if (bucket.prev == null) {
+            lowest = bucket.next;
+        } else {
+            bucket.prev.next = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.prev = bucket.prev;
+        }
+    }
+
+    private void evict(final Node<K, V> victim) {
+        nodes.remove(victim.key);
+        unlink(victim);
+        weight -= victim.weight;
+        evictions++;
+        evictionListener.accept(victim.key, victim.value);
+    }
+}
@@ -0,0 +1,936 @@
+package com.noambechhofer.datastructures;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import com.noambechhofer.datastructures.utils.DuplicateElementException;
+
+/**
+ * A thread-safe variant of {@link SetList} in which every mutation publishes a
+ * fresh, immutable snapshot of the elements and their index map.
+ * <p>
+ * Reads ({@link #contains(Object)}, {@link #get(int)},
+ * {@link #indexOf(Object)}, iteration) never lock: they read whichever snapshot
+ * was current when they started, so they never block behind writers and never
+ * see a half-applied change. Writers serialize on an internal lock and pay O(n)
+ * per mutation to build the next snapshot, which makes this class a good fit
+ * for many readers and occasional writers, in the same way as
+ * {@link java.util.concurrent.CopyOnWriteArrayList}.
+ * <p>
+ * Iterators and spliterators traverse the snapshot taken when they were
+ * created; they never throw {@link java.util.ConcurrentModificationException}
+ * and do not support mutation. {@link #subList(int, int)} views take the lock
+ * on every operation and throw {@code ConcurrentModificationException} once
+ * the list has been changed other than through them.
+ */
+@SuppressWarnings("java:S2160")
+/*
+ * SuppressWarnings justification:
+ * equals() and hashCode() are already implemented by AbstractList. See
+ * SetList.
+ */
+public class ConcurrentSetList<E> extends AbstractList<E> implements Set<E>, RandomAccess {
+    /**
+     * An immutable point-in-time view of this list. Never modified once
+     * published, so it can be read without synchronization.
+     */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new Object[0]);
+
+        final Object[] elements;
+        /** Maps elements to their indices in {@link #elements} */
+        final HashMap<Object, Integer> elementMap;
+
+        Snapshot(final Object[] elements) {
+            this.elements = elements;
+            this.elementMap = new HashMap<>(Math.max((int) (elements.length / .75f) + 1, 16));
+            for (int i = 0; i < elements.length; i++) {
+                elementMap.put(elements[i], i);
+            }
+        }
+
+        int indexOf(final Object o) {
+            final Integer index = elementMap.get(o);
+            return index == null ? -1 : index;
+        }
+    }
+
+    /** Read-only iterator over one snapshot. */
+    private static final class SnapshotIterator<E> implements ListIterator<E> {
+        private final Object[] elements;
+        private int cursor;
+
+        SnapshotIterator(final Object[] elements, final int index) {
+            this.elements = elements;
+            this.cursor = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < elements.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return (E) elements[cursor++];
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E previous() {
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            return (E) elements[--cursor];
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(final Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            for (; cursor < elements.length; cursor++) {
+                action.accept((E) elements[cursor]);
+            }
+        }
+
+        /** Unsupported. Snapshot iterators are read-only. */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /** Unsupported. Snapshot iterators are read-only. */
+        @Override
+        public void set(final E e) {
+            throw new UnsupportedOperationException();
+        }
+
+        /** Unsupported. Snapshot iterators are read-only. */
+        @Override
+        public void add(final E e) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * A view of a range of this list. Each operation goes through the list, so
+     * bulk removals such as {@link #removeIf(Predicate)} are applied under its
+     * lock as one update, as {@link java.util.concurrent.CopyOnWriteArrayList}'s
+     * sublists do. Like those sublists, a view remembers the snapshot it last
+     * saw and is invalidated by any change made to the list other than through
+     * it. The check and the operation happen under the list's lock, so a change
+     * from another thread can never slip in between them.
+     */
+    private final class SubList extends AbstractList<E> implements RandomAccess {
+        private final int offset;
+        private int size;
+        /** The list's elements as of this view's last change */
+        private Object[] expectedArray;
+
+        SubList(final Object[] elements, final int fromIndex, final int toIndex) {
+            this.offset = fromIndex;
+            this.size = toIndex - fromIndex;
+            this.expectedArray = elements;
+        }
+
+        @Override
+        public int size() {
+            synchronized (lock) {
+                checkForComodification();
+                return size;
+            }
+        }
+
+        @Override
+        public E get(final int index) {
+            synchronized (lock) {
+                checkForComodification();
+                validateIndex(index, size);
+                return ConcurrentSetList.this.get(offset + index);
+            }
+        }
+
+        @Override
+        public E set(final int index, final E element) {
+            synchronized (lock) {
+                checkForComodification();
+                validateIndex(index, size);
+                final E old = ConcurrentSetList.this.set(offset + index, element);
+                expectedArray = snapshot.elements;
+                return old;
+            }
+        }
+
+        /**
+         * Appends the element to the end of this view unless it is already
+         * present anywhere in the list, as {@link ConcurrentSetList#add(Object)}
+         * does.
+         */
+        @Override
+        public boolean add(final E e) {
+            synchronized (lock) {
+                checkForComodification();
+                if (snapshot.elementMap.containsKey(e)) {
+                    return false;
+                }
+
+                add(size, e);
+                return true;
+            }
+        }
+
+        @Override
+        public void add(final int index, final E element) {
+            synchronized (lock) {
+                checkForComodification();
+                validateIndexForAdd(index, size);
+                ConcurrentSetList.this.add(offset + index, element);
+                updateSize(1);
+            }
+        }
+
+        @Override
+        public boolean addAll(final Collection<? extends E> c) {
+            return addAll(size, c);
+        }
+
+        /** Inserts the elements as a single atomic update, or not at all. */
+        @Override
+        public boolean addAll(final int index, final Collection<? extends E> c) {
+            synchronized (lock) {
+                checkForComodification();
+                validateIndexForAdd(index, size);
+                final int oldSize = snapshot.elements.length;
+                if (!ConcurrentSetList.this.addAll(offset + index, c)) {
+                    return false;
+                }
+                updateSize(snapshot.elements.length - oldSize);
+                return true;
+            }
+        }
+
+        @Override
+        public E remove(final int index) {
+            synchronized (lock) {
+                checkForComodification();
+                validateIndex(index, size);
+                final E old = ConcurrentSetList.this.remove(offset + index);
+                updateSize(-1);
+                return old;
+            }
+        }
+
+        @Override
+        public boolean remove(final Object o) {
+            synchronized (lock) {
+                final int index = indexOf(o);
+                if (index < 0) {
+                    return false;
+                }
+
+                remove(index);
+                return true;
+            }
+        }
+
+        @Override
+        protected void removeRange(final int fromIndex, final int toIndex) {
+            synchronized (lock) {
+                checkForComodification();
+                ConcurrentSetList.this.removeRange(offset + fromIndex, offset + toIndex);
+                updateSize(fromIndex - toIndex);
+            }
+        }
+
+        @Override
+        public boolean removeIf(final Predicate<? super E> filter) {
+            Objects.requireNonNull(filter);
+            synchronized (lock) {
+                checkForComodification();
+                final int removed = removeMatching(offset, offset + size, filter);
+                if (removed == 0) {
+                    return false;
+                }
+                updateSize(-removed);
+                return true;
+            }
+        }
+
+        @Override
+        public boolean removeAll(final Collection<?> c) {
+            Objects.requireNonNull(c);
+            final Set<?> doomed = c instanceof Set ? (Set<?>) c : new HashSet<>(c);
+            return removeIf(doomed::contains);
+        }
+
+        @Override
+        public boolean retainAll(final Collection<?> c) {
+            Objects.requireNonNull(c);
+            return removeIf(e -> !c.contains(e));
+        }
+
+        /** Runs in O(1) expected time: an element map lookup and a range check. */
+        @Override
+        public boolean contains(final Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        /** Runs in O(1) expected time: an element map lookup and a range check. */
+        @Override
+        public int indexOf(final Object o) {
+            synchronized (lock) {
+                checkForComodification();
+                final int index = snapshot.indexOf(o) - offset;
+                return index >= 0 && index < size ? index : -1;
+            }
+        }
+
+        /** Equivalent to {@link #indexOf(Object)}, since there are no duplicates. */
+        @Override
+        public int lastIndexOf(final Object o) {
+            return indexOf(o);
+        }
+
+        /** Caller must hold the lock. */
+        private void updateSize(final int delta) {
+            size += delta;
+            expectedArray = snapshot.elements;
+            modCount++;
+        }
+
+        /** Caller must hold the lock. */
+        private void checkForComodification() {
+            if (snapshot.elements != expectedArray) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /** Guards all writes. Readers never take it. */
+    private final transient Object lock = new Object();
+    /** The current snapshot. Only replaced while holding {@link #lock}. */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Standard constructor.
+     */
+    public ConcurrentSetList() {
+        this.snapshot = Snapshot.EMPTY;
+    }
+
+    /**
+     * Constructs a list containing the distinct elements of the specified
+     * collection, in the order they are returned by its iterator.
+     *
+     * @param c the collection whose elements are to be placed into this list
+     * @throws NullPointerException if the specified collection is null
+     */
+    public ConcurrentSetList(final Collection<? extends E> c) {
+        this.snapshot = new Snapshot(distinct(c.toArray()));
+    }
+
+    /**
+     * Returns the number of elements
+     *
+     * @return number of elements
+     */
+    @Override
+    public int size() {
+        return snapshot.elements.length;
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element. Never
+     * blocks.
+     *
+     * @param o element whose presence in this list is to be tested
+     * @return {@code true} if this list contains the specified element.
+     */
+    @Override
+    public boolean contains(final Object o) {
+        return snapshot.elementMap.containsKey(o);
+    }
+
+    /**
+     * Returns {@code true} if this list contains all of the elements of the
+     * specified collection, as of a single snapshot. Never blocks.
+     *
+     * @param c collection to be checked for containment in this list
+     * @return {@code true} if this list contains all of the elements of the
+     *         specified collection
+     */
+    @Override
+    public boolean containsAll(final Collection<?> c) {
+        final HashMap<Object, Integer> elementMap = snapshot.elementMap;
+        for (final Object o : c) {
+            if (!elementMap.containsKey(o)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the element at the specified position in this list. Never blocks.
+     *
+     * @param index index of the element to return
+     * @return the element at the specified position in this list
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(final int index) {
+        final Object[] elements = snapshot.elements;
+        validateIndex(index, elements.length);
+        return (E) elements[index];
+    }
+
+    /**
+     * Returns the index of the specified element in this list, or -1 if this
+     * list does not contain the element. Never blocks.
+     *
+     * @param o element to search for
+     * @return the index of the specified element in this list, or -1 if this
+     *         list does not contain the element
+     */
+    @Override
+    public int indexOf(final Object o) {
+        return snapshot.indexOf(o);
+    }
+
+    /**
+     * Because this list does not allow duplicates, calling this method is
+     * exactly equivalent to calling {@link #indexOf(Object)}.
+     *
+     * @param o element to search for
+     * @return the index of the specified element in this list, or -1 if this
+     *         list does not contain the element
+     */
+    @Override
+    public int lastIndexOf(final Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * Returns an iterator over the snapshot of this list current at the time of
+     * the call. The iterator does not support {@code remove}.
+     *
+     * @return an iterator over this list in proper sequence.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new SnapshotIterator<>(snapshot.elements, 0);
+    }
+
+    /**
+     * Returns a read-only list iterator over the snapshot of this list current at
+     * the time of the call.
+     *
+     * @return a list iterator over the elements in this list
+     */
+    @Override
+    public ListIterator<E> listIterator() {
+        return new SnapshotIterator<>(snapshot.elements, 0);
+    }
+
+    /**
+     * Returns a read-only list iterator over the snapshot of this list current at
+     * the time of the call, starting at the specified position.
+     *
+     * @param index index of the first element to be returned from the list iterator
+     * @return a list iterator over the elements in this list
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0
+     *                                   || index > size())
+     */
+    @Override
+    public ListIterator<E> listIterator(final int index) {
+        final Object[] elements = snapshot.elements;
+        validateIndexForAdd(index, elements.length);
+        return new SnapshotIterator<>(elements, index);
+    }
+
+    /**
+     * Returns a Spliterator over the snapshot of this list current at the time of
+     * the call.
+     * <p>
+     * The Spliterator reports Spliterator.IMMUTABLE, Spliterator.SIZED,
+     * Spliterator.SUBSIZED, Spliterator.ORDERED and Spliterator.DISTINCT.
+     *
+     * @return a Spliterator over the elements in this list
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(snapshot.elements,
+                Spliterator.IMMUTABLE | Spliterator.ORDERED | Spliterator.DISTINCT);
+    }
+
+    /**
+     * Performs the given action for each element of the current snapshot.
+     *
+     * @param action the action to be performed for each element
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(final Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        for (final Object e : snapshot.elements) {
+            action.accept((E) e);
+        }
+    }
+
+    /**
+     * Returns an array containing all of the elements of the current snapshot.
+     *
+     * @return an array containing all of the elements in this list
+     */
+    @Override
+    public Object[] toArray() {
+        final Object[] elements = snapshot.elements;
+        return Arrays.copyOf(elements, elements.length);
+    }
+
+    /**
+     * Returns an array containing all of the elements of the current snapshot;
+     * the runtime type of the returned array is that of the specified array.
+     *
+     * @param a the array into which the elements are to be stored, if it is big
+     *          enough
+     * @return an array containing the elements of this list
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(final T[] a) {
+        final Object[] elements = snapshot.elements;
+        if (a.length < elements.length) {
+            return (T[]) Arrays.copyOf(elements, elements.length, a.getClass());
+        }
+
+        System.arraycopy(elements, 0, a, 0, elements.length);
+        if (a.length > elements.length) {
+            a[elements.length] = null;
+        }
+        return a;
+    }
+
+    /**
+     * Appends the specified element to the end of this list if it is not already
+     * present. The check and the append happen atomically.
+     *
+     * @param e element to be appended to this list
+     * @return true if the element is not already present in the list.
+     */
+    @Override
+    public boolean add(final E e) {
+        synchronized (lock) {
+            final Object[] elements = snapshot.elements;
+            if (snapshot.elementMap.containsKey(e)) {
+                return false;
+            }
+
+            final Object[] next = Arrays.copyOf(elements, elements.length + 1);
+            next[elements.length] = e;
+            publish(next);
+            return true;
+        }
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this list.
+     *
+     * @param index   index at which the specified element is to be inserted
+     * @param element element to be inserted
+     * @throws DuplicateElementException if the element is already present
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0
+     *                                   || index > size())
+     */
+    @Override
+    public void add(final int index, final E element) {
+        synchronized (lock) {
+            final Object[] elements = snapshot.elements;
+            validateIndexForAdd(index, elements.length);
+            if (snapshot.elementMap.containsKey(element)) {
+                throw new DuplicateElementException();
+            }
+
+            final Object[] next = new Object[elements.length + 1];
+            System.arraycopy(elements, 0, next, 0, index);
+            next[index] = element;
+            System.arraycopy(elements, index, next, index + 1, elements.length - index);
+            publish(next);
+        }
+    }
+
+    /**
+     * Appends all of the elements in the specified collection that are not
+     * already present, as a single atomic update. Duplicates are skipped.
+     *
+     * @param c collection containing elements to be added to this list
+     * @return {@code true} if this list changed as a result of the call
+     */
+    @Override
+    public boolean addAll(final Collection<? extends E> c) {
+        final Object[] added = c.toArray();
+        if (added.length == 0) {
+            return false;
+        }
+
+        synchronized (lock) {
+            final Object[] elements = snapshot.elements;
+            final Object[] next = Arrays.copyOf(elements, elements.length + added.length);
+            System.arraycopy(added, 0, next, elements.length, added.length);
+
+            final Object[] distinct = distinct(next);
+            if (distinct.length == elements.length) {
+                return false;
+            }
+            publish(distinct);
+            return true;
+        }
+    }
+
+    /**
+     * Inserts all of the elements in the specified collection at the specified
+     * position, as a single atomic update.
+     *
+     * @param index index at which to insert the first element from the specified
+     *              collection
+     * @param c     collection containing elements to be added to this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws DuplicateElementException if any element is already present, or
+     *                                   appears more than once in the collection
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0
+     *                                   || index > size())
+     */
+    @Override
+    public boolean addAll(final int index, final Collection<? extends E> c) {
+        final Object[] added = c.toArray();
+
+        synchronized (lock) {
+            final Object[] elements = snapshot.elements;
+            validateIndexForAdd(index, elements.length);
+            if (added.length == 0) {
+                return false;
+            }
+
+            final Object[] next = new Object[elements.length + added.length];
+            System.arraycopy(elements, 0, next, 0, index);
+            System.arraycopy(added, 0, next, index, added.length);
+            System.arraycopy(elements, index, next, index + added.length, elements.length - index);
+
+            final Snapshot candidate = new Snapshot(next);
+            if (candidate.elementMap.size() != next.length) {
+                throw new DuplicateElementException();
+            }
+            snapshot = candidate;
+            modCount++;
+            return true;
+        }
+    }
+
+    /**
+     * Removes the specified element from this list, if it is present.
+     *
+     * @param o element to be removed from this list, if present
+     * @return {@code true} if this list contained the specified element
+     */
+    @Override
+    public boolean remove(final Object o) {
+        synchronized (lock) {
+            final int index = snapshot.indexOf(o);
+            if (index < 0) {
+                return false;
+            }
+
+            removeInternal(index);
+            return true;
+        }
+    }
+
+    /**
+     * Removes the element at the specified position in this list.
+     *
+     * @param index the index of the element to be removed
+     * @return the element previously at the specified position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    @Override
+    public E remove(final int index) {
+        synchronized (lock) {
+            validateIndex(index, snapshot.elements.length);
+            return removeInternal(index);
+        }
+    }
+
+    /**
+     * Removes from this list all of its elements that are contained in the
+     * specified collection, as a single atomic update.
+     *
+     * @param c collection containing elements to be removed from this list
+     * @return {@code true} if this list changed as a result of the call
+     */
+    @Override
+    public boolean removeAll(final Collection<?> c) {
+        Objects.requireNonNull(c);
+        final Set<?> doomed = c instanceof Set ? (Set<?>) c : new HashSet<>(c);
+        return removeIf(doomed::contains);
+    }
+
+    /**
+     * Retains only the elements in this list that are contained in the specified
+     * collection, as a single atomic update.
+     *
+     * @param c collection containing elements to be retained in this list
+     * @return {@code true} if this list changed as a result of the call
+     */
+    @Override
+    public boolean retainAll(final Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(e -> !c.contains(e));
+    }
+
+    /**
+     * Removes all of the elements of this list that satisfy the given predicate,
+     * as a single atomic update.
+     *
+     * @param filter a predicate which returns {@code true} for elements to be
+     *               removed
+     * @return {@code true} if any elements were removed
+     */
+    @Override
+    public boolean removeIf(final Predicate<? super E> filter) {
+        Objects.requireNonNull(filter);
+        synchronized (lock) {
+            return removeMatching(0, snapshot.elements.length, filter) > 0;
+        }
+    }
+
+    /**
+     * Replaces the element at the specified position in this list with the
+     * specified element.
+     *
+     * @param index   index of the element to replace
+     * @param element element to be stored at the specified position
+     * @return the element previously at the specified position
+     * @throws DuplicateElementException if the element is already present
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(final int index, final E element) {
+        synchronized (lock) {
+            final Object[] elements = snapshot.elements;
+            validateIndex(index, elements.length);
+            if (snapshot.elementMap.containsKey(element)) {
+                throw new DuplicateElementException();
+            }
+
+            final Object[] next = elements.clone();
+            next[index] = element;
+            publish(next);
+            return (E) elements[index];
+        }
+    }
+
+    /**
+     * Sorts this list according to the order induced by the specified
+     * {@link Comparator}, as a single atomic update.
+     *
+     * @param c the {@code Comparator} used to compare list elements. A
+     *          {@code null} value indicates that the elements' natural ordering
+     *          should be used
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sort(final Comparator<? super E> c) {
+        synchronized (lock) {
+            final Object[] next = snapshot.elements.clone();
+            Arrays.sort(next, (Comparator<Object>) c);
+            publish(next);
+        }
+    }
+
+    /**
+     * Removes all of the elements from this list.
+     */
+    @Override
+    public void clear() {
+        synchronized (lock) {
+            snapshot = Snapshot.EMPTY;
+            modCount++;
+        }
+    }
+
+    /**
+     * Returns a view of the portion of this list between {@code fromIndex},
+     * inclusive, and {@code toIndex}, exclusive. Bulk removals through the view,
+     * such as {@code subList(from, to).clear()} or {@code removeIf}, are each
+     * applied as a single atomic update. Every operation on the view throws
+     * {@link ConcurrentModificationException} if the list has been changed other
+     * than through the view, checked under the same lock as the operation.
+     *
+     * @param fromIndex low endpoint (inclusive) of the subList
+     * @param toIndex   high endpoint (exclusive) of the subList
+     * @return a view of the specified range within this list
+     * @throws IndexOutOfBoundsException if an endpoint index value is out of range
+     *                                   {@code (fromIndex < 0 || toIndex > size)}
+     * @throws IllegalArgumentException  if the endpoint indices are out of order
+     *                                   {@code (fromIndex > toIndex)}
+     */
+    @Override
+    public List<E> subList(final int fromIndex, final int toIndex) {
+        final Object[] elements = snapshot.elements;
+        final int size = elements.length;
+        if (fromIndex < 0 || toIndex > size) {
+            throw new IndexOutOfBoundsException(
+                    String.format("fromIndex: %d, toIndex: %d, Size: %d", fromIndex, toIndex, size));
+        }
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException(String.format("fromIndex(%d) > toIndex(%d)", fromIndex, toIndex));
+        }
+        return new SubList(elements, fromIndex, toIndex);
+    }
+
+    /**
+     * Removes the elements in {@code [fromIndex, toIndex)} as a single atomic
+     * update, so that {@code subList(fromIndex, toIndex).clear()} works.
+     *
+     * @param fromIndex index of first element to be removed
+     * @param toIndex   index after last element to be removed
+     */
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+        synchronized (lock) {
+            final Object[] elements = snapshot.elements;
+            if (fromIndex < 0 || toIndex > elements.length || fromIndex > toIndex) {
+                throw new IndexOutOfBoundsException(
+                        String.format("fromIndex: %d, toIndex: %d, Size: %d", fromIndex, toIndex, elements.length));
+            }
+            if (fromIndex == toIndex) {
+                return;
+            }
+
+            final Object[] next = new Object[elements.length - (toIndex - fromIndex)];
+            System.arraycopy(elements, 0, next, 0, fromIndex);
+            System.arraycopy(elements, toIndex, next, fromIndex, elements.length - toIndex);
+            publish(next);
+        }
+    }
+
+    /**
+     * Removes the elements in {@code [from, to)} that satisfy the filter and
+     * publishes one snapshot if any were. Caller must hold the lock.
+     *
+     * @return the number of elements removed
+     */
+    @SuppressWarnings("unchecked")
+    private int removeMatching(final int from, final int to, final Predicate<? super E> filter) {
+        final Object[] elements = snapshot.elements;
+        final Object[] kept = new Object[elements.length];
+        System.arraycopy(elements, 0, kept, 0, from);
+        int w = from;
+        for (int i = from; i < to; i++) {
+            if (!filter.test((E) elements[i])) {
+                kept[w++] = elements[i];
+            }
+        }
+
+        final int removed = to - w;
+        if (removed == 0) {
+            return 0;
+        }
+        System.arraycopy(elements, to, kept, w, elements.length - to);
+        publish(Arrays.copyOf(kept, elements.length - removed));
+        return removed;
+    }
+
+    /** Caller must hold the lock and have validated the index. */
+    @SuppressWarnings("unchecked")
+    private E removeInternal(final int index) {
+        final Object[] elements = snapshot.elements;
+        final Object[] next = new Object[elements.length - 1];
+        System.arraycopy(elements, 0, next, 0, index);
+        System.arraycopy(elements, index + 1, next, index, elements.length - index - 1);
+        publish(next);
+        return (E) elements[index];
+    }
+
+    /**
+     * Builds the snapshot for {@code elements} and makes it current. Caller must
+     * hold the lock and ensure there are no duplicates.
+     */
+    private void publish(final Object[] elements) {
+        snapshot = elements.length == 0 ? Snapshot.EMPTY : new Snapshot(elements);
+        modCount++;
+    }
+
+    /** @return the given elements with later duplicates dropped */
+    private static Object[] distinct(final Object[] elements) {
+        final HashMap<Object, Boolean> seen = new HashMap<>();
+        final Object[] out = new Object[elements.length];
+        int w = 0;
+        for (final Object e : elements) {
+            if (seen.putIfAbsent(e, Boolean.TRUE) == null) {
+                out[w++] = e;
+            }
+        }
+        return w == elements.length ? out : Arrays.copyOf(out, w);
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the index is out of range (index < 0 ||
+     *                                   index >= size)
+     */
+    private static void validateIndex(final int index, final int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        }
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the index is out of range (index < 0 ||
+     *                                   index > size)
+     */
+    private static void validateIndexForAdd(final int index, final int size) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.noambechhofer.datastructures;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts elements to and from a fixed number of bytes, so that collections
+ * such as {@link OffHeapSetList} can keep them outside the Java heap.
+ * <p>
+ * Two elements must encode to the same bytes if and only if they are
+ * {@link Object#equals(Object) equal}; collections compare and hash the encoded
+ * form rather than calling {@code equals} and {@code hashCode}.
+ *
+ * @param <E> the type of elements this codec handles
+ */
+public interface ElementCodec<E> {
+    /** Codec for non-null {@link Integer}s, four bytes each. */
+    ElementCodec<Integer> INTEGER = new ElementCodec<>() {
+        @Override
+        public int width() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(final Integer element, final ByteBuffer buffer, final int offset) {
+            buffer.putInt(offset, element);
+        }
+
+        @Override
+        public Integer decode(final ByteBuffer buffer, final int offset) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    /** Codec for non-null {@link Long}s, eight bytes each. */
+    ElementCodec<Long> LONG = new ElementCodec<>() {
+        @Override
+        public int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(final Long element, final ByteBuffer buffer, final int offset) {
+            buffer.putLong(offset, element);
+        }
+
+        @Override
+        public Long decode(final ByteBuffer buffer, final int offset) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    /**
+     * @return the number of bytes every encoded element occupies. Must be
+     *         positive and must never change.
+     */
+    int width();
+
+    /**
+     * Writes {@code element} into {@code buffer} at the absolute
+     * {@code offset}, using exactly {@link #width()} bytes. Must not change the
+     * buffer's position or limit.
+     *
+     * @param element the element to encode, never {@code null}
+     * @param buffer  the buffer to write to
+     * @param offset  absolute byte offset at which to write
+     */
+    void encode(E element, ByteBuffer buffer, int offset);
+
+    /**
+     * Reads an element previously written by {@link #encode} from the absolute
+     * {@code offset} of {@code buffer}. Must not change the buffer's position or
+     * limit.
+     *
+     * @param buffer the buffer to read from
+     * @param offset absolute byte offset at which to read
+     * @return the decoded element
+     */
+    E decode(ByteBuffer buffer, int offset);
+}
@@ -0,0 +1,270 @@
+package com.noambechhofer.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * A compact hash table from elements to non-negative {@code int} positions,
+ * used by {@link SetList} in place of a {@code HashMap<E, Integer>}.
+ * <p>
+ * Keys and positions live in two parallel arrays and collisions are resolved by
+ * linear probing, so an entry costs two array slots instead of a
+ * {@code HashMap.Node} and a boxed {@link Integer}, and a lookup walks
+ * neighbouring slots instead of chasing a bucket chain. Deletion uses backward
+ * shifting, so there are no tombstones and probe sequences stay short.
+ * <p>
+ * The table size is always a power of two and doubles when more than three
+ * quarters of the slots are in use; it never shrinks except on {@link #clear()}.
+ * {@code null} is a permitted key. Missing keys are reported as -1.
+ *
+ * @param <E> the type of keys
+ */
+final class ElementIndex<E> {
+    /** Stands in for the {@code null} key, since {@code null} marks an empty slot */
+    private static final Object NULL_KEY = new Object();
+    /** Smallest table size */
+    private static final int MIN_CAPACITY = 16;
+    /** Largest table size, as for {@link java.util.HashMap} */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    /** The table doubles once more than this fraction of its slots are in use */
+    private static final float MAX_LOAD = .75f;
+
+    /** Keys, masked with {@link #NULL_KEY}. A {@code null} slot is empty. */
+    private Object[] keys;
+    /** {@code values[slot]} is the position mapped to {@code keys[slot]} */
+    private int[] values;
+    private int size;
+    /** Number of entries at which the table must grow */
+    private int threshold;
+
+    ElementIndex() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize number of entries the table should hold before it has
+     *                     to grow
+     */
+    ElementIndex(final int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /** @return the number of entries */
+    int size() {
+        return size;
+    }
+
+    /** @return the number of slots in the table */
+    int capacity() {
+        return keys.length;
+    }
+
+    /** @return the position mapped to {@code key}, or -1 if there is none */
+    int get(final Object key) {
+        final int slot = slotOf(mask(key));
+        return slot < 0 ? -1 : values[slot];
+    }
+
+    boolean containsKey(final Object key) {
+        return slotOf(mask(key)) >= 0;
+    }
+
+    /**
+     * Maps {@code key} to {@code value}, replacing any previous mapping.
+     *
+     * @return the previous position, or -1 if there was none
+     */
+    int put(final E key, final int value) {
+        final Object k = mask(key);
+        final int slot = slotOf(k);
+        if (slot >= 0) {
+            final int old = values[slot];
+            values[slot] = value;
+            return old;
+        }
+
+        insert(-slot - 1, k, value);
+        return -1;
+    }
+
+    /**
+     * Maps {@code key} to {@code value} unless it is already mapped.
+     *
+     * @return the existing position, or -1 if the new mapping was added
+     */
+    int putIfAbsent(final E key, final int value) {
+        final Object k = mask(key);
+        final int slot = slotOf(k);
+        if (slot >= 0) {
+            return values[slot];
+        }
+
+        insert(-slot - 1, k, value);
+        return -1;
+    }
+
+    /**
+     * Removes the mapping for {@code key}, if any.
+     *
+     * @return the position it was mapped to, or -1 if there was none
+     */
+    int remove(final Object key) {
+        final int slot = slotOf(mask(key));
+        if (slot < 0) {
+            return -1;
+        }
+
+        final int old = values[slot];
+        delete(slot);
+        return old;
+    }
+
+    /** Removes every mapping and shrinks the table back to its minimum size. */
+    void clear() {
+        if (keys.length == MIN_CAPACITY) {
+            Arrays.fill(keys, null);
+        } else {
+            allocate(MIN_CAPACITY);
+        }
+        size = 0;
+    }
+
+    /**
+     * @return the total number of slots examined by successful lookups of every
+     *         key, i.e. the sum over all entries of their distance from their
+     *         home slot plus one. Runs in O(capacity).
+     */
+    long totalProbeLength() {
+        final Object[] ks = keys;
+        long total = 0;
+        for (int slot = 0; slot < ks.length; slot++) {
+            final Object k = ks[slot];
+            if (k != null) {
+                total += probeLength(k, slot, ks.length);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return the largest number of slots examined by a successful lookup. Runs
+     *         in O(capacity).
+     */
+    int maxProbeLength() {
+        final Object[] ks = keys;
+        int max = 0;
+        for (int slot = 0; slot < ks.length; slot++) {
+            final Object k = ks[slot];
+            if (k != null) {
+                max = Math.max(max, probeLength(k, slot, ks.length));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Takes the key rather than re-reading {@code ks[slot]}: the MXBean calls
+     * the probe statistics from another thread while the owner may be writing,
+     * so callers read each slot once and skip it if it is empty.
+     *
+     * @return the probe length of key {@code k}, found at {@code slot}
+     */
+    private static int probeLength(final Object k, final int slot, final int capacity) {
+        final int mask = capacity - 1;
+        return ((slot - (hash(k) & mask)) & mask) + 1;
+    }
+
+    /**
+     * @return the slot holding {@code k}, or {@code -(slot + 1)} where slot is the
+     *         empty slot at which it would be inserted
+     */
+    private int slotOf(final Object k) {
+        final Object[] ks = keys;
+        final int mask = ks.length - 1;
+        int slot = hash(k) & mask;
+        Object candidate;
+        while ((candidate = ks[slot]) != null) {
+            if (candidate == k || k.equals(candidate)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    private void insert(final int slot, final Object k, final int value) {
+        if (size == MAXIMUM_CAPACITY - 1) {
+            // probing relies on there always being an empty slot
+            throw new IllegalStateException("Too many elements: " + size);
+        }
+        keys[slot] = k;
+        values[slot] = value;
+        if (++size > threshold && keys.length < MAXIMUM_CAPACITY) {
+            resize(keys.length << 1);
+        }
+    }
+
+    /** Empties a slot, shifting later entries of the same probe run back. */
+    private void delete(int hole) {
+        final Object[] ks = keys;
+        final int mask = ks.length - 1;
+        int slot = hole;
+        Object k;
+        while ((k = ks[slot = (slot + 1) & mask]) != null) {
+            final int home = hash(k) & mask;
+            // the entry may fill the hole unless its home lies cyclically in (hole, slot]
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                ks[hole] = k;
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        ks[hole] = null;
+        size--;
+    }
+
+    private void resize(final int newCapacity) {
+        final Object[] oldKeys = keys;
+        final int[] oldValues = values;
+        allocate(newCapacity);
+
+        final int mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            final Object k = oldKeys[i];
+            if (k != null) {
+                int slot = hash(k) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = k;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        threshold = (int) (capacity * MAX_LOAD);
+    }
+
+    /**
+     * Also used to size the tables of the other {@link SetList} variants, which
+     * share this class's load factor.
+     *
+     * @return the smallest power of two table that holds this many entries
+     */
+    static int tableSizeFor(final int expected) {
+        final int needed = (int) Math.min((long) Math.ceil(expected / MAX_LOAD) + 1, MAXIMUM_CAPACITY);
+        return Math.max(Integer.highestOneBit(needed - 1) << 1, MIN_CAPACITY);
+    }
+
+    private static Object mask(final Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    /** Fibonacci hashing, so that poor {@code hashCode}s still spread out. */
+    private static int hash(final Object k) {
+        final int h = k.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,585 @@
+package com.noambechhofer.datastructures;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+import com.noambechhofer.datastructures.utils.DuplicateElementException;
+
+/**
+ * A union of the {@link Set} and {@link List} interfaces, like
+ * {@link SetList}, but backed by an order-statistic tree instead of an array.
+ * <p>
+ * Elements live in the nodes of an AVL tree that is ordered by position rather
+ * than by value; every node records the size of its subtree, so the node at a
+ * given index can be found by descending from the root. A
+ * {@link HashMap<E, Node>} maps elements to their nodes, and walking up the
+ * parent pointers from a node recovers its index.
+ * <p>
+ * {@link #get(int)}, {@link #add(int, Object)}, {@link #remove(int)} and
+ * {@link #indexOf(Object)} all run in O(log n). Pick this over {@link SetList}
+ * when the list is edited in the middle; {@link SetList} remains faster for
+ * appends and positional reads.
+ */
+@SuppressWarnings("java:S2160")
+/*
+ * SuppressWarnings justification:
+ * equals() and hashCode() are already implemented by AbstractList. See
+ * SetList.
+ */
+public class IndexedTreeSetList<E> extends AbstractList<E> implements Set<E> {
+    private static final class Node<E> {
+        E element;
+        Node<E> left;
+        Node<E> right;
+        Node<E> parent;
+        /** number of nodes in the subtree rooted at this node */
+        int size;
+        int height;
+
+        Node(final E element) {
+            this.element = element;
+            this.size = 1;
+            this.height = 1;
+        }
+    }
+
+    /**
+     * Walks the tree in order by following successor links, so a full iteration
+     * costs O(n) rather than the O(n log n) of repeated {@link #get(int)} calls.
+     */
+    private class Itr implements Iterator<E> {
+        private Node<E> next;
+        private Node<E> lastReturned;
+        private int expectedModCount;
+
+        Itr() {
+            next = root == null ? null : leftmost(root);
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            checkForComodification();
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            lastReturned = next;
+            next = successor(next);
+            return lastReturned.element;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+
+            /*
+             * Removal may move the successor's element into lastReturned's node, so
+             * resume from the node that now holds the element we were about to
+             * return.
+             */
+            final E upcoming = next == null ? null : next.element;
+            IndexedTreeSetList.this.remove(rank(lastReturned));
+            next = next == null ? null : nodeMap.get(upcoming);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    private Node<E> root;
+    /** Maps elements to the nodes holding them */
+    private final HashMap<E, Node<E>> nodeMap;
+
+    /**
+     * Standard constructor.
+     */
+    public IndexedTreeSetList() {
+        this.nodeMap = new HashMap<>();
+    }
+
+    /**
+     * Returns the number of elements
+     *
+     * @return number of elements
+     */
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element. Runs in
+     * O(1) expected time.
+     *
+     * @param o element whose presence in this list is to be tested
+     * @return {@code true} if this list contains the specified element.
+     */
+    @Override
+    public boolean contains(final Object o) {
+        return nodeMap.containsKey(o);
+    }
+
+    /**
+     * Returns an iterator over this list in proper sequence.
+     *
+     * @return an iterator over this list in proper sequence.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    /**
+     * Appends the specified element to the end of this list if it is not already
+     * present. Runs in O(log n).
+     * <p>
+     * As with {@link SetList#add(Object)}, insertion of a duplicate does not
+     * throw a {@link DuplicateElementException}, and instead returns false.
+     *
+     * @param e element to be appended to this list
+     *
+     * @return true if the element is not already present in the list.
+     */
+    @Override
+    public boolean add(final E e) {
+        if (contains(e)) {
+            return false;
+        }
+
+        addInternal(size(), e);
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this list.
+     * Shifts the element currently at that position (if any) and any subsequent
+     * elements to the right. Runs in O(log n).
+     *
+     * @param index   index at which the specified element is to be inserted
+     * @param element element to be inserted
+     *
+     * @throws DuplicateElementException if the element is already present
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0
+     *                                   || index > size())
+     */
+    @Override
+    public void add(final int index, final E element) {
+        if (contains(element)) {
+            throw new DuplicateElementException();
+        }
+
+        addInternal(index, element);
+    }
+
+    /**
+     * Inserts all of the elements in the specified collection into this list at
+     * the specified position, in the order that they are returned by the
+     * specified collection's iterator. Runs in O(k log n).
+     * <p>
+     * As with {@link SetList#addAll(int, Collection)}, a duplicate (whether
+     * already in this list or repeated within the collection) causes a
+     * {@link DuplicateElementException}. The check happens before anything is
+     * inserted, so on failure this list is left unchanged.
+     *
+     * @param index index at which to insert the first element from the specified
+     *              collection
+     * @param c     collection containing elements to be added to this list
+     *
+     * @return {@code true} if this list changed as a result of the call
+     * @throws DuplicateElementException if any element is already present, or
+     *                                   appears more than once in the collection
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0
+     *                                   || index > size())
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean addAll(final int index, final Collection<? extends E> c) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size()));
+        }
+
+        final Object[] a = c.toArray();
+        final HashSet<Object> batch = new HashSet<>();
+        for (final Object e : a) {
+            if (contains(e) || !batch.add(e)) {
+                throw new DuplicateElementException();
+            }
+        }
+
+        for (int i = 0; i < a.length; i++) {
+            addInternal(index + i, (E) a[i]);
+        }
+        return a.length > 0;
+    }
+
+    /**
+     * Removes the specified element from this list, if it is present. Runs in
+     * O(log n).
+     *
+     * @param o element to be removed from this list, if present
+     *
+     * @return {@code true} if this list contained the specified element
+     */
+    @Override
+    public boolean remove(final Object o) {
+        final int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+
+        remove(index);
+        return true;
+    }
+
+    /**
+     * Removes the element at the specified position in this list. Shifts any
+     * subsequent elements to the left. Runs in O(log n).
+     *
+     * @param index the index of the element to be removed
+     *
+     * @return the element previously at the specified position
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    @Override
+    public E remove(final int index) {
+        validateIndex(index);
+
+        final E ret = nodeAt(index).element;
+        nodeMap.remove(ret);
+        root = remove(root, index);
+        if (root != null) {
+            root.parent = null;
+        }
+
+        modCount++;
+        return ret;
+    }
+
+    /**
+     * Removes all of the elements from this list.
+     */
+    @Override
+    public void clear() {
+        root = null;
+        nodeMap.clear();
+        modCount++;
+    }
+
+    /**
+     * Returns the element at the specified position in this list. Runs in
+     * O(log n).
+     *
+     * @param index index of the element to return
+     * @return the element at the specified position in this list
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    @Override
+    public E get(final int index) {
+        validateIndex(index);
+
+        return nodeAt(index).element;
+    }
+
+    /**
+     * Replaces the element at the specified position in this list with the
+     * specified element. Runs in O(log n).
+     *
+     * @param index   index of the element to replace
+     * @param element element to be stored at the specified position
+     *
+     * @return the element previously at the specified position
+     *
+     * @throws DuplicateElementException if the element is already present
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    @Override
+    public E set(final int index, final E element) {
+        validateIndex(index);
+        if (contains(element)) {
+            throw new DuplicateElementException();
+        }
+
+        final Node<E> node = nodeAt(index);
+        final E old = node.element;
+        nodeMap.remove(old);
+        node.element = element;
+        nodeMap.put(element, node);
+        modCount++;
+        return old;
+    }
+
+    /**
+     * Returns the index of the specified element in this list, or -1 if this
+     * list does not contain the element. Runs in O(log n).
+     *
+     * @param o element to search for
+     *
+     * @return the index of the specified element in this list, or -1 if this
+     *         list does not contain the element
+     */
+    @Override
+    public int indexOf(final Object o) {
+        final Node<E> node = nodeMap.get(o);
+        return node == null ? -1 : rank(node);
+    }
+
+    /**
+     * Because this list does not allow duplicates, calling this method is
+     * exactly equivalent to calling {@link #indexOf(Object)}.
+     *
+     * @param o element to search for
+     *
+     * @return the index of the specified element in this list, or -1 if this
+     *         list does not contain the element
+     */
+    @Override
+    public int lastIndexOf(final Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * Sorts this list according to the order induced by the specified
+     * {@link Comparator}. The tree's shape is kept; only the elements are
+     * rewritten in order, so this never passes through a state with
+     * duplicates the way {@link List#sort(Comparator)}'s element-by-element
+     * write-back would.
+     *
+     * @param c the {@code Comparator} used to compare list elements. A
+     *          {@code null} value indicates that the elements' natural ordering
+     *          should be used
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sort(final Comparator<? super E> c) {
+        final Object[] elements = toArray();
+        Arrays.sort(elements, (Comparator<Object>) c);
+
+        int i = 0;
+        for (Node<E> node = root == null ? null : leftmost(root); node != null; node = successor(node)) {
+            node.element = (E) elements[i++];
+            nodeMap.put(node.element, node);
+        }
+        modCount++;
+    }
+
+    /**
+     * Creates a Spliterator over the elements in this list.
+     * <p>
+     * The Spliterator reports Spliterator.SIZED, Spliterator.ORDERED and
+     * Spliterator.DISTINCT.
+     *
+     * @return a Spliterator over the elements in this list
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.DISTINCT);
+    }
+
+    /**
+     * Internal method. CALLLER MUST ENSURE THAT THE ELEMENT IS NOT ALREADY PRESENT.
+     */
+    private void addInternal(final int index, final E ele) {
+        // cannot use validateIndex() because we consider size() valid here
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size()));
+        }
+
+        final Node<E> node = new Node<>(ele);
+        nodeMap.put(ele, node);
+        root = insert(root, index, node);
+        root.parent = null;
+        modCount++;
+    }
+
+    /**
+     * @param index index to validate
+     * @throws IndexOutOfBoundsException if the index is out of range (index < 0 ||
+     *                                   index >= size())
+     */
+    private void validateIndex(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size()));
+        }
+    }
+
+    /** Caller must ensure the index is valid. */
+    private Node<E> nodeAt(int index) {
+        Node<E> node = root;
+        while (true) {
+            final int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    /** @return the index of the given node */
+    private static int rank(Node<?> node) {
+        int rank = size(node.left);
+        while (node.parent != null) {
+            if (node == node.parent.right) {
+                rank += size(node.parent.left) + 1;
+            }
+            node = node.parent;
+        }
+        return rank;
+    }
+
+    private static <E> Node<E> leftmost(Node<E> node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    /** @return the in-order successor of the given node, or null */
+    private static <E> Node<E> successor(Node<E> node) {
+        if (node.right != null) {
+            return leftmost(node.right);
+        }
+        while (node.parent != null && node == node.parent.right) {
+            node = node.parent;
+        }
+        return node.parent;
+    }
+
+    /**
+     * Inserts {@code newNode} so that it ends up at position {@code index} within
+     * the subtree rooted at {@code node}.
+     *
+     * @return the new root of the subtree
+     */
+    private static <E> Node<E> insert(final Node<E> node, final int index, final Node<E> newNode) {
+        if (node == null) {
+            return newNode;
+        }
+
+        final int leftSize = size(node.left);
+        if (index <= leftSize) {
+            node.left = insert(node.left, index, newNode);
+        } else {
+            node.right = insert(node.right, index - leftSize - 1, newNode);
+        }
+        return balance(node);
+    }
+
+    /**
+     * Removes the node at position {@code index} within the subtree rooted at
+     * {@code node}.
+     *
+     * @return the new root of the subtree
+     */
+    private Node<E> remove(final Node<E> node, final int index) {
+        final int leftSize = size(node.left);
+        if (index < leftSize) {
+            node.left = remove(node.left, index);
+        } else if (index > leftSize) {
+            node.right = remove(node.right, index - leftSize - 1);
+        } else if (node.left == null || node.right == null) {
+            final Node<E> child = node.left == null ? node.right : node.left;
+            if (child != null) {
+                child.parent = node.parent;
+            }
+            return child;
+        } else {
+            // two children: pull the successor's element up into this node
+            final E successor = leftmost(node.right).element;
+            node.right = remove(node.right, 0);
+            node.element = successor;
+            nodeMap.put(successor, node);
+        }
+        return balance(node);
+    }
+
+    private static int size(final Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(final Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /** Recomputes the cached fields of this node and adopts its children. */
+    private static <E> void update(final Node<E> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        if (node.left != null) {
+            node.left.parent = node;
+        }
+        if (node.right != null) {
+            node.right.parent = node;
+        }
+    }
+
+    private static <E> Node<E> rotateLeft(final Node<E> node) {
+        final Node<E> pivot = node.right;
+        pivot.parent = node.parent;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static <E> Node<E> rotateRight(final Node<E> node) {
+        final Node<E> pivot = node.left;
+        pivot.parent = node.parent;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /** Restores the AVL invariant at this node. @return the new subtree root */
+    private static <E> Node<E> balance(final Node<E> node) {
+        update(node);
+        final int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        } else if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+}
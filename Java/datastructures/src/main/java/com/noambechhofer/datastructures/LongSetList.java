@@ -0,0 +1,620 @@
+package com.noambechhofer.datastructures;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+
+import com.noambechhofer.datastructures.utils.DuplicateElementException;
+
+/**
+ * A {@link SetList} specialized for {@code long} elements. Elements are kept in a
+ * growable {@code long[]}, and an open-addressing hash table built from two
+ * parallel primitive arrays maps each value back to its position, so nothing
+ * is boxed on the primitive paths ({@link #getLong(int)}, {@link #indexOf(long)},
+ * {@link #contains(long)}, {@link #add(long)}, ...). Those paths do not allocate
+ * except to grow the arrays.
+ * <p>
+ * The {@link List} and {@link Set} methods taking and returning {@link Long} are
+ * still available and delegate to the primitive ones, boxing as they go.
+ * {@code null} is not permitted.
+ */
+@SuppressWarnings("java:S2160")
+/*
+ * SuppressWarnings justification:
+ * equals() and hashCode() are already implemented by AbstractList. See
+ * SetList.
+ */
+public class LongSetList extends AbstractList<Long> implements Set<Long>, RandomAccess {
+    /**
+     * A {@link ListIterator} over the values, as {@link AbstractList}'s, except
+     * that {@link #set(Long)} lets a permutation of the values be written
+     * back one at a time.
+     */
+    private class LongSetListIterator implements ListIterator<Long> {
+        /** Index of the value that would be returned by {@link #next()} */
+        private int cursor;
+        /** Index of the value last returned, or -1 if there is none to set or remove */
+        private int lastRet = -1;
+        private int expectedModCount = modCount;
+
+        LongSetListIterator(final int index) {
+            validateIndexForAdd(index);
+            cursor = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor != size;
+        }
+
+        @Override
+        public Long next() {
+            checkForComodification();
+            if (cursor >= size) {
+                throw new NoSuchElementException();
+            }
+            lastRet = cursor++;
+            return elements[lastRet];
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor != 0;
+        }
+
+        @Override
+        public Long previous() {
+            checkForComodification();
+            if (cursor <= 0) {
+                throw new NoSuchElementException();
+            }
+            lastRet = --cursor;
+            return elements[lastRet];
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+
+            removeLong(lastRet);
+            cursor = lastRet;
+            lastRet = -1;
+            expectedModCount = modCount;
+        }
+
+        /**
+         * ! USE CAUTION ! As with {@link SetList}'s list iterator, this method
+         * breaks the contract of this class by allowing duplicates, so that a
+         * sort that writes its result back one value at a time can work on this
+         * class. Once every position has been rewritten with a permutation of
+         * the values, the hash table is consistent again.
+         */
+        @Override
+        public void set(final Long e) {
+            if (lastRet < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+
+            final long value = e.longValue();
+            final int oldSlot = slotOf(elements[lastRet]);
+            if (oldSlot >= 0 && positions[oldSlot] == lastRet + 1) {
+                deleteSlot(oldSlot);
+            }
+            elements[lastRet] = value;
+            final int slot = slotOf(value);
+            if (slot >= 0) {
+                positions[slot] = lastRet + 1;
+            } else {
+                insertSlot(-slot - 1, value, lastRet);
+            }
+        }
+
+        @Override
+        public void add(final Long e) {
+            checkForComodification();
+
+            LongSetList.this.add(cursor++, e.longValue());
+            lastRet = -1;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /** Capacity of the element array when none is specified */
+    private static final int DEFAULT_CAPACITY = 10;
+    /** The table doubles once more than this fraction of its slots are in use */
+    private static final float MAX_LOAD = .75f;
+
+    /** The elements in order. Only the first {@link #size} slots are in use. */
+    private long[] elements;
+    private int size;
+
+    /**
+     * Hash table keys. A slot is in use iff the same slot of {@link #positions}
+     * is nonzero. Collisions are resolved by linear probing.
+     */
+    private long[] keys;
+    /** Position of {@code keys[slot]} plus one, or 0 for an empty slot */
+    private int[] positions;
+    /** Number of slots in use at which the table must grow */
+    private int threshold;
+
+    /**
+     * Standard constructor.
+     */
+    public LongSetList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty list with room for {@code initialCapacity} elements
+     * before anything has to grow.
+     *
+     * @param initialCapacity the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public LongSetList(final int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+        }
+
+        this.elements = new long[initialCapacity];
+        allocateTable(ElementIndex.tableSizeFor(initialCapacity));
+    }
+
+    /**
+     * Returns the number of elements
+     *
+     * @return number of elements
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the element at the specified position in this list.
+     *
+     * @param index index of the element to return
+     * @return the element at the specified position in this list
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    public long getLong(final int index) {
+        validateIndex(index);
+        return elements[index];
+    }
+
+    /**
+     * Boxing version of {@link #getLong(int)}.
+     */
+    @Override
+    public Long get(final int index) {
+        return getLong(index);
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified value. Runs in O(1)
+     * expected time.
+     *
+     * @param value value whose presence in this list is to be tested
+     * @return {@code true} if this list contains the specified value
+     */
+    public boolean contains(final long value) {
+        return slotOf(value) >= 0;
+    }
+
+    /**
+     * Boxing version of {@link #contains(long)}.
+     */
+    @Override
+    public boolean contains(final Object o) {
+        return o instanceof Long && contains(((Long) o).longValue());
+    }
+
+    /**
+     * Returns the index of the specified value in this list, or -1 if this list
+     * does not contain it. Runs in O(1) expected time.
+     *
+     * @param value value to search for
+     * @return the index of the specified value in this list, or -1
+     */
+    public int indexOf(final long value) {
+        final int slot = slotOf(value);
+        return slot < 0 ? -1 : positions[slot] - 1;
+    }
+
+    /**
+     * Boxing version of {@link #indexOf(long)}.
+     */
+    @Override
+    public int indexOf(final Object o) {
+        return o instanceof Long ? indexOf(((Long) o).longValue()) : -1;
+    }
+
+    /**
+     * Because this list does not allow duplicates, calling this method is
+     * exactly equivalent to calling {@link #indexOf(Object)}.
+     */
+    @Override
+    public int lastIndexOf(final Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * Appends the specified value to the end of this list if it is not already
+     * present. As with {@link SetList#add(Object)}, a duplicate is not an error.
+     *
+     * @param value value to be appended to this list
+     * @return {@code true} if the value was not already present
+     */
+    public boolean add(final long value) {
+        final int slot = slotOf(value);
+        if (slot >= 0) {
+            return false;
+        }
+
+        ensureCapacity(size + 1);
+        elements[size] = value;
+        insertSlot(-slot - 1, value, size++);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Boxing version of {@link #add(long)}.
+     */
+    @Override
+    public boolean add(final Long e) {
+        return add(e.longValue());
+    }
+
+    /**
+     * Inserts the specified value at the specified position in this list,
+     * shifting the value currently at that position (if any) and any subsequent
+     * values to the right.
+     *
+     * @param index index at which the specified value is to be inserted
+     * @param value value to be inserted
+     * @throws DuplicateElementException if the value is already present
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0
+     *                                   || index > size())
+     */
+    public void add(final int index, final long value) {
+        validateIndexForAdd(index);
+        final int slot = slotOf(value);
+        if (slot >= 0) {
+            throw new DuplicateElementException();
+        }
+
+        ensureCapacity(size + 1);
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = value;
+        size++;
+        for (int i = index + 1; i < size; i++) {
+            positions[slotOf(elements[i])] = i + 1;
+        }
+        // renumbering only rewrites positions, so the probed slot is still free
+        insertSlot(-slot - 1, value, index);
+        modCount++;
+    }
+
+    /**
+     * Boxing version of {@link #add(int, long)}.
+     */
+    @Override
+    public void add(final int index, final Long element) {
+        add(index, element.longValue());
+    }
+
+    /**
+     * Replaces the value at the specified position in this list.
+     *
+     * @param index index of the value to replace
+     * @param value value to be stored at the specified position
+     * @return the value previously at the specified position
+     * @throws DuplicateElementException if the value is already present
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    public long setLong(final int index, final long value) {
+        validateIndex(index);
+        if (slotOf(value) >= 0) {
+            throw new DuplicateElementException();
+        }
+
+        final long old = elements[index];
+        deleteSlot(slotOf(old));
+        elements[index] = value;
+        insertSlot(-slotOf(value) - 1, value, index);
+        modCount++;
+        return old;
+    }
+
+    /**
+     * Boxing version of {@link #setLong(int, long)}.
+     */
+    @Override
+    public Long set(final int index, final Long element) {
+        return setLong(index, element.longValue());
+    }
+
+    /**
+     * Removes the value at the specified position in this list, shifting any
+     * subsequent values to the left.
+     *
+     * @param index the index of the value to be removed
+     * @return the value previously at the specified position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    public long removeLong(final int index) {
+        validateIndex(index);
+
+        final long ret = elements[index];
+        deleteSlot(slotOf(ret));
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        for (int i = index; i < size; i++) {
+            positions[slotOf(elements[i])] = i + 1;
+        }
+        modCount++;
+        return ret;
+    }
+
+    /**
+     * Boxing version of {@link #removeLong(int)}.
+     */
+    @Override
+    public Long remove(final int index) {
+        return removeLong(index);
+    }
+
+    /**
+     * Removes the specified value from this list, if it is present.
+     *
+     * @param value value to be removed from this list, if present
+     * @return {@code true} if this list contained the specified value
+     */
+    public boolean removeValue(final long value) {
+        final int index = indexOf(value);
+        if (index < 0) {
+            return false;
+        }
+
+        removeLong(index);
+        return true;
+    }
+
+    /**
+     * Boxing version of {@link #removeValue(long)}.
+     */
+    @Override
+    public boolean remove(final Object o) {
+        return o instanceof Long && removeValue(((Long) o).longValue());
+    }
+
+    /**
+     * Removes all of the elements from this list. Keeps the allocated capacity.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(positions, 0);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Sorts this list according to the order induced by the specified
+     * comparator. In natural order, which a {@code null} comparator also means,
+     * the {@code long[]} is sorted directly without boxing. Afterwards the hash
+     * table's positions are rewritten once, rather than through
+     * {@link #setLong(int, long)}, which would reject each value as a duplicate of
+     * itself.
+     *
+     * @param c the comparator used to compare values, or {@code null} for
+     *          natural ordering
+     */
+    @Override
+    public void sort(final Comparator<? super Long> c) {
+        if (c == null || c == Comparator.<Long>naturalOrder()) {
+            Arrays.sort(elements, 0, size);
+        } else {
+            final Long[] boxed = toArray(new Long[size]);
+            Arrays.sort(boxed, c);
+            for (int i = 0; i < size; i++) {
+                elements[i] = boxed[i];
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            positions[slotOf(elements[i])] = i + 1;
+        }
+        modCount++;
+    }
+
+    /**
+     * Returns a list iterator over the values in this list, starting at the
+     * specified position. Its {@link ListIterator#set(Object) set} accepts a
+     * value that is still present elsewhere, so that a permutation can be
+     * written back through it.
+     *
+     * @param index index of the first value to be returned by {@code next}
+     * @return a list iterator over the values in this list
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0
+     *                                   || index > size())
+     */
+    @Override
+    public ListIterator<Long> listIterator(final int index) {
+        return new LongSetListIterator(index);
+    }
+
+    /**
+     * Performs the given action for each value of this list, in order, without
+     * boxing.
+     *
+     * @param action the action to be performed for each value
+     */
+    public void forEachLong(final LongConsumer action) {
+        Objects.requireNonNull(action);
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    /**
+     * Returns a copy of the values of this list, in order.
+     *
+     * @return a new array containing the values of this list
+     */
+    public long[] toLongArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Creates a Spliterator.OfLong over the values in this list, which lets
+     * primitive streams run without boxing.
+     * <p>
+     * The Spliterator reports Spliterator.SIZED, Spliterator.SUBSIZED,
+     * Spliterator.ORDERED, Spliterator.DISTINCT and Spliterator.NONNULL. It covers
+     * the values present when it is created and must not be used after this
+     * list is structurally modified.
+     *
+     * @return a Spliterator over the values in this list
+     */
+    @Override
+    public Spliterator.OfLong spliterator() {
+        return Spliterators.spliterator(elements, 0, size,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    /**
+     * @return the slot holding {@code value}, or {@code -(slot + 1)} where slot is
+     *         the empty slot at which it would be inserted
+     */
+    private int slotOf(final long value) {
+        final int mask = keys.length - 1;
+        int slot = hash(value) & mask;
+        while (positions[slot] != 0) {
+            if (keys[slot] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    /** Fills an empty slot, growing the table afterwards if needed. */
+    private void insertSlot(final int slot, final long value, final int position) {
+        keys[slot] = value;
+        positions[slot] = position + 1;
+        if (size > threshold) {
+            allocateTable(keys.length << 1);
+            for (int i = 0; i < size; i++) {
+                final int s = -slotOf(elements[i]) - 1;
+                keys[s] = elements[i];
+                positions[s] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Empties a slot using backward-shift deletion, so lookups never have to step
+     * over tombstones.
+     */
+    private void deleteSlot(int hole) {
+        final int mask = keys.length - 1;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (positions[slot] == 0) {
+                break;
+            }
+
+            final int home = hash(keys[slot]) & mask;
+            // the entry may fill the hole unless its home lies cyclically in (hole, slot]
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                positions[hole] = positions[slot];
+                hole = slot;
+            }
+        }
+        positions[hole] = 0;
+    }
+
+    private void allocateTable(final int capacity) {
+        keys = new long[capacity];
+        positions = new int[capacity];
+        threshold = (int) (capacity * MAX_LOAD);
+    }
+
+    private void ensureCapacity(final int minCapacity) {
+        final int oldCapacity = elements.length;
+        if (minCapacity <= oldCapacity) {
+            return;
+        }
+
+        int newCapacity = Math.max(oldCapacity + (oldCapacity >> 1), DEFAULT_CAPACITY);
+        if (newCapacity < minCapacity || newCapacity < 0) {
+            newCapacity = minCapacity;
+        }
+        elements = Arrays.copyOf(elements, newCapacity);
+    }
+
+    /** Fibonacci hashing; spreads sequential ids across the table. */
+    private static int hash(final long value) {
+        final long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * @param index index to validate
+     * @throws IndexOutOfBoundsException if the index is out of range (index < 0 ||
+     *                                   index >= size())
+     */
+    private void validateIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        }
+    }
+
+    /**
+     * @param index index to validate
+     * @throws IndexOutOfBoundsException if the index is out of range (index < 0 ||
+     *                                   index > size())
+     */
+    private void validateIndexForAdd(final int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        }
+    }
+}
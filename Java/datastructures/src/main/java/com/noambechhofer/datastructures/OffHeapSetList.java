@@ -0,0 +1,907 @@
+package com.noambechhofer.datastructures;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+import com.noambechhofer.datastructures.utils.DuplicateElementException;
+
+/**
+ * A union of the {@link Set} and {@link List} interfaces, like
+ * {@link SetList}, whose elements and hash index live in native memory.
+ * <p>
+ * Every element is encoded to a fixed number of bytes by an
+ * {@link ElementCodec} and stored in a direct {@link ByteBuffer}. A second
+ * direct buffer holds an open-addressing hash table of (hash, position) pairs
+ * over the encoded bytes. The only per-list heap objects are the two buffer
+ * handles, so heap usage and old-generation scanning no longer grow with the
+ * size of the list. Elements are decoded (and so allocated, if the codec
+ * allocates) only when they are read.
+ * <p>
+ * A list can be saved with {@link #writeTo(Path, boolean)} and loaded back
+ * with {@link #map(Path, ElementCodec)}, which memory-maps the file instead of
+ * re-adding the elements one by one.
+ * <p>
+ * Like {@link SetList}, this list is not synchronized. Lookups encode their key
+ * into a buffer of their own, so any number of threads may read it at once as
+ * long as none of them writes.
+ * <p>
+ * Native memory is released by {@link #close()}; the list cannot be used
+ * afterwards. Each buffer is limited to 2GB, so this list holds at most
+ * {@code Integer.MAX_VALUE / codec.width()} elements. {@code null} is not
+ * permitted.
+ */
+@SuppressWarnings("java:S2160")
+/*
+ * SuppressWarnings justification:
+ * equals() and hashCode() are already implemented by AbstractList. See
+ * SetList.
+ */
+public class OffHeapSetList<E> extends AbstractList<E> implements Set<E>, RandomAccess, AutoCloseable {
+    /** Capacity of the element buffer, in elements, when none is specified */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** The table doubles once more than this fraction of its slots are in use */
+    private static final float MAX_LOAD = .75f;
+    /** Each table slot holds the element's hash, then its position plus one */
+    private static final int SLOT_BYTES = 8;
+
+    /** First four bytes of a saved list: "SLST" */
+    private static final int FILE_MAGIC = 0x534C5354;
+    private static final int FILE_VERSION = 1;
+    /** magic, version, codec width, size, table slots */
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+
+    /** {@code sun.misc.Unsafe#invokeCleaner}, bound, or null if unreachable */
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // fall back to letting the garbage collector free the memory
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final ElementCodec<E> codec;
+    /** Bytes per element */
+    private final int width;
+
+    /** {@link #size} encoded elements, back to back */
+    private ByteBuffer elements;
+    /** Number of elements {@link #elements} has room for */
+    private int capacity;
+    private int size;
+
+    /** Open-addressing hash table; see {@link #SLOT_BYTES} */
+    private ByteBuffer table;
+    /** Number of slots in {@link #table}; always a power of two */
+    private int slots;
+    /** Number of elements at which the table must grow */
+    private int threshold;
+
+    private boolean closed;
+
+    /**
+     * Constructs an empty list that stores its elements with the given codec.
+     *
+     * @param codec converts elements to and from bytes
+     */
+    public OffHeapSetList(final ElementCodec<E> codec) {
+        this(codec, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty list with native room for {@code initialCapacity}
+     * elements.
+     *
+     * @param codec           converts elements to and from bytes
+     * @param initialCapacity the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative or
+     *                                  the codec's width is not positive
+     */
+    public OffHeapSetList(final ElementCodec<E> codec, final int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+        }
+        this.codec = Objects.requireNonNull(codec);
+        this.width = codec.width();
+        if (width <= 0) {
+            throw new IllegalArgumentException("Illegal codec width: " + width);
+        }
+
+        this.capacity = initialCapacity;
+        this.elements = ByteBuffer.allocateDirect(Math.multiplyExact(initialCapacity, width));
+        allocateTable(ElementIndex.tableSizeFor(initialCapacity));
+    }
+
+    /**
+     * Returns the number of elements
+     *
+     * @return number of elements
+     */
+    @Override
+    public int size() {
+        ensureOpen();
+        return size;
+    }
+
+    /**
+     * Returns the element at the specified position in this list, decoding it
+     * from native memory.
+     *
+     * @param index index of the element to return
+     * @return the element at the specified position in this list
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    @Override
+    public E get(final int index) {
+        validateIndex(index);
+        return codec.decode(elements, index * width);
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element. Runs in
+     * O(1) expected time and compares encoded bytes.
+     *
+     * @param o element whose presence in this list is to be tested
+     * @return {@code true} if this list contains the specified element.
+     * @throws ClassCastException if the codec cannot encode the element
+     */
+    @Override
+    public boolean contains(final Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Returns the index of the specified element in this list, or -1 if this
+     * list does not contain the element. Runs in O(1) expected time.
+     *
+     * @param o element to search for
+     * @return the index of the specified element in this list, or -1
+     * @throws ClassCastException if the codec cannot encode the element
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public int indexOf(final Object o) {
+        ensureOpen();
+        if (o == null) {
+            return -1;
+        }
+
+        final ByteBuffer key = encodeKey((E) o);
+        final int hash = hashAt(key, 0);
+        final int slot = find(key, 0, hash);
+        return slot < 0 ? -1 : positionAt(slot);
+    }
+
+    /**
+     * Because this list does not allow duplicates, calling this method is
+     * exactly equivalent to calling {@link #indexOf(Object)}.
+     */
+    @Override
+    public int lastIndexOf(final Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * Appends the specified element to the end of this list if it is not already
+     * present. As with {@link SetList#add(Object)}, a duplicate is not an error.
+     *
+     * @param e element to be appended to this list
+     * @return true if the element is not already present in the list.
+     */
+    @Override
+    public boolean add(final E e) {
+        ensureOpen();
+        final ByteBuffer key = encodeKey(Objects.requireNonNull(e));
+        final int hash = hashAt(key, 0);
+        final int slot = find(key, 0, hash);
+        if (slot >= 0) {
+            return false;
+        }
+
+        ensureWritable();
+        ensureCapacity(size + 1);
+        codec.encode(e, elements, size * width);
+        insertSlot(-slot - 1, hash, size++);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this list.
+     * Shifts the element currently at that position (if any) and any subsequent
+     * elements to the right.
+     *
+     * @param index   index at which the specified element is to be inserted
+     * @param element element to be inserted
+     * @throws DuplicateElementException if the element is already present
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0
+     *                                   || index > size())
+     */
+    @Override
+    public void add(final int index, final E element) {
+        ensureOpen();
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        }
+        final ByteBuffer key = encodeKey(Objects.requireNonNull(element));
+        final int hash = hashAt(key, 0);
+        final int slot = find(key, 0, hash);
+        if (slot >= 0) {
+            throw new DuplicateElementException();
+        }
+
+        ensureWritable();
+        ensureCapacity(size + 1);
+        /*
+         * Renumber from the back so that a probe for position j never meets an
+         * entry that was already moved to j. This has to happen before the bytes
+         * move, since finding an entry by position rehashes the element there.
+         */
+        for (int j = size - 1; j >= index; j--) {
+            setPositionAt(slotOfPosition(j), j + 1);
+        }
+        move(elements, index * width, (index + 1) * width, (size - index) * width);
+        codec.encode(element, elements, index * width);
+        // renumbering only rewrites positions, so the probed slot is still free
+        insertSlot(-slot - 1, hash, index);
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Inserts all of the elements in the specified collection into this list at
+     * the specified position, in the order that they are returned by the
+     * specified collection's iterator.
+     * <p>
+     * As with {@link SetList#addAll(int, Collection)}, a duplicate (whether
+     * already in this list or repeated within the collection) causes a
+     * {@link DuplicateElementException}. The whole batch is encoded and checked
+     * on the heap before native memory is touched, so on failure this list is
+     * left unchanged. The tail is then renumbered and moved once for the whole
+     * collection.
+     *
+     * @param index index at which to insert the first element from the specified
+     *              collection
+     * @param c     collection containing elements to be added to this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws DuplicateElementException if any element is already present, or
+     *                                   appears more than once in the collection
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0
+     *                                   || index > size())
+     */
+    @Override
+    public boolean addAll(final int index, final Collection<? extends E> c) {
+        ensureOpen();
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        }
+        final Object[] a = c.toArray();
+        final int numNew = a.length;
+        if (numNew == 0) {
+            return false;
+        }
+
+        final ByteBuffer encoded = ByteBuffer.allocate(Math.multiplyExact(numNew, width));
+        final HashSet<ByteBuffer> batch = new HashSet<>();
+        for (int i = 0; i < numNew; i++) {
+            @SuppressWarnings("unchecked")
+            final E e = (E) Objects.requireNonNull(a[i]);
+            codec.encode(e, encoded, i * width);
+            if (find(encoded, i * width, hashAt(encoded, i * width)) >= 0
+                    || !batch.add(encoded.slice(i * width, width))) {
+                throw new DuplicateElementException();
+            }
+        }
+
+        ensureWritable();
+        ensureCapacity(size + numNew);
+        // renumber from the back, as add(int, E) does
+        for (int j = size - 1; j >= index; j--) {
+            setPositionAt(slotOfPosition(j), j + numNew);
+        }
+        move(elements, index * width, (index + numNew) * width, (size - index) * width);
+        for (int i = 0; i < numNew; i++) {
+            final int offset = (index + i) * width;
+            elements.put(offset, encoded, i * width, width);
+            final int hash = hashAt(elements, offset);
+            insertSlot(-find(elements, offset, hash) - 1, hash, index + i);
+            size++;
+        }
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes the element at the specified position in this list. Shifts any
+     * subsequent elements to the left.
+     *
+     * @param index the index of the element to be removed
+     * @return the element previously at the specified position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    @Override
+    public E remove(final int index) {
+        validateIndex(index);
+        ensureWritable();
+
+        final E ret = codec.decode(elements, index * width);
+        deleteSlot(slotOfPosition(index));
+        // renumber from the front, for the same reason add(int, E) goes backwards
+        for (int j = index + 1; j < size; j++) {
+            setPositionAt(slotOfPosition(j), j - 1);
+        }
+        move(elements, (index + 1) * width, index * width, (size - index - 1) * width);
+        size--;
+        modCount++;
+        return ret;
+    }
+
+    /**
+     * Removes the specified element from this list, if it is present.
+     *
+     * @param o element to be removed from this list, if present
+     * @return {@code true} if this list contained the specified element
+     */
+    @Override
+    public boolean remove(final Object o) {
+        final int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+
+        remove(index);
+        return true;
+    }
+
+    /**
+     * Replaces the element at the specified position in this list with the
+     * specified element.
+     *
+     * @param index   index of the element to replace
+     * @param element element to be stored at the specified position
+     * @return the element previously at the specified position
+     * @throws DuplicateElementException if the element is already present
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    @Override
+    public E set(final int index, final E element) {
+        validateIndex(index);
+        final ByteBuffer key = encodeKey(Objects.requireNonNull(element));
+        final int hash = hashAt(key, 0);
+        if (find(key, 0, hash) >= 0) {
+            throw new DuplicateElementException();
+        }
+
+        ensureWritable();
+        final E old = codec.decode(elements, index * width);
+        deleteSlot(slotOfPosition(index));
+        codec.encode(element, elements, index * width);
+        insertSlot(-find(key, 0, hash) - 1, hash, index);
+        modCount++;
+        return old;
+    }
+
+    /**
+     * Sorts this list according to the order induced by the specified
+     * {@link Comparator}. Decodes every element onto the heap for the duration
+     * of the sort.
+     *
+     * @param c the {@code Comparator} used to compare list elements. A
+     *          {@code null} value indicates that the elements' natural ordering
+     *          should be used
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sort(final Comparator<? super E> c) {
+        final Object[] sorted = toArray();
+        Arrays.sort(sorted, (Comparator<Object>) c);
+
+        ensureWritable();
+        clearTable();
+        for (int i = 0; i < sorted.length; i++) {
+            codec.encode((E) sorted[i], elements, i * width);
+            final int hash = hashAt(elements, i * width);
+            insertSlot(-find(elements, i * width, hash) - 1, hash, i);
+        }
+        modCount++;
+    }
+
+    /**
+     * Removes all of the elements from this list. Keeps the allocated native
+     * memory.
+     */
+    @Override
+    public void clear() {
+        ensureOpen();
+        ensureWritable();
+        clearTable();
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Creates a Spliterator over the elements in this list.
+     * <p>
+     * The Spliterator reports Spliterator.SIZED, Spliterator.ORDERED,
+     * Spliterator.DISTINCT and Spliterator.NONNULL.
+     *
+     * @return a Spliterator over the elements in this list
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(this,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    /**
+     * Releases the native memory backing this list. Any further use of the list
+     * throws {@link IllegalStateException}. Calling this more than once has no
+     * effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        release(elements);
+        release(table);
+        elements = null;
+        table = null;
+        size = 0;
+    }
+
+    /**
+     * Saves this list to a file that {@link #map(Path, ElementCodec)} can load.
+     * The file holds a 20-byte header (magic number, format version, codec
+     * width, size and table slots, as big-endian {@code int}s), then the encoded
+     * elements back to back, then, if {@code withIndex} is set, a verbatim copy
+     * of the hash table. Both regions are written straight from native memory;
+     * nothing is decoded.
+     * <p>
+     * Including the index adds eight bytes per table slot, roughly 11 to 22
+     * bytes per element, but lets {@link #map(Path, ElementCodec)} skip rehashing. The
+     * index depends only on the encoded bytes, so it stays valid across JVMs.
+     *
+     * @param path      the file to write; replaced if it exists
+     * @param withIndex whether to save the hash table as well
+     * @throws IOException if the file cannot be written
+     */
+    public void writeTo(final Path path, final boolean withIndex) throws IOException {
+        ensureOpen();
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(width).putInt(size).putInt(withIndex ? slots : 0);
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            writeFully(channel, elements.duplicate().position(0).limit(size * width));
+            if (withIndex) {
+                writeFully(channel, table.duplicate().clear());
+            }
+        }
+    }
+
+    /**
+     * Saves the distinct elements of a collection, in iteration order, in the
+     * format written by {@link #writeTo(Path, boolean)}.
+     *
+     * @param <E>       the type of elements
+     * @param c         the elements to save; must not contain {@code null}
+     * @param codec     converts elements to bytes
+     * @param path      the file to write; replaced if it exists
+     * @param withIndex whether to save the hash table as well
+     * @throws IOException if the file cannot be written
+     */
+    public static <E> void write(final Collection<? extends E> c, final ElementCodec<E> codec, final Path path,
+            final boolean withIndex) throws IOException {
+        try (OffHeapSetList<E> list = new OffHeapSetList<>(codec, c.size())) {
+            list.addAll(c);
+            list.writeTo(path, withIndex);
+        }
+    }
+
+    /**
+     * Loads a list saved by {@link #writeTo(Path, boolean)} by memory-mapping the
+     * file. The elements are read in place from the mapping and, if the file has
+     * an index, so is the hash table, so loading costs O(1) plus the pages that
+     * are later touched. Without an index the table is rebuilt by hashing each
+     * encoded element, which is O(n) but still decodes nothing.
+     * <p>
+     * The mapping is read-only. The first update copies the list into native
+     * memory of its own, so the file is never modified. {@link #close()} drops
+     * the list's reference to the mapping, but the mapping itself is released
+     * by the garbage collector.
+     * <p>
+     * To load into a heap {@link SetList} instead, add the mapped list to it
+     * with {@link SetList#addAll(Collection)} and close the mapped list.
+     *
+     * @param <E>   the type of elements
+     * @param path  the file to load
+     * @param codec converts bytes to elements; must be the codec the file was
+     *              written with, or at least have the same width and encoding
+     * @return a list backed by the file
+     * @throws IOException if the file cannot be read, is not a saved list, or
+     *                     was written with a codec of a different width
+     */
+    public static <E> OffHeapSetList<E> map(final Path path, final ElementCodec<E> codec) throws IOException {
+        final OffHeapSetList<E> list = new OffHeapSetList<>(codec, 0);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to map: " + path);
+            }
+            final MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (length < HEADER_BYTES || file.getInt(0) != FILE_MAGIC || file.getInt(4) != FILE_VERSION) {
+                throw new IOException("Not a saved SetList: " + path);
+            }
+
+            final int fileWidth = file.getInt(8);
+            final int fileSize = file.getInt(12);
+            final int fileSlots = file.getInt(16);
+            if (fileWidth != list.width) {
+                throw new IOException(String.format("Codec width %d does not match file width %d", list.width,
+                        fileWidth));
+            }
+            final long elementBytes = (long) fileSize * fileWidth;
+            final long tableBytes = (long) fileSlots * SLOT_BYTES;
+            final boolean validTable = fileSlots == 0
+                    || (Integer.bitCount(fileSlots) == 1 && fileSize <= (int) (fileSlots * MAX_LOAD));
+            if (fileSize < 0 || !validTable || HEADER_BYTES + elementBytes + tableBytes != length) {
+                throw new IOException("Corrupt saved SetList: " + path);
+            }
+
+            release(list.elements);
+            list.elements = file.slice(HEADER_BYTES, (int) elementBytes);
+            list.capacity = fileSize;
+            if (fileSlots > 0) {
+                release(list.table);
+                list.table = file.slice((int) (HEADER_BYTES + elementBytes), (int) tableBytes);
+                if (occupiedSlots(list.table, fileSlots, fileSize) != fileSize) {
+                    throw new IOException("Corrupt saved SetList: " + path);
+                }
+                list.slots = fileSlots;
+                list.threshold = (int) (fileSlots * MAX_LOAD);
+                list.size = fileSize;
+            } else {
+                list.rebuildTable(fileSize);
+            }
+            return list;
+        } catch (IOException | RuntimeException e) {
+            list.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of bytes of native memory currently reserved by this
+     *         list, or 0 once it has been closed
+     */
+    public long nativeBytes() {
+        return closed ? 0 : (long) elements.capacity() + table.capacity();
+    }
+
+    /**
+     * Encodes {@code e} into a fresh heap buffer, so that concurrent lookups do
+     * not share scratch space.
+     *
+     * @return the encoded bytes, at offset 0
+     */
+    private ByteBuffer encodeKey(final E e) {
+        final ByteBuffer key = ByteBuffer.allocate(width);
+        codec.encode(e, key, 0);
+        return key;
+    }
+
+    /**
+     * Looks for the element whose encoding is at {@code offset} in
+     * {@code buffer}.
+     *
+     * @return the slot holding it, or {@code -(slot + 1)} where slot is the empty
+     *         slot at which it would be inserted
+     */
+    private int find(final ByteBuffer buffer, final int offset, final int hash) {
+        final int mask = slots - 1;
+        int slot = hash & mask;
+        while (true) {
+            final int entry = table.getInt(slot * SLOT_BYTES + 4);
+            if (entry == 0) {
+                return -slot - 1;
+            }
+            if (table.getInt(slot * SLOT_BYTES) == hash
+                    && bytesEqual(elements, (entry - 1) * width, buffer, offset)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Counts the slots of a saved table that record a position. A table with
+     * exactly {@code size} of them, below the load factor, always has an empty
+     * slot, so {@link #find(ByteBuffer, int, int)} cannot probe forever.
+     *
+     * @return the number of occupied slots, or -1 if any records a position
+     *         outside the list
+     */
+    private static int occupiedSlots(final ByteBuffer table, final int slots, final int size) {
+        int occupied = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            final int entry = table.getInt(slot * SLOT_BYTES + 4);
+            if (entry < 0 || entry > size) {
+                return -1;
+            }
+            if (entry != 0) {
+                occupied++;
+            }
+        }
+        return occupied;
+    }
+
+    /**
+     * Indexes the first {@code count} encoded elements from scratch.
+     *
+     * @throws IOException if two of them are equal
+     */
+    private void rebuildTable(final int count) throws IOException {
+        release(table);
+        allocateTable(ElementIndex.tableSizeFor(count));
+        size = 0;
+        for (int i = 0; i < count; i++) {
+            final int hash = hashAt(elements, i * width);
+            final int slot = find(elements, i * width, hash);
+            if (slot >= 0) {
+                throw new IOException("Duplicate element at position " + i);
+            }
+            insertSlot(-slot - 1, hash, i);
+            size++;
+        }
+    }
+
+    /**
+     * Copies a memory-mapped list into native memory of its own before its first
+     * update, so that the file it was loaded from is never written to.
+     */
+    private void ensureWritable() {
+        if (elements.isReadOnly()) {
+            final ByteBuffer copy = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, width));
+            copy.put(elements.duplicate().position(0).limit(size * width));
+            elements = copy;
+        }
+        if (table.isReadOnly()) {
+            final ByteBuffer copy = ByteBuffer.allocateDirect(table.capacity());
+            copy.put(table.duplicate().clear());
+            table = copy;
+        }
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /** @return the slot whose entry records {@code position} */
+    private int slotOfPosition(final int position) {
+        final int mask = slots - 1;
+        int slot = hashAt(elements, position * width) & mask;
+        while (positionAt(slot) != position) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int positionAt(final int slot) {
+        return table.getInt(slot * SLOT_BYTES + 4) - 1;
+    }
+
+    private void setPositionAt(final int slot, final int position) {
+        table.putInt(slot * SLOT_BYTES + 4, position + 1);
+    }
+
+    /** Fills an empty slot, growing the table afterwards if needed. */
+    private void insertSlot(final int slot, final int hash, final int position) {
+        table.putInt(slot * SLOT_BYTES, hash);
+        setPositionAt(slot, position);
+        if (size + 1 > threshold) {
+            rehash(slots << 1);
+        }
+    }
+
+    /** Empties a slot using backward-shift deletion. */
+    private void deleteSlot(int hole) {
+        final int mask = slots - 1;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            final long entry = table.getLong(slot * SLOT_BYTES);
+            if ((int) entry == 0) {
+                break;
+            }
+
+            final int home = (int) (entry >>> 32) & mask;
+            // the entry may fill the hole unless its home lies cyclically in (hole, slot]
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                table.putLong(hole * SLOT_BYTES, entry);
+                hole = slot;
+            }
+        }
+        table.putLong(hole * SLOT_BYTES, 0L);
+    }
+
+    private void rehash(final int newSlots) {
+        final ByteBuffer old = table;
+        final int oldSlots = slots;
+        allocateTable(newSlots);
+
+        final int mask = newSlots - 1;
+        for (int i = 0; i < oldSlots; i++) {
+            final long entry = old.getLong(i * SLOT_BYTES);
+            if ((int) entry != 0) {
+                int slot = (int) (entry >>> 32) & mask;
+                while (table.getInt(slot * SLOT_BYTES + 4) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table.putLong(slot * SLOT_BYTES, entry);
+            }
+        }
+        release(old);
+    }
+
+    private void allocateTable(final int newSlots) {
+        slots = newSlots;
+        threshold = (int) (newSlots * MAX_LOAD);
+        table = ByteBuffer.allocateDirect(Math.multiplyExact(newSlots, SLOT_BYTES));
+    }
+
+    private void clearTable() {
+        for (int i = 0; i < slots; i++) {
+            table.putLong(i * SLOT_BYTES, 0L);
+        }
+    }
+
+    private void ensureCapacity(final int minCapacity) {
+        if (minCapacity <= capacity) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity + (capacity >> 1), DEFAULT_CAPACITY);
+        if (newCapacity < minCapacity || (long) newCapacity * width > Integer.MAX_VALUE) {
+            newCapacity = minCapacity;
+        }
+
+        final ByteBuffer grown = ByteBuffer.allocateDirect(Math.multiplyExact(newCapacity, width));
+        final ByteBuffer used = elements.duplicate();
+        used.position(0).limit(size * width);
+        grown.put(used);
+        release(elements);
+        elements = grown;
+        capacity = newCapacity;
+    }
+
+    /** @return a well-mixed hash of the {@link #width} bytes at {@code offset} */
+    private int hashAt(final ByteBuffer buffer, final int offset) {
+        int h = 1;
+        int k = 0;
+        for (; k + Long.BYTES <= width; k += Long.BYTES) {
+            h = 31 * h + Long.hashCode(buffer.getLong(offset + k));
+        }
+        for (; k < width; k++) {
+            h = 31 * h + buffer.get(offset + k);
+        }
+
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private boolean bytesEqual(final ByteBuffer a, final int aOffset, final ByteBuffer b, final int bOffset) {
+        int k = 0;
+        for (; k + Long.BYTES <= width; k += Long.BYTES) {
+            if (a.getLong(aOffset + k) != b.getLong(bOffset + k)) {
+                return false;
+            }
+        }
+        for (; k < width; k++) {
+            if (a.get(aOffset + k) != b.get(bOffset + k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies {@code length} bytes within {@code buffer} from {@code from} to
+     * {@code to}. The ranges may overlap.
+     */
+    private static void move(final ByteBuffer buffer, final int from, final int to, final int length) {
+        if (length <= 0 || from == to) {
+            return;
+        }
+
+        if (to < from) {
+            int k = 0;
+            for (; k + Long.BYTES <= length; k += Long.BYTES) {
+                buffer.putLong(to + k, buffer.getLong(from + k));
+            }
+            for (; k < length; k++) {
+                buffer.put(to + k, buffer.get(from + k));
+            }
+        } else {
+            int k = length;
+            for (; k >= Long.BYTES; k -= Long.BYTES) {
+                buffer.putLong(to + k - Long.BYTES, buffer.getLong(from + k - Long.BYTES));
+            }
+            for (; k > 0; k--) {
+                buffer.put(to + k - 1, buffer.get(from + k - 1));
+            }
+        }
+    }
+
+    /**
+     * Frees a direct buffer's memory right away if the JDK allows it; otherwise
+     * leaves that to the garbage collector.
+     */
+    private static void release(final ByteBuffer buffer) {
+        if (buffer == null || INVOKE_CLEANER == null || !buffer.isDirect()) {
+            return;
+        }
+
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // not releasable eagerly (e.g. a slice); the collector will free it
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("list has been closed");
+        }
+    }
+
+    /**
+     * @param index index to validate
+     * @throws IndexOutOfBoundsException if the index is out of range (index < 0 ||
+     *                                   index >= size())
+     */
+    private void validateIndex(final int index) {
+        ensureOpen();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        }
+    }
+}
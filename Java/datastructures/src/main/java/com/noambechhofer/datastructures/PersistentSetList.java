@@ -0,0 +1,1140 @@
+package com.noambechhofer.datastructures;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.noambechhofer.datastructures.utils.DuplicateElementException;
+
+/**
+ * A union of the {@link Set} and {@link List} interfaces, like
+ * {@link SetList}, whose state is a persistent data structure: an update never
+ * modifies a node that already exists, it copies the O(log n) nodes on the
+ * path to the change and shares the rest. {@link #snapshot()} therefore runs
+ * in O(1) and returns an immutable view of the list as it was at that moment,
+ * which is unaffected by later updates and may be read from any thread.
+ * <p>
+ * Positions are held in a treap (a binary search tree that is also a heap on
+ * random priorities) in which every element carries a {@code long} label, and
+ * labels increase from the first element to the last. Every node records the
+ * size of its subtree, so the element at an index is found by descending from
+ * the root. A hash array mapped trie maps each element to its label, and the
+ * index of an element is the number of labels smaller than its own, which is
+ * counted by descending the treap once more. Labels never change when other
+ * elements are inserted or removed, which is what lets the trie be shared
+ * between versions.
+ * <p>
+ * A new element is labelled halfway between its neighbours. When two
+ * neighbours have no label left between them, the smallest sufficiently sparse
+ * aligned block of labels around them is spread out evenly, as in Bender et
+ * al.'s order-maintenance structure; this costs amortized O(log n) relabels per
+ * insertion in the worst case and almost never happens for appends or random
+ * insertions.
+ * <p>
+ * {@link #get(int)}, {@link #add(int, Object)}, {@link #remove(int)},
+ * {@link #set(int, Object)} and {@link #indexOf(Object)} all run in O(log n)
+ * expected time. This class is not thread-safe for concurrent writers, but
+ * {@link #snapshot()} may be called from any thread while one thread writes.
+ */
+@SuppressWarnings("java:S2160")
+/*
+ * SuppressWarnings justification:
+ * equals() and hashCode() are already implemented by AbstractList. See
+ * SetList.
+ */
+public class PersistentSetList<E> extends AbstractList<E> implements Set<E>, RandomAccess {
+    /** Labels are drawn from [0, LABEL_LIMIT) */
+    private static final long LABEL_LIMIT = 1L << 62;
+    /** Largest gap left between consecutive labels at either end of the list */
+    private static final long LABEL_STEP = 1L << 32;
+    /** Bits of the hash consumed per level of the trie */
+    private static final int BITS = 5;
+    private static final int LEVEL_MASK = (1 << BITS) - 1;
+
+    /** Immutable treap node */
+    private static final class Node<E> {
+        final long label;
+        final E element;
+        final int priority;
+        final Node<E> left;
+        final Node<E> right;
+        /** number of nodes in the subtree rooted at this node */
+        final int size;
+
+        Node(final long label, final E element, final int priority, final Node<E> left, final Node<E> right) {
+            this.label = label;
+            this.element = element;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        Node<E> withChildren(final Node<E> left, final Node<E> right) {
+            return new Node<>(label, element, priority, left, right);
+        }
+    }
+
+    /** An element and its label, as stored in the trie */
+    private static final class Entry {
+        final Object key;
+        final int hash;
+        final long label;
+
+        Entry(final Object key, final int hash, final long label) {
+            this.key = key;
+            this.hash = hash;
+            this.label = label;
+        }
+    }
+
+    /** Entries whose keys have exactly the same hash */
+    private static final class Collision {
+        final int hash;
+        final Entry[] entries;
+
+        Collision(final int hash, final Entry[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * A level of the trie. Bit i of the bitmap is set if the slot for hash
+     * fragment i is occupied, and occupied slots are packed into {@code slots}
+     * in fragment order. A slot holds an {@link Entry}, a {@link Collision} or a
+     * deeper {@link Trie}.
+     */
+    private static final class Trie {
+        final int bitmap;
+        final Object[] slots;
+
+        Trie(final int bitmap, final Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    /** The complete state of a list. Never modified once published. */
+    private static final class Version<E> {
+        @SuppressWarnings("rawtypes")
+        static final Version EMPTY = new Version<>(null, null);
+
+        final Node<E> root;
+        /** Root slot of the trie: {@code null}, an Entry, a Collision or a Trie */
+        final Object index;
+
+        Version(final Node<E> root, final Object index) {
+            this.root = root;
+            this.index = index;
+        }
+    }
+
+    /** Walks the treap in order, so a full iteration costs O(n). */
+    private class Itr implements Iterator<E> {
+        /** Nodes whose elements are yet to be returned, next on top */
+        private final ArrayDeque<Node<E>> path = new ArrayDeque<>();
+        private int cursor;
+        private int lastRet = -1;
+        private int expectedModCount = modCount;
+
+        Itr() {
+            seek(version.root, 0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public E next() {
+            checkForComodification();
+            if (path.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+
+            final Node<E> node = path.pop();
+            for (Node<E> n = node.right; n != null; n = n.left) {
+                path.push(n);
+            }
+            lastRet = cursor++;
+            return node.element;
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+
+            PersistentSetList.this.remove(lastRet);
+            cursor = lastRet;
+            lastRet = -1;
+            expectedModCount = modCount;
+            seek(version.root, cursor);
+        }
+
+        /** Points this iterator at the given index of the given tree. */
+        private void seek(Node<E> node, int index) {
+            path.clear();
+            while (node != null) {
+                final int leftSize = size(node.left);
+                if (index <= leftSize) {
+                    path.push(node);
+                    node = node.left;
+                } else {
+                    index -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * A view of a range of this list. Bulk inserts and removals go through
+     * {@link PersistentSetList#addAll(int, Collection)} and
+     * {@link PersistentSetList#removeRange(int, int)}, so each publishes one new
+     * version or none, and membership tests go through the trie and a range
+     * check.
+     */
+    private final class SubList extends AbstractList<E> implements RandomAccess {
+        /** Index in this list of the view's first element */
+        private final int offset;
+        private int size;
+
+        SubList(final int offset, final int size) {
+            this.offset = offset;
+            this.size = size;
+            this.modCount = PersistentSetList.this.modCount;
+        }
+
+        @Override
+        public int size() {
+            checkForComodification();
+            return size;
+        }
+
+        @Override
+        public E get(final int index) {
+            validateIndex(index, size);
+            checkForComodification();
+            return PersistentSetList.this.get(offset + index);
+        }
+
+        @Override
+        public E set(final int index, final E element) {
+            validateIndex(index, size);
+            checkForComodification();
+            final E old = PersistentSetList.this.set(offset + index, element);
+            updateSizeAndModCount(0);
+            return old;
+        }
+
+        /**
+         * Appends the element to the end of this view unless it is already
+         * present anywhere in the list, as {@link PersistentSetList#add(Object)}
+         * does.
+         */
+        @Override
+        public boolean add(final E e) {
+            checkForComodification();
+            if (PersistentSetList.this.contains(e)) {
+                return false;
+            }
+
+            add(size, e);
+            return true;
+        }
+
+        @Override
+        public void add(final int index, final E element) {
+            validateIndex(index, size + 1);
+            checkForComodification();
+            PersistentSetList.this.add(offset + index, element);
+            updateSizeAndModCount(1);
+        }
+
+        @Override
+        public boolean addAll(final Collection<? extends E> c) {
+            return addAll(size, c);
+        }
+
+        @Override
+        public boolean addAll(final int index, final Collection<? extends E> c) {
+            validateIndex(index, size + 1);
+            checkForComodification();
+            final int oldSize = PersistentSetList.this.size();
+            final boolean changed = PersistentSetList.this.addAll(offset + index, c);
+            updateSizeAndModCount(PersistentSetList.this.size() - oldSize);
+            return changed;
+        }
+
+        @Override
+        public E remove(final int index) {
+            validateIndex(index, size);
+            checkForComodification();
+            final E old = PersistentSetList.this.remove(offset + index);
+            updateSizeAndModCount(-1);
+            return old;
+        }
+
+        @Override
+        public boolean remove(final Object o) {
+            final int index = indexOf(o);
+            if (index < 0) {
+                return false;
+            }
+
+            remove(index);
+            return true;
+        }
+
+        @Override
+        protected void removeRange(final int fromIndex, final int toIndex) {
+            checkForComodification();
+            PersistentSetList.this.removeRange(offset + fromIndex, offset + toIndex);
+            updateSizeAndModCount(fromIndex - toIndex);
+        }
+
+        /** Removes this view's range from the list as one new version. */
+        @Override
+        public void clear() {
+            removeRange(0, size);
+        }
+
+        /** Runs in O(log n): a trie lookup and a range check. */
+        @Override
+        public boolean contains(final Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        /** Runs in O(log n): a trie lookup and a range check. */
+        @Override
+        public int indexOf(final Object o) {
+            checkForComodification();
+            final int index = PersistentSetList.this.indexOf(o) - offset;
+            return index >= 0 && index < size ? index : -1;
+        }
+
+        /** Equivalent to {@link #indexOf(Object)}, since there are no duplicates. */
+        @Override
+        public int lastIndexOf(final Object o) {
+            return indexOf(o);
+        }
+
+        private void updateSizeAndModCount(final int sizeChange) {
+            size += sizeChange;
+            modCount = PersistentSetList.this.modCount;
+        }
+
+        private void checkForComodification() {
+            if (PersistentSetList.this.modCount != this.modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /** The current state. Replaced wholesale by every update. */
+    private volatile Version<E> version;
+    /** {@code true} for the immutable lists returned by {@link #snapshot()} */
+    private final boolean frozen;
+
+    /**
+     * Standard constructor.
+     */
+    @SuppressWarnings("unchecked")
+    public PersistentSetList() {
+        this.version = Version.EMPTY;
+        this.frozen = false;
+    }
+
+    /**
+     * Constructs a list containing the distinct elements of the specified
+     * collection, in the order they are returned by its iterator. If the
+     * collection is itself a {@code PersistentSetList}, its state is shared
+     * rather than copied, so this runs in O(1); this is how to get a mutable
+     * list back from a snapshot.
+     *
+     * @param c the collection whose elements are to be placed into this list
+     * @throws NullPointerException if the specified collection is null
+     */
+    public PersistentSetList(final Collection<? extends E> c) {
+        this();
+        if (c instanceof PersistentSetList) {
+            @SuppressWarnings("unchecked")
+            final PersistentSetList<E> other = (PersistentSetList<E>) c;
+            this.version = other.version;
+        } else {
+            addAll(c);
+        }
+    }
+
+    private PersistentSetList(final Version<E> version) {
+        this.version = version;
+        this.frozen = true;
+    }
+
+    /**
+     * Returns an immutable list holding the current contents of this list. The
+     * snapshot shares all of its structure with this list, so it is taken in
+     * O(1) and costs no memory until this list is next updated. Updating this
+     * list afterwards leaves the snapshot unchanged. Every mutator of the
+     * snapshot throws {@link UnsupportedOperationException}.
+     *
+     * @return a snapshot of this list
+     */
+    public PersistentSetList<E> snapshot() {
+        return frozen ? this : new PersistentSetList<>(version);
+    }
+
+    /**
+     * Returns the number of elements
+     *
+     * @return number of elements
+     */
+    @Override
+    public int size() {
+        return size(version.root);
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element. Runs in
+     * O(1) expected time.
+     *
+     * @param o element whose presence in this list is to be tested
+     * @return {@code true} if this list contains the specified element.
+     */
+    @Override
+    public boolean contains(final Object o) {
+        return find(version.index, o, hash(o)) != null;
+    }
+
+    /**
+     * Returns an iterator over this list in proper sequence.
+     *
+     * @return an iterator over this list in proper sequence.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    /**
+     * Returns the element at the specified position in this list. Runs in
+     * O(log n).
+     *
+     * @param index index of the element to return
+     * @return the element at the specified position in this list
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    @Override
+    public E get(final int index) {
+        final Node<E> root = version.root;
+        validateIndex(index, size(root));
+        return nodeAt(root, index).element;
+    }
+
+    /**
+     * Returns the index of the specified element in this list, or -1 if this
+     * list does not contain the element. Runs in O(log n).
+     *
+     * @param o element to search for
+     *
+     * @return the index of the specified element in this list, or -1 if this
+     *         list does not contain the element
+     */
+    @Override
+    public int indexOf(final Object o) {
+        final Version<E> v = version;
+        final Entry entry = find(v.index, o, hash(o));
+        return entry == null ? -1 : rank(v.root, entry.label);
+    }
+
+    /**
+     * Because this list does not allow duplicates, calling this method is
+     * exactly equivalent to calling {@link #indexOf(Object)}.
+     *
+     * @param o element to search for
+     *
+     * @return the index of the specified element in this list, or -1 if this
+     *         list does not contain the element
+     */
+    @Override
+    public int lastIndexOf(final Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * Appends the specified element to the end of this list if it is not already
+     * present. Runs in O(log n).
+     * <p>
+     * As with {@link SetList#add(Object)}, insertion of a duplicate does not
+     * throw a {@link DuplicateElementException}, and instead returns false.
+     *
+     * @param e element to be appended to this list
+     *
+     * @return true if the element is not already present in the list.
+     * @throws UnsupportedOperationException if this list is a snapshot
+     */
+    @Override
+    public boolean add(final E e) {
+        ensureMutable();
+        if (contains(e)) {
+            return false;
+        }
+
+        addInternal(size(), e);
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this list.
+     * Shifts the element currently at that position (if any) and any subsequent
+     * elements to the right. Runs in O(log n).
+     *
+     * @param index   index at which the specified element is to be inserted
+     * @param element element to be inserted
+     *
+     * @throws DuplicateElementException     if the element is already present
+     * @throws IndexOutOfBoundsException     if the index is out of range
+     *                                       (index &lt; 0 || index > size())
+     * @throws UnsupportedOperationException if this list is a snapshot
+     */
+    @Override
+    public void add(final int index, final E element) {
+        ensureMutable();
+        if (contains(element)) {
+            throw new DuplicateElementException();
+        }
+
+        addInternal(index, element);
+    }
+
+    /**
+     * Inserts all of the elements in the specified collection into this list at
+     * the specified position, in the order that they are returned by the
+     * specified collection's iterator. Runs in O(k log n) expected time.
+     * <p>
+     * As with {@link SetList#addAll(int, Collection)}, a duplicate (whether
+     * already in this list or repeated within the collection) causes a
+     * {@link DuplicateElementException}. The check happens before anything is
+     * inserted, so on failure this list is left unchanged. The new version is
+     * published once, so a concurrent {@link #snapshot()} sees either none of
+     * the collection or all of it.
+     *
+     * @param index index at which to insert the first element from the specified
+     *              collection
+     * @param c     collection containing elements to be added to this list
+     *
+     * @return {@code true} if this list changed as a result of the call
+     * @throws DuplicateElementException     if any element is already present, or
+     *                                       appears more than once in the
+     *                                       collection
+     * @throws IndexOutOfBoundsException     if the index is out of range
+     *                                       (index &lt; 0 || index > size())
+     * @throws UnsupportedOperationException if this list is a snapshot
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean addAll(final int index, final Collection<? extends E> c) {
+        ensureMutable();
+        Version<E> v = version;
+        validateIndex(index, size(v.root) + 1);
+
+        final Object[] a = c.toArray();
+        final HashSet<Object> batch = new HashSet<>();
+        for (final Object e : a) {
+            if (contains(e) || !batch.add(e)) {
+                throw new DuplicateElementException();
+            }
+        }
+        if (a.length == 0) {
+            return false;
+        }
+
+        for (int i = 0; i < a.length; i++) {
+            v = withInserted(v, index + i, (E) a[i]);
+        }
+        version = v;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes the specified element from this list, if it is present. Runs in
+     * O(log n).
+     *
+     * @param o element to be removed from this list, if present
+     *
+     * @return {@code true} if this list contained the specified element
+     * @throws UnsupportedOperationException if this list is a snapshot
+     */
+    @Override
+    public boolean remove(final Object o) {
+        ensureMutable();
+        final int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+
+        remove(index);
+        return true;
+    }
+
+    /**
+     * Removes the element at the specified position in this list. Shifts any
+     * subsequent elements to the left. Runs in O(log n).
+     *
+     * @param index the index of the element to be removed
+     *
+     * @return the element previously at the specified position
+     *
+     * @throws IndexOutOfBoundsException     if the index is out of range
+     *                                       {@code (index < 0 || index >= size())}
+     * @throws UnsupportedOperationException if this list is a snapshot
+     */
+    @Override
+    public E remove(final int index) {
+        ensureMutable();
+        final Version<E> v = version;
+        validateIndex(index, size(v.root));
+
+        final Node<E> node = nodeAt(v.root, index);
+        version = new Version<>(removeLabel(v.root, node.label),
+                delete(v.index, node.element, hash(node.element), 0));
+        modCount++;
+        return node.element;
+    }
+
+    /**
+     * Removes all of the elements from this list. Snapshots taken earlier keep
+     * their elements.
+     *
+     * @throws UnsupportedOperationException if this list is a snapshot
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void clear() {
+        ensureMutable();
+        version = Version.EMPTY;
+        modCount++;
+    }
+
+    /**
+     * Replaces the element at the specified position in this list with the
+     * specified element. Runs in O(log n).
+     *
+     * @param index   index of the element to replace
+     * @param element element to be stored at the specified position
+     *
+     * @return the element previously at the specified position
+     *
+     * @throws DuplicateElementException     if the element is already present
+     * @throws IndexOutOfBoundsException     if the index is out of range
+     *                                       {@code (index < 0 || index >= size())}
+     * @throws UnsupportedOperationException if this list is a snapshot
+     */
+    @Override
+    public E set(final int index, final E element) {
+        ensureMutable();
+        final Version<E> v = version;
+        validateIndex(index, size(v.root));
+        final int hash = hash(element);
+        if (find(v.index, element, hash) != null) {
+            throw new DuplicateElementException();
+        }
+
+        final Node<E> node = nodeAt(v.root, index);
+        final Object trie = delete(v.index, node.element, hash(node.element), 0);
+        version = new Version<>(replace(v.root, node.label, element),
+                insert(trie, new Entry(element, hash, node.label), 0));
+        modCount++;
+        return node.element;
+    }
+
+    /**
+     * Sorts this list according to the order induced by the specified
+     * {@link Comparator}, by rebuilding it from a sorted array. Unlike
+     * {@link List#sort(Comparator)}'s element-by-element write-back, this never
+     * passes through a state with duplicates, and the sorted list is published
+     * once, so a concurrent {@link #snapshot()} sees it either before or after.
+     *
+     * @param c the {@code Comparator} used to compare list elements. A
+     *          {@code null} value indicates that the elements' natural ordering
+     *          should be used
+     * @throws UnsupportedOperationException if this list is a snapshot
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sort(final Comparator<? super E> c) {
+        ensureMutable();
+        final Object[] elements = toArray();
+        Arrays.sort(elements, (Comparator<Object>) c);
+
+        Version<E> v = Version.EMPTY;
+        for (int i = 0; i < elements.length; i++) {
+            v = withInserted(v, i, (E) elements[i]);
+        }
+        version = v;
+        modCount++;
+    }
+
+    /**
+     * Returns a view of the portion of this list between {@code fromIndex},
+     * inclusive, and {@code toIndex}, exclusive. Bulk inserts and removals
+     * through the view, such as {@code subList(from, to).addAll(c)} or
+     * {@code subList(from, to).clear()}, each publish a single new version, so a
+     * concurrent {@link #snapshot()} sees all of the change or none of it.
+     *
+     * @param fromIndex low endpoint (inclusive) of the subList
+     * @param toIndex   high endpoint (exclusive) of the subList
+     * @return a view of the specified range within this list
+     * @throws IndexOutOfBoundsException if an endpoint index value is out of range
+     *                                   {@code (fromIndex < 0 || toIndex > size)}
+     * @throws IllegalArgumentException  if the endpoint indices are out of order
+     *                                   {@code (fromIndex > toIndex)}
+     */
+    @Override
+    public List<E> subList(final int fromIndex, final int toIndex) {
+        final int size = size();
+        if (fromIndex < 0 || toIndex > size) {
+            throw new IndexOutOfBoundsException(
+                    String.format("fromIndex: %d, toIndex: %d, Size: %d", fromIndex, toIndex, size));
+        }
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException(String.format("fromIndex(%d) > toIndex(%d)", fromIndex, toIndex));
+        }
+        return new SubList(fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * Removes the elements in {@code [fromIndex, toIndex)} and publishes the
+     * result as a single new version. Runs in O((toIndex - fromIndex) log n).
+     *
+     * @param fromIndex index of first element to be removed
+     * @param toIndex   index after last element to be removed
+     * @throws UnsupportedOperationException if this list is a snapshot
+     */
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+        ensureMutable();
+        final Version<E> v = version;
+        final int size = size(v.root);
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException(
+                    String.format("fromIndex: %d, toIndex: %d, Size: %d", fromIndex, toIndex, size));
+        }
+        if (fromIndex == toIndex) {
+            return;
+        }
+
+        Node<E> root = v.root;
+        Object index = v.index;
+        for (int i = fromIndex; i < toIndex; i++) {
+            final Node<E> node = nodeAt(v.root, i);
+            root = removeLabel(root, node.label);
+            index = delete(index, node.element, hash(node.element), 0);
+        }
+        version = new Version<>(root, index);
+        modCount++;
+    }
+
+    /**
+     * Creates a Spliterator over the elements in this list.
+     * <p>
+     * The Spliterator reports Spliterator.SIZED, Spliterator.ORDERED and
+     * Spliterator.DISTINCT.
+     *
+     * @return a Spliterator over the elements in this list
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.DISTINCT);
+    }
+
+    /**
+     * Internal method. CALLLER MUST ENSURE THAT THE ELEMENT IS NOT ALREADY PRESENT.
+     */
+    private void addInternal(final int index, final E ele) {
+        // cannot use validateIndex() because we consider size() valid here
+        validateIndex(index, size(version.root) + 1);
+
+        version = withInserted(version, index, ele);
+        modCount++;
+    }
+
+    /** @return {@code v} with {@code ele} inserted at a valid index */
+    private static <E> Version<E> withInserted(Version<E> v, final int index, final E ele) {
+        long label = labelFor(v.root, index);
+        if (label < 0) {
+            v = spread(v, index);
+            label = labelFor(v.root, index);
+        }
+
+        final Node<E> leaf = new Node<>(label, ele, ThreadLocalRandom.current().nextInt(), null, null);
+        return new Version<>(insert(v.root, leaf), insert(v.index, new Entry(ele, hash(ele), label), 0));
+    }
+
+    /**
+     * @return a free label for an element inserted at the given index, or -1 if
+     *         its neighbours' labels are adjacent
+     */
+    private static long labelFor(final Node<?> root, final int index) {
+        final int size = size(root);
+        if (size == 0) {
+            return LABEL_LIMIT / 2;
+        }
+
+        final long lo = index == 0 ? -1 : nodeAt(root, index - 1).label;
+        final long hi = index == size ? LABEL_LIMIT : nodeAt(root, index).label;
+        final long gap = hi - lo;
+        if (gap < 2) {
+            return -1;
+        }
+
+        if (index == size) {
+            return lo + Math.min(gap / 2, LABEL_STEP);
+        } else if (index == 0) {
+            return hi - Math.min(gap / 2, LABEL_STEP);
+        }
+        return lo + gap / 2;
+    }
+
+    /**
+     * Relabels the smallest aligned block of labels around the given index whose
+     * density is below its threshold, spreading its labels out evenly so that
+     * there is room for a new one on either side of every element.
+     * <p>
+     * A block of 2^i labels qualifies once it holds fewer than 2^(i/2) elements,
+     * so a qualifying block always exists (the whole label space, at worst) and
+     * after relabelling its elements are at least 2^(i/2) apart.
+     */
+    private static <E> Version<E> spread(final Version<E> v, final int index) {
+        final long anchor = nodeAt(v.root, index == 0 ? 0 : index - 1).label;
+        for (int i = 2;; i++) {
+            final long start = (anchor >>> i) << i;
+            final long width = 1L << i;
+            final Node<E>[] below = split(v.root, start);
+            final Node<E>[] block = split(below[1], start + width);
+            final long count = size(block[0]);
+            if ((count + 1) * (count + 1) <= width) {
+                final Relabeller<E> relabeller = new Relabeller<>(start, width / (count + 1), v.index);
+                final Node<E> relabelled = relabeller.relabel(block[0]);
+                return new Version<>(merge(merge(below[0], relabelled), block[1]), relabeller.index);
+            }
+        }
+    }
+
+    /** Rewrites the labels of a subtree in order, updating the trie to match. */
+    private static final class Relabeller<E> {
+        private long next;
+        private final long gap;
+        Object index;
+
+        Relabeller(final long start, final long gap, final Object index) {
+            this.next = start;
+            this.gap = gap;
+            this.index = index;
+        }
+
+        Node<E> relabel(final Node<E> node) {
+            if (node == null) {
+                return null;
+            }
+
+            final Node<E> left = relabel(node.left);
+            next += gap;
+            final long label = next;
+            index = insert(index, new Entry(node.element, hash(node.element), label), 0);
+            return new Node<>(label, node.element, node.priority, left, relabel(node.right));
+        }
+    }
+
+    private void ensureMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("snapshots are immutable");
+        }
+    }
+
+    /**
+     * @param index index to validate
+     * @param size  number of valid indices
+     * @throws IndexOutOfBoundsException if the index is out of range (index < 0 ||
+     *                                   index >= size)
+     */
+    private static void validateIndex(final int index, final int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        }
+    }
+
+    private static int size(final Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /** Caller must ensure the index is valid. */
+    private static <E> Node<E> nodeAt(Node<E> node, int index) {
+        while (true) {
+            final int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    /** @return the number of labels in the tree smaller than {@code label} */
+    private static int rank(Node<?> node, final long label) {
+        int rank = 0;
+        while (node != null) {
+            if (label <= node.label) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    private static <E> Node<E> insert(final Node<E> node, final Node<E> leaf) {
+        if (node == null) {
+            return leaf;
+        }
+        if (leaf.priority > node.priority) {
+            final Node<E>[] halves = split(node, leaf.label);
+            return leaf.withChildren(halves[0], halves[1]);
+        }
+        if (leaf.label < node.label) {
+            return node.withChildren(insert(node.left, leaf), node.right);
+        }
+        return node.withChildren(node.left, insert(node.right, leaf));
+    }
+
+    private static <E> Node<E> removeLabel(final Node<E> node, final long label) {
+        if (label == node.label) {
+            return merge(node.left, node.right);
+        }
+        if (label < node.label) {
+            return node.withChildren(removeLabel(node.left, label), node.right);
+        }
+        return node.withChildren(node.left, removeLabel(node.right, label));
+    }
+
+    private static <E> Node<E> replace(final Node<E> node, final long label, final E element) {
+        if (label == node.label) {
+            return new Node<>(label, element, node.priority, node.left, node.right);
+        }
+        if (label < node.label) {
+            return node.withChildren(replace(node.left, label, element), node.right);
+        }
+        return node.withChildren(node.left, replace(node.right, label, element));
+    }
+
+    /** @return the nodes with labels below {@code label}, and the rest */
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E>[] split(final Node<E> node, final long label) {
+        if (node == null) {
+            return (Node<E>[]) new Node<?>[2];
+        }
+        if (node.label < label) {
+            final Node<E>[] halves = split(node.right, label);
+            halves[0] = node.withChildren(node.left, halves[0]);
+            return halves;
+        }
+        final Node<E>[] halves = split(node.left, label);
+        halves[1] = node.withChildren(halves[1], node.right);
+        return halves;
+    }
+
+    /** Caller must ensure every label in {@code a} is below every label in {@code b}. */
+    private static <E> Node<E> merge(final Node<E> a, final Node<E> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            return a.withChildren(a.left, merge(a.right, b));
+        }
+        return b.withChildren(merge(a, b.left), b.right);
+    }
+
+    /** Fibonacci hashing, as in {@link ElementIndex}, so every level of the trie is well spread. */
+    private static int hash(final Object o) {
+        final int h = Objects.hashCode(o) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int fragment(final int hash, final int shift) {
+        return (hash >>> shift) & LEVEL_MASK;
+    }
+
+    /** @return the entry for {@code key} in the trie rooted at {@code slot}, or {@code null} */
+    private static Entry find(Object slot, final Object key, final int hash) {
+        int shift = 0;
+        while (slot instanceof Trie) {
+            final Trie trie = (Trie) slot;
+            final int bit = 1 << fragment(hash, shift);
+            if ((trie.bitmap & bit) == 0) {
+                return null;
+            }
+            slot = trie.slots[Integer.bitCount(trie.bitmap & (bit - 1))];
+            shift += BITS;
+        }
+
+        if (slot instanceof Entry) {
+            final Entry entry = (Entry) slot;
+            return entry.hash == hash && Objects.equals(entry.key, key) ? entry : null;
+        }
+        if (slot instanceof Collision && ((Collision) slot).hash == hash) {
+            for (final Entry entry : ((Collision) slot).entries) {
+                if (Objects.equals(entry.key, key)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a copy of the trie rooted at {@code slot}, consuming hash bits from
+     *         {@code shift} on, with {@code entry} added or replacing the entry for
+     *         the same key
+     */
+    private static Object insert(final Object slot, final Entry entry, final int shift) {
+        if (slot == null) {
+            return entry;
+        }
+
+        if (slot instanceof Trie) {
+            final Trie trie = (Trie) slot;
+            final int bit = 1 << fragment(entry.hash, shift);
+            final int i = Integer.bitCount(trie.bitmap & (bit - 1));
+            if ((trie.bitmap & bit) == 0) {
+                final Object[] slots = new Object[trie.slots.length + 1];
+                System.arraycopy(trie.slots, 0, slots, 0, i);
+                slots[i] = entry;
+                System.arraycopy(trie.slots, i, slots, i + 1, trie.slots.length - i);
+                return new Trie(trie.bitmap | bit, slots);
+            }
+            final Object[] slots = trie.slots.clone();
+            slots[i] = insert(slots[i], entry, shift + BITS);
+            return new Trie(trie.bitmap, slots);
+        }
+
+        final int slotHash = slot instanceof Entry ? ((Entry) slot).hash : ((Collision) slot).hash;
+        if (slotHash != entry.hash) {
+            return pair(slot, slotHash, entry, shift);
+        }
+
+        if (slot instanceof Entry) {
+            return Objects.equals(((Entry) slot).key, entry.key) ? entry
+                    : new Collision(slotHash, new Entry[] { (Entry) slot, entry });
+        }
+
+        final Entry[] entries = ((Collision) slot).entries;
+        for (int i = 0; i < entries.length; i++) {
+            if (Objects.equals(entries[i].key, entry.key)) {
+                final Entry[] replaced = entries.clone();
+                replaced[i] = entry;
+                return new Collision(slotHash, replaced);
+            }
+        }
+        final Entry[] grown = Arrays.copyOf(entries, entries.length + 1);
+        grown[entries.length] = entry;
+        return new Collision(slotHash, grown);
+    }
+
+    /** @return a trie holding {@code a} and {@code b}, whose hashes differ */
+    private static Trie pair(final Object a, final int aHash, final Entry b, final int shift) {
+        final int aFragment = fragment(aHash, shift);
+        final int bFragment = fragment(b.hash, shift);
+        if (aFragment == bFragment) {
+            return new Trie(1 << aFragment, new Object[] { pair(a, aHash, b, shift + BITS) });
+        }
+        final Object[] slots = aFragment < bFragment ? new Object[] { a, b } : new Object[] { b, a };
+        return new Trie((1 << aFragment) | (1 << bFragment), slots);
+    }
+
+    /**
+     * Caller must ensure {@code key} is present.
+     *
+     * @return a copy of the trie rooted at {@code slot} without {@code key}, or
+     *         {@code null} if it would be empty
+     */
+    private static Object delete(final Object slot, final Object key, final int hash, final int shift) {
+        if (slot instanceof Entry) {
+            return null;
+        }
+
+        if (slot instanceof Collision) {
+            final Entry[] entries = ((Collision) slot).entries;
+            if (entries.length == 2) {
+                return Objects.equals(entries[0].key, key) ? entries[1] : entries[0];
+            }
+            final Entry[] shrunk = new Entry[entries.length - 1];
+            int j = 0;
+            for (final Entry entry : entries) {
+                if (!Objects.equals(entry.key, key)) {
+                    shrunk[j++] = entry;
+                }
+            }
+            return new Collision(hash, shrunk);
+        }
+
+        final Trie trie = (Trie) slot;
+        final int bit = 1 << fragment(hash, shift);
+        final int i = Integer.bitCount(trie.bitmap & (bit - 1));
+        final Object child = delete(trie.slots[i], key, hash, shift + BITS);
+
+        final Object[] slots;
+        final int bitmap;
+        if (child == null) {
+            if (trie.slots.length == 1) {
+                return null;
+            }
+            slots = new Object[trie.slots.length - 1];
+            System.arraycopy(trie.slots, 0, slots, 0, i);
+            System.arraycopy(trie.slots, i + 1, slots, i, slots.length - i);
+            bitmap = trie.bitmap & ~bit;
+        } else {
+            slots = trie.slots.clone();
+            slots[i] = child;
+            bitmap = trie.bitmap;
+        }
+
+        // a lone entry or collision needs no level of its own
+        if (slots.length == 1 && !(slots[0] instanceof Trie)) {
+            return slots[0];
+        }
+        return new Trie(bitmap, slots);
+    }
+}
@@ -1,35 +1,58 @@
 package com.noambechhofer.datastructures;
 
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Array;
 import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 import com.noambechhofer.datastructures.utils.DuplicateElementException;
 
 /**
- * A union of the {@link Set} and {@link List} interfaces. Backed by a
- * {@link HashMap<Integer, E>}.
- * The aim is to compromise by having all significant methods run in O(n)
+ * A union of the {@link Set} and {@link List} interfaces. Positions are backed
+ * by a growable array, and an open-addressing {@link ElementIndex} maps
+ * elements back to their positions, so {@link #contains(Object)} and
+ * {@link #indexOf(Object)} are hash lookups.
+ * <p>
+ * The elements sit in a ring buffer and the element map stores positions
+ * relative to a movable base, so a SetList offers the head and tail operations
+ * of a {@link java.util.Deque}, such as {@link #addFirst(Object)} and
+ * {@link #pollLast()}: adding or removing at either end runs in amortized
+ * O(1). It does not implement {@code Deque} itself, because from Java 21 on
+ * {@code Deque.reversed()} and {@code List.reversed()} cannot both be
+ * inherited. Inserting or removing in the middle shifts and renumbers
+ * whichever side of the index is shorter, which is O(n). For lists that are
+ * edited in the middle, construct an {@link IndexedTreeSetList} instead, which
+ * does so in O(log n).
  */
 @SuppressWarnings("java:S2160")
 /*
  * SuppressWarnings justification:
  * Note that this class extends AbstractList.
- * Using AbstractList provides a sublist and spliterator implementation, which
- * saves me a lot of work.
+ * Using AbstractList provides equals(), hashCode() and toString(), which saves
+ * me a lot of work.
  * SonarLint complains that I have not implemented equals() and hashCode(), but
  * these are already implemented by AbstractList.
  */
-public class SetList<E> extends AbstractList<E> implements Set<E> {
+public class SetList<E> extends AbstractList<E> implements Set<E>, RandomAccess {
     private class SetListIterator implements ListIterator<E> {
         /**
          * On a theoretical level, this points between the elements which would be
@@ -41,69 +64,64 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
          * size() + 1 valid positions.
          */
         private int cursor;
-        /** The element last returned by {@link #next()} or {@link #previous()} */
-        private E curr;
         /**
-         * Determines whether {@link #remove()} or {@link #set(Object)} can be called.
-         * Only set to {@code true} after a call to {@link #next()} or
-         * {@link #previous()}. Falsified upon construction, by {@link #remove()}, and
-         * by {@link #add(Object).}
+         * Index of the element last returned by {@link #next()} or
+         * {@link #previous()}, or -1 if {@link #remove()} or {@link #set(Object)}
+         * cannot be called. Reset to -1 by {@link #remove()} and by
+         * {@link #add(Object)}.
          */
-        private boolean canMutate;
+        private int lastRet;
         /**
-         * If true, last call was {@link #next()}. If false, last call was
-         * {@link #previous()}. Used to determine {@link #set(Object)}'s behavior.
+         * The {@code modCount} this iterator believes the SetList to have. A
+         * mismatch means the SetList was structurally modified behind this
+         * iterator's back.
          */
-        private boolean lastCallWasNext;
+        private int expectedModCount;
 
         public SetListIterator() {
-            cursor = 0;
-            canMutate = false;
+            this(0);
         }
 
         public SetListIterator(final int index) {
-            validateIndex(index);
+            validateIndexForAdd(index);
 
             cursor = index;
-            canMutate = false;
+            lastRet = -1;
+            expectedModCount = modCount;
         }
 
         @Override
         public boolean hasNext() {
-            return cursor < size();
+            return cursor != size;
         }
 
         @Override
         public E next() {
-            try {
-                curr = get(cursor++);
-            } catch (final IndexOutOfBoundsException e) {
-                throw new NoSuchElementException(e);
+            checkForComodification();
+            final int i = cursor;
+            if (i >= size) {
+                throw new NoSuchElementException();
             }
 
-            canMutate = true;
-            lastCallWasNext = true;
-
-            return curr;
+            cursor = i + 1;
+            return elementData(lastRet = i);
         }
 
         @Override
         public boolean hasPrevious() {
-            return cursor > 0;
+            return cursor != 0;
         }
 
         @Override
         public E previous() {
-            try {
-                curr = get(--cursor);
-            } catch (final IndexOutOfBoundsException e) {
-                throw new NoSuchElementException(e);
+            checkForComodification();
+            final int i = cursor - 1;
+            if (i < 0) {
+                throw new NoSuchElementException();
             }
 
-            canMutate = true;
-            lastCallWasNext = false;
-
-            return curr;
+            cursor = i;
+            return elementData(lastRet = i);
         }
 
         @Override
@@ -118,91 +136,704 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
 
         @Override
         public void remove() {
-            if (!canMutate) {
+            if (lastRet < 0) {
                 throw new IllegalStateException();
             }
+            checkForComodification();
 
-            SetList.this.remove(curr);
-            canMutate = false;
-            modCount++;
+            SetList.this.remove(lastRet);
+            cursor = lastRet;
+            lastRet = -1;
+            expectedModCount = modCount;
         }
 
         /**
          * ! USE CAUTION ! This method breaks the contract of this class by allowing
          * duplicates. Use {@link SetList#contains(Object)} to ensure you're not
          * inserting a duplicate.
+         * <p>
+         * The utility is to allow {@link Collections#sort(List)} to work on this
+         * class: it writes the sorted elements back one at a time, so the SetList
+         * briefly holds duplicates. The replaced element's entry in the element map
+         * is only dropped if it still points at this position; once every position
+         * has been rewritten, the element map is consistent again.
          */
         @Override
         public void set(final E e) {
-            if (!canMutate) {
+            if (lastRet < 0) {
                 throw new IllegalStateException();
             }
+            checkForComodification();
 
-            if (lastCallWasNext) {
-                set(cursor - 1, e, true);
-            } else {
-                set(cursor, e, true);
+            final E old = elementData(lastRet);
+            final int stamp = base + lastRet;
+            if (elementMap.get(old) == stamp) {
+                elementMap.remove(old);
+            }
+            elementMap.put(e, stamp);
+            elementData[physical(lastRet)] = e;
+            if (listeners != null) {
+                fire(SetListChange.of(SetListChange.Type.SET, lastRet, Collections.singletonList(e)));
             }
-
-            modCount++;
         }
 
         @Override
         public void add(final E e) {
-            SetList.this.add(cursor++, e);
-            canMutate = false;
+            checkForComodification();
+
+            SetList.this.add(cursor, e);
+            cursor++;
+            lastRet = -1;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            final int end = size;
+            int i = cursor;
+            for (; i < end && modCount == expectedModCount; i++) {
+                action.accept(elementData(i));
+            }
+
+            cursor = i;
+            lastRet = i - 1;
+            checkForComodification();
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * A view of a range of this SetList. Creating one is O(1). Reads and writes
+     * go straight to the SetList, so positional edits cost what they do there,
+     * while membership tests go through the element map and a range check.
+     * Nested views are tracked through {@link #parent} so that every view in the
+     * chain sees size changes made through any of them.
+     */
+    private final class SubList extends AbstractList<E> implements RandomAccess {
+        private final SubList parent;
+        /** Index in the SetList of this view's first element */
+        private final int offset;
+        private int size;
+
+        SubList(final SubList parent, final int offset, final int size) {
+            this.parent = parent;
+            this.offset = offset;
+            this.size = size;
+            this.modCount = SetList.this.modCount;
+        }
+
+        @Override
+        public int size() {
+            checkForComodification();
+            return size;
+        }
+
+        @Override
+        public E get(final int index) {
+            checkIndex(index, size);
+            checkForComodification();
+            return elementData(offset + index);
+        }
+
+        @Override
+        public E set(final int index, final E element) {
+            checkIndex(index, size);
+            checkForComodification();
+            final E old = SetList.this.set(offset + index, element);
+            updateSizeAndModCount(0);
+            return old;
+        }
+
+        /**
+         * Appends the element to the end of this view unless it is already
+         * present anywhere in the SetList, as {@link SetList#add(Object)} does.
+         */
+        @Override
+        public boolean add(final E e) {
+            checkForComodification();
+            if (SetList.this.contains(e)) {
+                return false;
+            }
+
+            add(size, e);
+            return true;
+        }
+
+        @Override
+        public void add(final int index, final E element) {
+            checkIndex(index, size + 1);
+            checkForComodification();
+            SetList.this.add(offset + index, element);
+            updateSizeAndModCount(1);
+        }
+
+        @Override
+        public boolean addAll(final Collection<? extends E> c) {
+            return addAll(size, c);
+        }
+
+        @Override
+        public boolean addAll(final int index, final Collection<? extends E> c) {
+            checkIndex(index, size + 1);
+            checkForComodification();
+            final int oldSize = SetList.this.size;
+            final boolean changed = SetList.this.addAll(offset + index, c);
+            updateSizeAndModCount(SetList.this.size - oldSize);
+            return changed;
+        }
+
+        @Override
+        public E remove(final int index) {
+            checkIndex(index, size);
+            checkForComodification();
+            final E old = SetList.this.remove(offset + index);
+            updateSizeAndModCount(-1);
+            return old;
+        }
+
+        @Override
+        public boolean remove(final Object o) {
+            final int index = indexOf(o);
+            if (index < 0) {
+                return false;
+            }
+
+            remove(index);
+            return true;
+        }
+
+        @Override
+        protected void removeRange(final int fromIndex, final int toIndex) {
+            checkForComodification();
+            SetList.this.removeRange(offset + fromIndex, offset + toIndex);
+            updateSizeAndModCount(fromIndex - toIndex);
+        }
+
+        /** Removes this view's range from the SetList in one pass. */
+        @Override
+        public void clear() {
+            removeRange(0, size);
+        }
+
+        @Override
+        public boolean removeIf(final Predicate<? super E> filter) {
+            Objects.requireNonNull(filter);
+            checkForComodification();
+            final int from = offset;
+            final int to = offset + size;
+            final int oldSize = SetList.this.size;
+            final boolean changed = removeMarked(i -> i >= from && i < to && filter.test(elementData(i)));
+            updateSizeAndModCount(SetList.this.size - oldSize);
+            return changed;
+        }
 
-            modCount++;
+        @Override
+        public boolean removeAll(final Collection<?> c) {
+            Objects.requireNonNull(c);
+            return removeIf(c::contains);
+        }
+
+        @Override
+        public boolean retainAll(final Collection<?> c) {
+            Objects.requireNonNull(c);
+            return removeIf(e -> !c.contains(e));
+        }
+
+        /** Runs in O(1) expected time: an element map lookup and a range check. */
+        @Override
+        public boolean contains(final Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        /** Runs in O(1) expected time: an element map lookup and a range check. */
+        @Override
+        public int indexOf(final Object o) {
+            checkForComodification();
+            final int index = SetList.this.indexOf(o) - offset;
+            return index >= 0 && index < size ? index : -1;
+        }
+
+        /** Equivalent to {@link #indexOf(Object)}, since there are no duplicates. */
+        @Override
+        public int lastIndexOf(final Object o) {
+            return indexOf(o);
+        }
+
+        @Override
+        public List<E> subList(final int fromIndex, final int toIndex) {
+            checkSubListRange(fromIndex, toIndex, size);
+            checkForComodification();
+            return new SubList(this, offset + fromIndex, toIndex - fromIndex);
+        }
+
+        private void updateSizeAndModCount(final int sizeChange) {
+            SubList view = this;
+            do {
+                view.size += sizeChange;
+                view.modCount = SetList.this.modCount;
+                view = view.parent;
+            } while (view != null);
+        }
+
+        private void checkForComodification() {
+            if (SetList.this.modCount != this.modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /** Index-range based, late-binding Spliterator. Mirrors ArrayList's. */
+    private final class SetListSpliterator implements Spliterator<E> {
+        /** current index, modified on advance/split */
+        private int index;
+        /** -1 until used; then one past last index */
+        private int fence;
+        /** initialized when fence set */
+        private int expectedModCount;
+        /** NONNULL, if applicable; initialized when fence set */
+        private int nonNull;
+
+        SetListSpliterator(final int origin, final int fence, final int expectedModCount) {
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        /** initializes fence to size on first use */
+        private int getFence() {
+            int hi = fence;
+            if (hi < 0) {
+                expectedModCount = modCount;
+                nonNull = elementMap.containsKey(null) ? 0 : Spliterator.NONNULL;
+                hi = fence = size;
+            }
+            return hi;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            final int hi = getFence();
+            final int lo = index;
+            final int mid = (lo + hi) >>> 1;
+            if (lo >= mid) {
+                return null;
+            }
+
+            final SetListSpliterator prefix = new SetListSpliterator(lo, index = mid, expectedModCount);
+            prefix.nonNull = nonNull;
+            return prefix;
         }
 
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            final int hi = getFence();
+            final int i = index;
+            if (i >= hi) {
+                return false;
+            }
+
+            index = i + 1;
+            action.accept(elementData(i));
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            final int hi = getFence();
+            int i = index;
+            index = hi;
+            for (; i < hi; i++) {
+                action.accept(elementData(i));
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return (long) getFence() - index;
+        }
+
+        @Override
+        public int characteristics() {
+            getFence();
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.DISTINCT
+                    | nonNull;
+        }
+    }
+
+    /**
+     * Records a batch of positional edits for {@link SetList#edit(Consumer)}.
+     * <p>
+     * Every index refers to the SetList as it stood when the batch began, not as
+     * it would look after the edits recorded so far, so edits may be recorded in
+     * any order. Nothing changes until the batch is applied.
+     *
+     * @param <E> the type of elements
+     */
+    public interface Editor<E> {
+        /**
+         * Inserts an element before the element originally at {@code index}, or
+         * at the end if {@code index} is the original size. Elements inserted at
+         * the same index keep the order in which they were recorded.
+         *
+         * @param index   original index to insert before
+         * @param element element to insert
+         * @throws IndexOutOfBoundsException if the index is out of range (index
+         *                                   &lt; 0 || index > size())
+         */
+        void add(int index, E element);
+
+        /**
+         * Appends an element after every original element and every element
+         * already appended in this batch.
+         *
+         * @param element element to append
+         */
+        void add(E element);
+
+        /**
+         * Removes the element originally at {@code index}.
+         *
+         * @param index original index of the element to remove
+         * @throws IndexOutOfBoundsException if the index is out of range (index
+         *                                   &lt; 0 || index >= size())
+         * @throws IllegalArgumentException  if the element at that index has
+         *                                   already been removed or set in this
+         *                                   batch
+         */
+        void remove(int index);
+
+        /**
+         * Replaces the element originally at {@code index}.
+         *
+         * @param index   original index of the element to replace
+         * @param element element to store in its place
+         * @throws IndexOutOfBoundsException if the index is out of range (index
+         *                                   &lt; 0 || index >= size())
+         * @throws IllegalArgumentException  if the element at that index has
+         *                                   already been removed or set in this
+         *                                   batch
+         */
+        void set(int index, E element);
+
         /**
-         * ! This is an internal extension of the {@link #set(int, Object)} function.
-         * ! It's dangerous because it breaks the contract of this class - it will allow
-         * ! duplicates to be inserted. The utility is to allow
-         * ! {@link Collections#sort(List)} to work on this class. Use with extreme
-         * ! caution.
-         * 
-         * @param index   index at which the specified element is to be inserted
-         * @param element element to be inserted
-         * @param force   if true, will insert the element even if it's a duplicate
-         * @return the element previously at the specified position
-         * @throws IndexOutOfBoundsException if the index is out of range
-         * @throws DuplicateElementException if the element is already in the list and
-         *                                   force is false
+         * @param index original index
+         * @return the element originally at {@code index}
+         * @throws IndexOutOfBoundsException if the index is out of range (index
+         *                                   &lt; 0 || index >= size())
          */
-        private E set(final int index, final E element, final boolean force) {
-            if (!force) {
-                SetList.this.set(index, element);
+        E get(int index);
+
+        /** @return the size of the SetList when the batch began */
+        int size();
+    }
+
+    private final class BatchEditor implements Editor<E> {
+        private final int expectedModCount = modCount;
+        private final int originalSize = size;
+        private boolean open = true;
+
+        /** {@code insertAt[k]} is the original index {@code inserted[k]} goes before */
+        private int[] insertAt = new int[0];
+        private Object[] inserted = new Object[0];
+        private int insertCount;
+
+        /** Allocated on the first remove or set; {@code edited[i]} marks original index i */
+        private boolean[] edited;
+        /** The new element for each edited index, or {@link #REMOVED} */
+        private Object[] replacements;
+        private int editCount;
+        /** Smallest original index touched by any edit */
+        private int firstChange = Integer.MAX_VALUE;
+
+        @Override
+        public void add(final int index, final E element) {
+            checkOpen();
+            if (index < 0 || index > originalSize) {
+                throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, originalSize));
+            }
+
+            if (insertCount == insertAt.length) {
+                final int newLength = Math.max(insertCount << 1, DEFAULT_CAPACITY);
+                insertAt = Arrays.copyOf(insertAt, newLength);
+                inserted = Arrays.copyOf(inserted, newLength);
             }
+            insertAt[insertCount] = index;
+            inserted[insertCount++] = element;
+            firstChange = Math.min(firstChange, index);
+        }
+
+        @Override
+        public void add(final E element) {
+            add(originalSize, element);
+        }
+
+        @Override
+        public void remove(final int index) {
+            mark(index, REMOVED);
+        }
+
+        @Override
+        public void set(final int index, final E element) {
+            mark(index, element);
+        }
+
+        @Override
+        public E get(final int index) {
+            checkOpen();
+            validateIndex(index);
+            return elementData(index);
+        }
+
+        @Override
+        public int size() {
+            return originalSize;
+        }
 
+        private void mark(final int index, final Object replacement) {
+            checkOpen();
             validateIndex(index);
 
-            modCount++;
+            if (edited == null) {
+                edited = new boolean[originalSize];
+                replacements = new Object[originalSize];
+            }
+            if (edited[index]) {
+                throw new IllegalArgumentException("Index already removed or set in this batch: " + index);
+            }
+            edited[index] = true;
+            replacements[index] = replacement;
+            editCount++;
+            firstChange = Math.min(firstChange, index);
+        }
+
+        private void checkOpen() {
+            if (!open) {
+                throw new IllegalStateException("batch is closed");
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * Collects the changes made by one operation for the listeners, merging
+     * changes of the same type at consecutive positions into a single run.
+     */
+    private final class ChangeLog {
+        private final List<SetListChange<E>> changes = new ArrayList<>();
+        private SetListChange.Type type;
+        private int index;
+        private List<E> run;
+
+        void add(final SetListChange.Type t, final int i, final E e) {
+            // removals at the same index are consecutive, since each closes the gap
+            if (t == type && i == (t == SetListChange.Type.REMOVE ? index : index + run.size())) {
+                run.add(e);
+                return;
+            }
+
+            flush();
+            type = t;
+            index = i;
+            run = new ArrayList<>();
+            run.add(e);
+        }
+
+        void fire() {
+            flush();
+            if (!changes.isEmpty()) {
+                notifyListeners(changes);
+            }
+        }
+
+        private void flush() {
+            if (type != null) {
+                changes.add(SetListChange.of(type, index, run));
+                type = null;
+            }
+        }
+    }
+
+    /** Running totals behind {@link SetListStats}; see {@link #setStatsEnabled(boolean)} */
+    private static final class Counters {
+        long shifts;
+        long lookups;
+        long duplicateRejections;
+    }
+
+    /**
+     * Serves a registered SetList's stats over JMX. Most attributes are read
+     * straight from fields. The probe lengths need a walk of the element index,
+     * so one measurement is shared by every read within
+     * {@link #PROBE_SNAPSHOT_NANOS}, and a monitoring client that polls every
+     * attribute walks the index once per poll rather than once per attribute.
+     */
+    private final class StatsBean implements SetListStatsMXBean {
+        /** The last probe-length measurement, or {@code null} before the first */
+        private SetListStats probed;
+        /** When {@link #probed} was measured, in {@link System#nanoTime()} units */
+        private long probedAt;
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public int getCapacity() {
+            return elementData.length;
+        }
+
+        @Override
+        public long getEstimatedRetainedBytes() {
+            return retainedBytes();
+        }
+
+        @Override
+        public int getIndexCapacity() {
+            return elementMap.capacity();
+        }
+
+        @Override
+        public double getIndexLoadFactor() {
+            final int capacity = elementMap.capacity();
+            return capacity == 0 ? 0 : (double) size / capacity;
+        }
+
+        @Override
+        public double getAverageProbeLength() {
+            return probed().getAverageProbeLength();
+        }
+
+        @Override
+        public int getMaxProbeLength() {
+            return probed().getMaxProbeLength();
+        }
+
+        @Override
+        public long getShifts() {
+            final Counters c = counters;
+            return c == null ? 0 : c.shifts;
+        }
+
+        @Override
+        public long getLookups() {
+            final Counters c = counters;
+            return c == null ? 0 : c.lookups;
+        }
+
+        @Override
+        public long getDuplicateRejections() {
+            final Counters c = counters;
+            return c == null ? 0 : c.duplicateRejections;
+        }
 
-            elementMap.put(element, index);
-            return indexMap.put(index, element);
+        /** @return a probe-length measurement no older than one poll */
+        private synchronized SetListStats probed() {
+            final long now = System.nanoTime();
+            if (probed == null || now - probedAt >= PROBE_SNAPSHOT_NANOS) {
+                probed = stats();
+                probedAt = now;
+            }
+            return probed;
+        }
+
+        @Override
+        public void resetCounters() {
+            if (counters != null) {
+                counters = new Counters();
+            }
         }
     }
 
-    /** Maps indices to their corresponding elements */
-    private final HashMap<Integer, E> indexMap;
+    /** Capacity of the backing array when none is specified */
+    private static final int DEFAULT_CAPACITY = 10;
+    /** Marks a removal in a {@link BatchEditor}, since {@code null} is an element */
+    private static final Object REMOVED = new Object();
+
+    /*
+     * Footprint estimates for a 64-bit JVM with compressed references: a 12-byte
+     * object header plus fields, padded to 8 bytes.
+     */
+    private static final int REFERENCE_BYTES = 4;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int SETLIST_BYTES = 40;
+    private static final int ELEMENT_INDEX_BYTES = 32;
+    /** How long a JMX probe-length measurement is reused; see {@link StatsBean} */
+    private static final long PROBE_SNAPSHOT_NANOS = 1_000_000_000L;
+
+    /**
+     * The elements of this SetList in order, as a ring buffer: the element at
+     * index i lives in slot {@code physical(i)}, starting from {@link #head} and
+     * wrapping around the end of the array. Only {@link #size} slots are in use;
+     * the rest are {@code null}.
+     */
+    private Object[] elementData;
+    /** Slot of {@link #elementData} holding the element at index 0 */
+    private int head;
+    /** Number of elements */
+    private int size;
     /** 
-     * Maps elements to their corresponding indices.
+     * Maps elements to their corresponding indices, offset by {@link #base}.
      * <p>
-     * Using a reverse HashMap allows us to accomplish indexOf() in O(1) time.
-     * The tradeoff is space, however since Java uses Object references, the
-     * space cost is not too bad.
-     * Also we have to maintain two HashMaps, which is a bit
-     * more work.
+     * Using a reverse map allows us to accomplish indexOf() in O(1) time.
+     * The tradeoff is space, which {@link ElementIndex} keeps down by storing
+     * keys and primitive positions in parallel arrays rather than in
+     * {@code HashMap} nodes with boxed values.
+     */
+    private final ElementIndex<E> elementMap;
+    /**
+     * The element at index i is mapped to the stamp {@code base + i}. Adding or
+     * removing at the front moves {@code base} instead of renumbering every
+     * other element. Stamps are kept non-negative so that -1 still means
+     * absent.
+     */
+    private int base;
+    /** {@code null} unless stats are enabled, so that counting costs one branch */
+    private Counters counters;
+    /**
+     * {@code null} unless a listener is registered, so that change tracking
+     * costs one branch. Replaced rather than modified, so that a listener may
+     * unregister itself while being notified.
      */
-    private final HashMap<E, Integer> elementMap;
+    private List<SetListListener<E>> listeners;
 
     /**
      * Standard constructor.
      */
     public SetList() {
-        this.indexMap = new HashMap<>();
-        this.elementMap = new HashMap<>();
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty SetList with room for {@code initialCapacity} elements
+     * before the backing array has to grow.
+     * 
+     * @param initialCapacity the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public SetList(final int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+        }
+
+        this.elementData = new Object[initialCapacity];
+        this.elementMap = new ElementIndex<>(initialCapacity);
     }
 
     /**
@@ -212,7 +843,7 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
      */
     @Override
     public int size() {
-        return indexMap.size();
+        return size;
     }
 
     /**
@@ -222,7 +853,7 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
      */
     @Override
     public boolean isEmpty() {
-        return this.indexMap.isEmpty();
+        return this.size == 0;
     }
 
     /**
@@ -233,6 +864,7 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
      */
     @Override
     public boolean contains(final Object o) {
+        countLookups(1);
         return this.elementMap.containsKey(o);
     }
 
@@ -246,6 +878,28 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
         return new SetListIterator();
     }
 
+    /**
+     * Performs the given action for each element of this SetList, in order,
+     * reading straight from the backing array.
+     * 
+     * @param action the action to be performed for each element
+     * @throws ConcurrentModificationException if the SetList is structurally
+     *                                         modified by the action
+     * @throws NullPointerException            if the specified action is null
+     */
+    @Override
+    public void forEach(final Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        final int expectedModCount = modCount;
+        final int end = size;
+        for (int i = 0; modCount == expectedModCount && i < end; i++) {
+            action.accept(elementData(i));
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
     /**
      * Returns a list iterator over the elements in this SetList (in proper
      * sequence).
@@ -352,18 +1006,18 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
             arr = (T[]) Array.newInstance(a.getClass().getComponentType(), size());
         }
 
-        for (int i = 0; i < size(); i++) {
-            final E curr = get(i);
+        final Class<?> componentType = a.getClass().getComponentType();
+        for (int i = 0; i < size; i++) {
+            final Object curr = elementData(i);
 
-            if (!a.getClass().getComponentType().isAssignableFrom(curr.getClass())) {
+            if (curr != null && !componentType.isAssignableFrom(curr.getClass())) {
                 throw new ArrayStoreException();
             }
-
-            arr[i] = (T) curr;
         }
 
-        for (int i = size(); i < a.length; i++) {
-            arr[i] = null;
+        copyTo(arr);
+        if (arr.length > size) {
+            Arrays.fill(arr, size, arr.length, null);
         }
 
         return arr;
@@ -413,29 +1067,126 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
      */
     @Override
     public void add(final int index, final E element) {
+        countLookups(1);
         if (elementMap.containsKey(element)) {
-            throw new DuplicateElementException();
+            throw duplicate();
         }
 
         addInternal(index, element);
     }
 
     /**
-     * Unsupported. Would be quite inefficient. If you really need to do this, use
-     * multiple calls to {@link #add(Object)}
+     * Appends all of the elements in the specified collection that are not
+     * already present to the end of this SetList, in the order that they are
+     * returned by the specified collection's iterator. As with
+     * {@link #add(Object)}, duplicates (whether already in this SetList or
+     * repeated within the collection) are skipped rather than rejected.
+     * <p>
+     * Runs in O(k) for a collection of size k, since nothing already in the
+     * SetList has to move.
+     * 
+     * @param c collection containing elements to be added to this SetList
+     * 
+     * @return {@code true} if this SetList changed as a result of the call
+     * @throws NullPointerException if the specified collection is null
      */
     @Override
     public boolean addAll(final Collection<? extends E> c) {
-        throw new UnsupportedOperationException();
+        final Object[] a = c.toArray();
+        ensureCapacity(size + a.length);
+        ensureStampsAfter(a.length);
+
+        countLookups(a.length);
+        final int oldSize = size;
+        for (final Object o : a) {
+            @SuppressWarnings("unchecked")
+            final E e = (E) o;
+            if (!elementMap.containsKey(e)) {
+                elementMap.put(e, base + size);
+                elementData[physical(size++)] = e;
+            }
+        }
+
+        if (size == oldSize) {
+            return false;
+        }
+
+        modCount++;
+        if (listeners != null) {
+            fire(SetListChange.of(SetListChange.Type.INSERT, oldSize, range(oldSize, size)));
+        }
+        return true;
     }
 
     /**
-     * Unsupported. Would be quite inefficient. If you really need to do this, use
-     * multiple calls to {@link #add(int, Object)}
-     */
+     * Inserts all of the elements in the specified collection into this SetList
+     * at the specified position, in the order that they are returned by the
+     * specified collection's iterator. Shifts the element currently at that
+     * position (if any) and any subsequent elements to the right.
+     * <p>
+     * As with {@link #add(int, Object)}, a duplicate (whether already in this
+     * SetList or repeated within the collection) causes a
+     * {@link DuplicateElementException}. The check happens before anything is
+     * moved, so on failure this SetList is left unchanged.
+     * <p>
+     * Runs in O(n + k): the tail is shifted and renumbered once for the whole
+     * collection rather than once per element.
+     * 
+     * @param index index at which to insert the first element from the specified
+     *              collection
+     * @param c     collection containing elements to be added to this SetList
+     * 
+     * @return {@code true} if this SetList changed as a result of the call
+     * @throws DuplicateElementException if any element is already present, or
+     *                                   appears more than once in the collection
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0
+     *                                   || index > size())
+     * @throws NullPointerException      if the specified collection is null
+     */
     @Override
     public boolean addAll(final int index, final Collection<? extends E> c) {
-        throw new UnsupportedOperationException();
+        validateIndexForAdd(index);
+
+        final Object[] a = c.toArray();
+        final int numNew = a.length;
+        if (numNew == 0) {
+            return false;
+        }
+
+        ensureStampsAfter(numNew);
+
+        // claim the final positions up front; roll back if we hit a duplicate
+        for (int i = 0; i < numNew; i++) {
+            @SuppressWarnings("unchecked")
+            final E e = (E) a[i];
+            countLookups(1);
+            if (elementMap.putIfAbsent(e, base + index + i) >= 0) {
+                for (int j = 0; j < i; j++) {
+                    elementMap.remove(a[j]);
+                }
+                throw duplicate();
+            }
+        }
+
+        ensureCapacity(size + numNew);
+        linearize();
+        final int numMoved = size - index;
+        if (numMoved > 0) {
+            System.arraycopy(elementData, index, elementData, index + numNew, numMoved);
+        }
+        System.arraycopy(a, 0, elementData, index, numNew);
+        size += numNew;
+
+        for (int i = index + numNew; i < size; i++) {
+            elementMap.put(elementData(i), base + i);
+        }
+        countShifts(numMoved);
+
+        modCount++;
+        if (listeners != null) {
+            fire(SetListChange.of(SetListChange.Type.INSERT, index, range(index, index + numNew)));
+        }
+        return true;
     }
 
     /**
@@ -453,13 +1204,13 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
      */
     @Override
     public boolean remove(final Object o) {
-        for (int i = 0; i < size(); i++) {
-            if (Objects.equals(o, get(i))) {
-                remove(i);
-                return true;
-            }
+        final int index = indexOf(o);
+        if (index < 0) {
+            return false;
         }
-        return false;
+
+        remove(index);
+        return true;
     }
 
     /**
@@ -478,18 +1229,32 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
     public E remove(final int index) {
         validateIndex(index);
 
-        final E ret = indexMap.remove(index);
+        final E ret = elementData(index);
         elementMap.remove(ret);
 
-        int i = index;
-        for (; i < size(); i++) {
-            final E val = get(i + 1);
-            elementMap.put(val, i);
-            indexMap.put(i, val);
+        if (index < size - 1 - index) {
+            // close the gap from the front: shift the head right and advance base,
+            // which leaves every element behind the gap with its old stamp
+            for (int i = index; i > 0; i--) {
+                moveElement(i - 1, i);
+            }
+            elementData[head] = null;
+            head = physical(1);
+            base++;
+            countShifts(index);
+        } else {
+            for (int i = index + 1; i < size; i++) {
+                moveElement(i, i - 1);
+            }
+            elementData[physical(size - 1)] = null;
+            countShifts(size - 1 - index);
         }
+        size--;
 
-        indexMap.remove(i);
         modCount++;
+        if (listeners != null) {
+            fire(SetListChange.of(SetListChange.Type.REMOVE, index, Collections.singletonList(ret)));
+        }
         return ret;
     }
 
@@ -499,9 +1264,16 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
      */
     @Override
     public void clear() {
+        final int oldSize = size;
         elementMap.clear();
-        indexMap.clear();
+        Arrays.fill(elementData, null);
+        size = 0;
+        head = 0;
+        base = 0;
         modCount++;
+        if (listeners != null && oldSize > 0) {
+            fire(SetListChange.clear(oldSize));
+        }
     }
 
     /**
@@ -516,7 +1288,7 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
     public E get(final int index) {
         validateIndex(index);
 
-        return indexMap.get(index);
+        return elementData(index);
     }
 
     /**
@@ -535,13 +1307,20 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
     @Override
     public E set(final int index, final E element) {
         validateIndex(index);
+        countLookups(1);
         if (elementMap.containsKey(element)) {
-            throw new DuplicateElementException();
+            throw duplicate();
         }
 
         modCount++;
-        elementMap.put(element, index);
-        return indexMap.put(index, element);
+        final E old = elementData(index);
+        elementMap.remove(old);
+        elementMap.put(element, base + index);
+        elementData[physical(index)] = element;
+        if (listeners != null) {
+            fire(SetListChange.of(SetListChange.Type.SET, index, Collections.singletonList(element)));
+        }
+        return old;
     }
 
     /**
@@ -549,6 +1328,9 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
      * SetList does not contain the element. More formally, returns the index i such
      * that (o==null ? get(i)==null : o.equals(get(i))), or -1 if there is no such
      * index.
+     * <p>
+     * Runs in O(1) expected time, since the position is looked up in the
+     * element map rather than searched for.
      * 
      * @param o element to search for
      * 
@@ -556,24 +1338,10 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
      *         SetList does not contain the element
      */
     @Override
-    /*
-     * Suppressing warnings justification:
-     * sonarlint is complaining about the use of ==, saying that this operation
-     * places dependence on operator precedence, which is a bad practice.
-     * Sonarlint is wrong. The code is not ambiguous. I guess they just didn't
-     * program the rule to work correctly with ternary operators. I should
-     * probably open an issue on their github. Oh well.
-     */
-    @SuppressWarnings("java:S864")
     public int indexOf(final Object o) {
-        for (int i = 0; i < size(); i++) {
-            final E curr = get(i);
-            if (o == null ? curr == null : o.equals(curr)) {
-                return i;
-            }
-        }
-
-        return -1;
+        countLookups(1);
+        final int stamp = elementMap.get(o);
+        return stamp < 0 ? -1 : stamp - base;
     }
 
     /**
@@ -597,74 +1365,939 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
     }
 
     /**
-     * Creates a Spliterator over the elements in this SetList.
+     * Returns a view of the portion of this SetList between {@code fromIndex},
+     * inclusive, and {@code toIndex}, exclusive. The view is created in O(1) and
+     * writes through to this SetList, including its uniqueness checks.
+     * {@code contains} and {@code indexOf} on the view run in O(1) expected time,
+     * and {@code clear()} removes the whole range in a single pass.
      * <p>
-     * The Spliterator reports Spliterator.SIZED and Spliterator.ORDERED.
+     * The view becomes invalid, and throws
+     * {@link ConcurrentModificationException}, once this SetList is structurally
+     * modified other than through the view.
      * 
-     * @return a Spliterator over the elements in this SetList
+     * @param fromIndex low endpoint (inclusive) of the view
+     * @param toIndex   high endpoint (exclusive) of the view
+     * @return a view of the specified range within this SetList
+     * @throws IndexOutOfBoundsException if an endpoint index value is out of range
+     *                                   {@code (fromIndex < 0 || toIndex > size)}
+     * @throws IllegalArgumentException  if the endpoint indices are out of order
+     *                                   {@code (fromIndex > toIndex)}
      */
     @Override
-    /*
-     * Suppressing warnings justification:
-     * SonarLint thinks if i remove this method I can simply inherit it. That
-     * should work, but java is being weird about implementing spliterator from
-     * both List and Set.
+    public List<E> subList(final int fromIndex, final int toIndex) {
+        checkSubListRange(fromIndex, toIndex, size);
+        return new SubList(null, fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * Removes the elements between {@code fromIndex}, inclusive, and
+     * {@code toIndex}, exclusive, closing the gap from whichever side is
+     * shorter. Each surviving element is moved and renumbered at most once, so
+     * this runs in O(k + min(fromIndex, size - toIndex)) for a range of k
+     * elements.
+     * 
+     * @param fromIndex index of first element to be removed
+     * @param toIndex   index after last element to be removed
+     */
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+        final int count = toIndex - fromIndex;
+        if (count <= 0) {
+            return;
+        }
+
+        final List<E> removed = listeners == null ? null : range(fromIndex, toIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            elementMap.remove(elementData(i));
+        }
+
+        if (fromIndex < size - toIndex) {
+            // slide the elements before the range up to meet it, then advance
+            // head and base past the vacated slots so nothing else is renumbered
+            for (int i = fromIndex - 1; i >= 0; i--) {
+                final E e = elementData(i);
+                elementData[physical(i + count)] = e;
+                elementMap.put(e, base + i + count);
+            }
+            for (int i = 0; i < count; i++) {
+                elementData[physical(i)] = null;
+            }
+            head = physical(count);
+            base += count;
+            countShifts(fromIndex);
+        } else {
+            for (int i = toIndex; i < size; i++) {
+                moveElement(i, i - count);
+            }
+            for (int i = size - count; i < size; i++) {
+                elementData[physical(i)] = null;
+            }
+            countShifts(size - toIndex);
+        }
+        size -= count;
+
+        modCount++;
+        if (removed != null) {
+            fire(SetListChange.of(SetListChange.Type.REMOVE, fromIndex, removed));
+        }
+    }
+
+    /**
+     * Creates a <em>late-binding</em> and <em>fail-fast</em> Spliterator over the
+     * elements in this SetList.
+     * <p>
+     * The Spliterator reports Spliterator.SIZED, Spliterator.SUBSIZED,
+     * Spliterator.ORDERED and Spliterator.DISTINCT, plus Spliterator.NONNULL if
+     * this SetList does not contain {@code null} when the Spliterator binds. It
+     * splits in O(1) by halving its index range over the backing array, so
+     * parallel streams divide the work evenly.
+     * 
+     * @return a Spliterator over the elements in this SetList
      */
-    @SuppressWarnings("java:S125")
+    @Override
     public Spliterator<E> spliterator() {
-        return super.spliterator();
+        return new SetListSpliterator(0, -1, 0);
+    }
+
+    /**
+     * Inserts the specified element at the front of this SetList in amortized
+     * O(1).
+     * 
+     * @param e the element to add
+     * @throws DuplicateElementException if the element is already present
+     */
+    public void addFirst(final E e) {
+        add(0, e);
+    }
+
+    /**
+     * Appends the specified element to the end of this SetList in amortized
+     * O(1). Unlike {@link #add(Object)}, insertion of a duplicate throws.
+     * 
+     * @param e the element to add
+     * @throws DuplicateElementException if the element is already present
+     */
+    public void addLast(final E e) {
+        add(size, e);
+    }
+
+    /**
+     * Inserts the specified element at the front of this SetList unless it is
+     * already present.
+     * 
+     * @param e the element to add
+     * @return {@code true} if the element was added, {@code false} if it was
+     *         already present
+     */
+    public boolean offerFirst(final E e) {
+        countLookups(1);
+        if (elementMap.containsKey(e)) {
+            return false;
+        }
+
+        addInternal(0, e);
+        return true;
+    }
+
+    /**
+     * Appends the specified element to the end of this SetList unless it is
+     * already present. Equivalent to {@link #add(Object)}.
+     * 
+     * @param e the element to add
+     * @return {@code true} if the element was added, {@code false} if it was
+     *         already present
+     */
+    public boolean offerLast(final E e) {
+        return add(e);
+    }
+
+    /**
+     * Removes and returns the first element in amortized O(1).
+     * 
+     * @return the first element
+     * @throws NoSuchElementException if this SetList is empty
+     */
+    public E removeFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return remove(0);
     }
 
     /**
-     * Unsupported. Would be quite inefficient. If you really need to do this, use
-     * multiple calls to {@link #remove(Object)}
+     * Removes and returns the last element in O(1).
+     * 
+     * @return the last element
+     * @throws NoSuchElementException if this SetList is empty
+     */
+    public E removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return remove(size - 1);
+    }
+
+    /**
+     * Removes and returns the first element in amortized O(1).
+     * 
+     * @return the first element, or {@code null} if this SetList is empty
+     */
+    public E pollFirst() {
+        return size == 0 ? null : remove(0);
+    }
+
+    /**
+     * Removes and returns the last element in O(1).
+     * 
+     * @return the last element, or {@code null} if this SetList is empty
+     */
+    public E pollLast() {
+        return size == 0 ? null : remove(size - 1);
+    }
+
+    /**
+     * @return the first element
+     * @throws NoSuchElementException if this SetList is empty
+     */
+    public E getFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elementData(0);
+    }
+
+    /**
+     * @return the last element
+     * @throws NoSuchElementException if this SetList is empty
+     */
+    public E getLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elementData(size - 1);
+    }
+
+    /** @return the first element, or {@code null} if this SetList is empty */
+    public E peekFirst() {
+        return size == 0 ? null : elementData(0);
+    }
+
+    /** @return the last element, or {@code null} if this SetList is empty */
+    public E peekLast() {
+        return size == 0 ? null : elementData(size - 1);
+    }
+
+    /**
+     * Because a {@code SetList} does not allow duplicates, this is exactly
+     * equivalent to {@link #remove(Object)}.
+     */
+    public boolean removeFirstOccurrence(final Object o) {
+        return remove(o);
+    }
+
+    /**
+     * Because a {@code SetList} does not allow duplicates, this is exactly
+     * equivalent to {@link #remove(Object)}.
+     */
+    public boolean removeLastOccurrence(final Object o) {
+        return remove(o);
+    }
+
+    /** Equivalent to {@link #offerLast(Object)}. */
+    public boolean offer(final E e) {
+        return offerLast(e);
+    }
+
+    /** Equivalent to {@link #removeFirst()}. */
+    public E remove() {
+        return removeFirst();
+    }
+
+    /** Equivalent to {@link #pollFirst()}. */
+    public E poll() {
+        return pollFirst();
+    }
+
+    /** Equivalent to {@link #getFirst()}. */
+    public E element() {
+        return getFirst();
+    }
+
+    /** Equivalent to {@link #peekFirst()}. */
+    public E peek() {
+        return peekFirst();
+    }
+
+    /** Equivalent to {@link #addFirst(Object)}. */
+    public void push(final E e) {
+        addFirst(e);
+    }
+
+    /** Equivalent to {@link #removeFirst()}. */
+    public E pop() {
+        return removeFirst();
+    }
+
+    /**
+     * Returns an iterator over the elements in this SetList in reverse order,
+     * from last to first. Supports {@link Iterator#remove()}.
+     * 
+     * @return an iterator over the elements in reverse sequence
+     */
+    public Iterator<E> descendingIterator() {
+        final ListIterator<E> it = listIterator(size);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasPrevious();
+            }
+
+            @Override
+            public E next() {
+                return it.previous();
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+            }
+        };
+    }
+
+    /**
+     * Removes from this SetList all of its elements that are contained in the
+     * specified collection.
+     * <p>
+     * Each element of the collection is located through the element map, and the
+     * survivors are then compacted in a single pass, so this runs in O(n + k)
+     * regardless of the type of collection passed in.
+     * 
+     * @param c collection containing elements to be removed from this SetList
+     * 
+     * @return {@code true} if this SetList changed as a result of the call
+     * @throws NullPointerException if the specified collection is null
      */
     @Override
     public boolean removeAll(final Collection<?> c) {
-        throw new UnsupportedOperationException("Unimplemented method 'removeAll'");
+        Objects.requireNonNull(c);
+
+        boolean[] doomed = null;
+        for (final Object o : c) {
+            final int index = indexOf(o);
+            if (index >= 0) {
+                if (doomed == null) {
+                    doomed = new boolean[size];
+                }
+                doomed[index] = true;
+            }
+        }
+
+        if (doomed == null) {
+            return false;
+        }
+
+        final boolean[] marks = doomed;
+        return removeMarked(i -> marks[i]);
     }
 
     /**
-     * Unsupported. Would be quite inefficient. If you really need to do this, use
-     * multiple calls to {@link #contains(Object)}
+     * Returns {@code true} if this SetList contains all of the elements of the
+     * specified collection. Runs in O(k) expected time.
+     * 
+     * @param c collection to be checked for containment in this SetList
+     * 
+     * @return {@code true} if this SetList contains all of the elements of the
+     *         specified collection
+     * @throws NullPointerException if the specified collection is null
      */
     @Override
     public boolean containsAll(final Collection<?> c) {
-        throw new UnsupportedOperationException("Unimplemented method 'containsAll'");
+        for (final Object o : c) {
+            countLookups(1);
+            if (!elementMap.containsKey(o)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Unsupported. Would be quite inefficient. If you really need to do this, use
-     * multiple calls to {@link #remove(Object)}
+     * Retains only the elements in this SetList that are contained in the
+     * specified collection. The survivors are compacted in a single pass, so
+     * this makes n calls to {@code c.contains} and renumbers the element map
+     * once.
+     * 
+     * @param c collection containing elements to be retained in this SetList
+     * 
+     * @return {@code true} if this SetList changed as a result of the call
+     * @throws NullPointerException if the specified collection is null
      */
     @Override
     public boolean retainAll(final Collection<?> c) {
-        throw new UnsupportedOperationException("Unimplemented method 'retainAll'");
+        Objects.requireNonNull(c);
+        return removeMarked(i -> !c.contains(elementData(i)));
+    }
+
+    /**
+     * Removes all of the elements of this SetList that satisfy the given
+     * predicate, compacting the survivors in a single pass.
+     * 
+     * @param filter a predicate which returns {@code true} for elements to be
+     *               removed
+     * 
+     * @return {@code true} if any elements were removed
+     * @throws NullPointerException if the specified filter is null
+     */
+    @Override
+    public boolean removeIf(final Predicate<? super E> filter) {
+        Objects.requireNonNull(filter);
+        return removeMarked(i -> filter.test(elementData(i)));
+    }
+
+    /**
+     * Sorts this SetList according to the order induced by the specified
+     * comparator, or by natural order if it is {@code null}. The elements are
+     * sorted as an array and written back in one pass, and listeners receive a
+     * single {@link SetListChange.Type#SET SET} covering the whole SetList.
+     * 
+     * @param c the comparator used to compare elements, or {@code null} for
+     *          natural ordering
+     * @throws ClassCastException if the elements are not mutually comparable
+     */
+    @Override
+    public void sort(final Comparator<? super E> c) {
+        @SuppressWarnings("unchecked")
+        final E[] a = (E[]) toArray();
+        Arrays.sort(a, c);
+
+        linearize();
+        System.arraycopy(a, 0, elementData, 0, size);
+        for (int i = 0; i < size; i++) {
+            elementMap.put(a[i], base + i);
+        }
+        modCount++;
+        if (listeners != null && size > 0) {
+            fire(SetListChange.of(SetListChange.Type.SET, 0, Arrays.asList(a)));
+        }
+    }
+
+    /**
+     * Registers a listener to be told of every change to this SetList, made
+     * through any method, iterator or view. Until a listener is registered,
+     * changes are not tracked at all.
+     * 
+     * @param listener the listener to add
+     * @throws NullPointerException if the listener is null
+     */
+    public void addListener(final SetListListener<E> listener) {
+        Objects.requireNonNull(listener);
+        final List<SetListListener<E>> grown = listeners == null ? new ArrayList<>() : new ArrayList<>(listeners);
+        grown.add(listener);
+        listeners = grown;
+    }
+
+    /**
+     * Unregisters a listener. Once none remain, changes are no longer tracked.
+     * 
+     * @param listener the listener to remove
+     * @return {@code true} if the listener was registered
+     */
+    public boolean removeListener(final SetListListener<E> listener) {
+        if (listeners == null || !listeners.contains(listener)) {
+            return false;
+        }
+
+        final List<SetListListener<E>> shrunk = new ArrayList<>(listeners);
+        shrunk.remove(listener);
+        listeners = shrunk.isEmpty() ? null : shrunk;
+        return true;
+    }
+
+    /**
+     * Applies a batch of positional edits with a single pass over this SetList.
+     * <p>
+     * The editor passed to {@code edits} records inserts, removals and
+     * replacements against the indices this SetList has when the call begins;
+     * see {@link Editor}. Once {@code edits} returns, the batch is checked and
+     * then applied by rebuilding the backing array and renumbering the element
+     * map once from the first edited index, so k edits cost O(n + k) rather than
+     * the O(n * k) of k separate calls to {@link #add(int, Object)} or
+     * {@link #remove(int)}.
+     * <p>
+     * An element removed or replaced in the batch may be inserted again
+     * elsewhere, which moves it. If the batch would leave any element in this
+     * SetList twice, a {@link DuplicateElementException} is thrown and nothing
+     * is changed. Likewise, nothing is changed if {@code edits} throws.
+     * <p>
+     * The editor must not be used after {@code edits} returns, and this SetList
+     * must not be modified while {@code edits} runs.
+     * 
+     * @param edits records the edits to make
+     * @throws DuplicateElementException       if the edited SetList would contain
+     *                                         a duplicate
+     * @throws ConcurrentModificationException if this SetList is modified by
+     *                                         {@code edits}
+     * @throws NullPointerException            if {@code edits} is null
+     */
+    public void edit(final Consumer<? super Editor<E>> edits) {
+        Objects.requireNonNull(edits);
+        final BatchEditor batch = new BatchEditor();
+        try {
+            edits.accept(batch);
+        } finally {
+            batch.open = false;
+        }
+        if (modCount != batch.expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+
+        applyBatch(batch);
+    }
+
+    /**
+     * Turns the operation counters reported by {@link #stats()} on or off.
+     * They are off by default. Turning them on starts them from zero; turning
+     * them off discards them.
+     * 
+     * @param enabled whether to count shifts, lookups and duplicate rejections
+     */
+    public void setStatsEnabled(final boolean enabled) {
+        if (!enabled) {
+            counters = null;
+        } else if (counters == null) {
+            counters = new Counters();
+        }
+    }
+
+    /** @return whether operation counters are enabled */
+    public boolean isStatsEnabled() {
+        return counters != null;
+    }
+
+    /**
+     * Reports the memory footprint and hash-table health of this SetList, along
+     * with the operation counters if they are
+     * {@link #setStatsEnabled(boolean) enabled}. Measuring probe lengths walks
+     * the element index, so this runs in O(n).
+     * 
+     * @return a snapshot of this SetList's stats
+     */
+    public SetListStats stats() {
+        final Counters c = counters;
+        final int entries = elementMap.size();
+        return new SetListStats(size, elementData.length, retainedBytes(), elementMap.capacity(),
+                entries == 0 ? 0 : (double) elementMap.totalProbeLength() / entries, elementMap.maxProbeLength(),
+                c == null ? 0 : c.shifts, c == null ? 0 : c.lookups, c == null ? 0 : c.duplicateRejections);
+    }
+
+    /** @return the estimated heap footprint of this SetList and its arrays */
+    private long retainedBytes() {
+        return SETLIST_BYTES + arrayBytes(elementData.length, REFERENCE_BYTES)
+                + ELEMENT_INDEX_BYTES + arrayBytes(elementMap.capacity(), REFERENCE_BYTES)
+                + arrayBytes(elementMap.capacity(), Integer.BYTES);
+    }
+
+    /**
+     * Enables stats and publishes them on the platform MBean server under the
+     * given name, as a {@link SetListStatsMXBean}. The attributes are read
+     * without synchronizing with updates, so read them as estimates if another
+     * thread is modifying this SetList. All but the probe lengths cost O(1) to
+     * read; the probe lengths are measured in O(n) at most once a second and
+     * may lag updates by that long. The server keeps this SetList reachable
+     * until the name is unregistered.
+     * 
+     * @param name the name to register under
+     * @throws JMException if the name is taken or the bean cannot be registered
+     */
+    public void registerMBean(final ObjectName name) throws JMException {
+        setStatsEnabled(true);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new StatsBean(), name);
     }
 
     /**
      * Internal method. CALLLER MUST ENSURE THAT THE ELEMENT IS NOT ALREADY PRESENT.
      * 
-     * Runs in O(n) because elements may need to be shunted over to make room
-     * depending on the index.
+     * Runs in O(min(index, size - index)) because whichever side of the index
+     * is shorter is shunted over to make room; inserting at either end is
+     * amortized O(1).
      */
     private void addInternal(final int index, final E ele) {
         // cannot use validateIndex() because we consider size() valid here
-        if (index < 0 || index > size()) {
-            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size()));
+        validateIndexForAdd(index);
+
+        ensureCapacity(size + 1);
+
+        if (index < size - index) {
+            // open the gap at the front: step the head and base back together,
+            // which leaves every element with its old stamp, then shift the
+            // elements before the index down into the new first slot
+            ensureStampsBefore();
+            head = head == 0 ? elementData.length - 1 : head - 1;
+            base--;
+            for (int i = 0; i < index; i++) {
+                moveElement(i + 1, i);
+            }
+            countShifts(index);
+        } else {
+            ensureStampsAfter(1);
+            for (int i = size; i > index; i--) {
+                moveElement(i - 1, i);
+            }
+            countShifts(size - index);
+        }
+
+        elementData[physical(index)] = ele;
+        elementMap.put(ele, base + index);
+        size++;
+        modCount++;
+        if (listeners != null) {
+            fire(SetListChange.of(SetListChange.Type.INSERT, index, Collections.singletonList(ele)));
+        }
+    }
+
+    /**
+     * Checks a batch for duplicates, then writes the edited elements into a new
+     * backing array in one pass and renumbers everything from the first edited
+     * index. Runs in O(n + k).
+     */
+    private void applyBatch(final BatchEditor batch) {
+        final int numInserted = batch.insertCount;
+        final boolean[] edited = batch.edited;
+        final Object[] replacements = batch.replacements;
+        if (numInserted == 0 && batch.editCount == 0) {
+            return;
+        }
+
+        // every element entering the list must be new to it, unless it is
+        // leaving its old position in the same batch
+        final ElementIndex<Object> incoming = new ElementIndex<>(numInserted + batch.editCount);
+        int numRemoved = 0;
+        for (int i = 0; i < numInserted; i++) {
+            checkIncoming(incoming, batch.inserted[i], edited);
+        }
+        if (edited != null) {
+            for (int i = 0; i < size; i++) {
+                if (!edited[i]) {
+                    continue;
+                }
+                if (replacements[i] == REMOVED) {
+                    numRemoved++;
+                } else {
+                    checkIncoming(incoming, replacements[i], edited);
+                }
+            }
+        }
+
+        // stable counting sort of the inserts by the index they go before
+        final int[] start = new int[size + 2];
+        for (int i = 0; i < numInserted; i++) {
+            start[batch.insertAt[i] + 1]++;
+        }
+        for (int i = 1; i < start.length; i++) {
+            start[i] += start[i - 1];
+        }
+        final Object[] sorted = new Object[numInserted];
+        for (int i = 0; i < numInserted; i++) {
+            sorted[start[batch.insertAt[i]]++] = batch.inserted[i];
+        }
+        // start[i] is now one past the last insert before index i
+
+        final int newSize = size - numRemoved + numInserted;
+        ensureStampsAfter(Math.max(newSize - size, 0));
+        final int first = batch.firstChange;
+        if (edited != null) {
+            for (int i = first; i < size; i++) {
+                if (edited[i]) {
+                    elementMap.remove(elementData(i));
+                }
+            }
+        }
+
+        final ChangeLog log = listeners == null ? null : new ChangeLog();
+        final Object[] rebuilt = new Object[grownCapacity(elementData.length, newSize)];
+        copyTo(rebuilt);
+        int w = first;
+        int next = first == 0 ? 0 : start[first - 1];
+        for (int i = first; i <= size; i++) {
+            while (next < start[i]) {
+                if (log != null) {
+                    log.add(SetListChange.Type.INSERT, w, elementAt(sorted, next));
+                }
+                rebuilt[w++] = sorted[next++];
+            }
+            if (i == size) {
+                break;
+            }
+            if (edited == null || !edited[i]) {
+                rebuilt[w++] = elementData(i);
+            } else if (replacements[i] != REMOVED) {
+                if (log != null) {
+                    log.add(SetListChange.Type.SET, w, elementAt(replacements, i));
+                }
+                rebuilt[w++] = replacements[i];
+            } else if (log != null) {
+                log.add(SetListChange.Type.REMOVE, w, elementData(i));
+            }
+        }
+        Arrays.fill(rebuilt, newSize, Math.max(size, newSize), null);
+
+        elementData = rebuilt;
+        head = 0;
+        size = newSize;
+        for (int i = first; i < newSize; i++) {
+            elementMap.put(elementData(i), base + i);
+        }
+        countShifts(newSize - first);
+        modCount++;
+        if (log != null) {
+            log.fire();
+        }
+    }
+
+    /**
+     * Claims {@code e} as an element entering the list in a batch.
+     *
+     * @throws DuplicateElementException if it is already entering, or is
+     *                                   already present and not being removed
+     */
+    private void checkIncoming(final ElementIndex<Object> incoming, final Object e, final boolean[] edited) {
+        countLookups(1);
+        if (incoming.putIfAbsent(e, 0) >= 0) {
+            throw duplicate();
+        }
+        final int stamp = elementMap.get(e);
+        if (stamp >= 0 && (edited == null || !edited[stamp - base])) {
+            throw duplicate();
+        }
+    }
+
+    private void fire(final SetListChange<E> change) {
+        notifyListeners(Collections.singletonList(change));
+    }
+
+    private void notifyListeners(final List<SetListChange<E>> changes) {
+        final List<SetListChange<E>> batch = Collections.unmodifiableList(changes);
+        for (final SetListListener<E> listener : listeners) {
+            listener.onChanges(batch);
+        }
+    }
+
+    /** @return a copy of the elements from {@code from}, inclusive, to {@code to}, exclusive */
+    private List<E> range(final int from, final int to) {
+        final List<E> copy = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            copy.add(elementData(i));
+        }
+        return copy;
+    }
+
+    private void countShifts(final int n) {
+        if (counters != null) {
+            counters.shifts += n;
+        }
+    }
+
+    private void countLookups(final int n) {
+        if (counters != null) {
+            counters.lookups += n;
+        }
+    }
+
+    /** @return the exception to throw for a duplicate, counting it */
+    private DuplicateElementException duplicate() {
+        if (counters != null) {
+            counters.duplicateRejections++;
+        }
+        return new DuplicateElementException();
+    }
+
+    /** @return the approximate size of an array, with header and padding */
+    private static long arrayBytes(final int length, final int elementBytes) {
+        return (ARRAY_HEADER_BYTES + (long) length * elementBytes + 7) & ~7L;
+    }
+
+    /**
+     * Moves the element at logical position {@code from} to logical position
+     * {@code to} and renumbers it. Does not clear the old slot.
+     */
+    private void moveElement(final int from, final int to) {
+        final E e = elementData(from);
+        elementData[physical(to)] = e;
+        elementMap.put(e, base + to);
+    }
+
+    /**
+     * Grows the backing array, if necessary, so that it can hold at least
+     * {@code minCapacity} elements. Grows by half again the current capacity, as
+     * {@link java.util.ArrayList} does, so that appends run in amortized O(1).
+     * 
+     * @param minCapacity the desired minimum capacity
+     */
+    private void ensureCapacity(final int minCapacity) {
+        final int oldCapacity = elementData.length;
+        if (minCapacity <= oldCapacity) {
+            return;
+        }
+
+        final Object[] grown = new Object[grownCapacity(oldCapacity, minCapacity)];
+        copyTo(grown);
+        elementData = grown;
+        head = 0;
+    }
+
+    /**
+     * @return {@code oldCapacity} if it holds {@code minCapacity} elements,
+     *         otherwise the capacity to grow to
+     */
+    private static int grownCapacity(final int oldCapacity, final int minCapacity) {
+        if (minCapacity <= oldCapacity) {
+            return oldCapacity;
+        }
+
+        final int newCapacity = Math.max(oldCapacity + (oldCapacity >> 1), DEFAULT_CAPACITY);
+        return newCapacity < minCapacity || newCapacity < 0 ? minCapacity : newCapacity;
+    }
+
+    /**
+     * Rotates the backing array, if necessary, so that the first element is in
+     * slot 0 and the elements occupy one contiguous run.
+     */
+    private void linearize() {
+        if (head == 0) {
+            return;
+        }
+
+        final Object[] straight = new Object[elementData.length];
+        copyTo(straight);
+        elementData = straight;
+        head = 0;
+    }
+
+    /**
+     * Copies the elements, in order, to the start of {@code dest}. At most two
+     * {@code arraycopy}s are needed, one for each side of the wraparound.
+     */
+    private void copyTo(final Object[] dest) {
+        final int firstRun = Math.min(size, elementData.length - head);
+        System.arraycopy(elementData, head, dest, 0, firstRun);
+        System.arraycopy(elementData, 0, dest, firstRun, size - firstRun);
+    }
+
+    /**
+     * Makes room to stamp one more element before the first, so that
+     * {@code base - 1} is still non-negative.
+     */
+    private void ensureStampsBefore() {
+        if (base == 0) {
+            rebase((Integer.MAX_VALUE - size) / 2);
         }
+    }
+
+    /**
+     * Makes room to stamp {@code count} more elements after the last, so that
+     * {@code base + size + count - 1} does not overflow.
+     */
+    private void ensureStampsAfter(final int count) {
+        if (base > Integer.MAX_VALUE - size - count) {
+            rebase((Integer.MAX_VALUE - size - count) / 2);
+        }
+    }
 
-        if (index < size()) {
-            for (int i = size(); i > index; i--) {
-                final E val = get(i - 1);
-                elementMap.put(val, i);
-                indexMap.put(i, val);
+    /**
+     * Renumbers every entry of the element map so that stamps start from
+     * {@code newBase}. This is the only O(n) step behind the deque operations,
+     * and it recentres the stamps so that it cannot recur for about a billion
+     * operations at either end.
+     */
+    private void rebase(final int newBase) {
+        countShifts(size);
+        base = newBase;
+        for (int i = 0; i < size; i++) {
+            elementMap.put(elementData(i), newBase + i);
+        }
+    }
+
+    /**
+     * @return the slot in the backing array holding logical position
+     *         {@code index}. Caller must ensure {@code 0 <= index <= capacity}.
+     */
+    private int physical(final int index) {
+        final int i = head + index;
+        return i < elementData.length ? i : i - elementData.length;
+    }
+
+    /**
+     * Unchecked read of the backing array. Caller must ensure the index is valid.
+     */
+    private E elementData(final int index) {
+        return elementAt(elementData, physical(index));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E elementAt(final Object[] es, final int index) {
+        return (E) es[index];
+    }
+
+    /**
+     * Removes every element whose position satisfies {@code doomed}, sliding the
+     * survivors down and renumbering them as it goes. Each position is tested
+     * exactly once, in ascending order, and all tests happen before anything is
+     * modified, so a predicate that throws leaves this SetList unchanged.
+     * 
+     * @return {@code true} if anything was removed
+     */
+    private boolean removeMarked(final IntPredicate doomed) {
+        int first = 0;
+        while (first < size && !doomed.test(first)) {
+            first++;
+        }
+        if (first == size) {
+            return false;
+        }
+
+        final boolean[] marks = new boolean[size - first];
+        marks[0] = true;
+        for (int i = first + 1; i < size; i++) {
+            marks[i - first] = doomed.test(i);
+        }
+
+        final ChangeLog log = listeners == null ? null : new ChangeLog();
+        int w = first;
+        for (int r = first; r < size; r++) {
+            final E e = elementData(r);
+            if (marks[r - first]) {
+                elementMap.remove(e);
+                if (log != null) {
+                    log.add(SetListChange.Type.REMOVE, w, e);
+                }
+            } else {
+                elementData[physical(w)] = e;
+                elementMap.put(e, base + w);
+                w++;
             }
         }
 
-        elementMap.put(ele, index);
-        indexMap.put(index, ele);
+        for (int i = w; i < size; i++) {
+            elementData[physical(i)] = null;
+        }
+        countShifts(w - first);
+        size = w;
         modCount++;
+        if (log != null) {
+            log.fire();
+        }
+        return true;
+    }
+
+    /**
+     * @param index index to validate
+     * @throws IndexOutOfBoundsException if the index is out of range (index < 0 ||
+     *                                   index > size())
+     */
+    private void validateIndexForAdd(final int index) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size()));
+        }
     }
 
     /**
@@ -678,20 +2311,39 @@ public class SetList<E> extends AbstractList<E> implements Set<E> {
         }
     }
 
+    /**
+     * @throws IndexOutOfBoundsException if the index is out of range (index < 0 ||
+     *                                   index >= length)
+     */
+    private static void checkIndex(final int index, final int length) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, length));
+        }
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if an endpoint is out of range
+     * @throws IllegalArgumentException  if the endpoints are out of order
+     */
+    private static void checkSubListRange(final int fromIndex, final int toIndex, final int size) {
+        if (fromIndex < 0 || toIndex > size) {
+            throw new IndexOutOfBoundsException(
+                    String.format("fromIndex: %d, toIndex: %d, Size: %d", fromIndex, toIndex, size));
+        }
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException(String.format("fromIndex(%d) > toIndex(%d)", fromIndex, toIndex));
+        }
+    }
+
     // void dataStructureInvariants() {
-    // assert elementMap.size() == indexMap.size();
     // assert elementMap.size() == size();
-    // assert indexMap.size() == size();
-    // assert indexMap.keySet().stream().allMatch((Integer idx) -> {
-    // E ele = indexMap.get(idx);
-    // return elementMap.containsKey(indexMap.get(idx)) &&
-    // elementMap.get(ele).equals(idx);
-    // });
-    // assert elementMap.keySet().stream().allMatch((E ele) -> {
-    // int idx = elementMap.get(ele);
-    // return indexMap.containsKey(idx) && elementMap.get(ele).equals(idx) && idx ==
-    // indexOf(ele);
-    // });
+    // assert base >= 0 && base <= Integer.MAX_VALUE - size;
+    // for (int i = 0; i < size; i++) {
+    // assert elementMap.get(elementData(i)) == base + i;
+    // }
+    // for (int i = size; i < elementData.length; i++) {
+    // assert elementData[physical(i)] == null;
+    // }
     // }
 
 }
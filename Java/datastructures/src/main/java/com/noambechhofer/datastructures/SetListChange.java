@@ -0,0 +1,111 @@
+package com.noambechhofer.datastructures;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * One change to a {@link SetList}, as delivered to a {@link SetListListener}.
+ * A change covers a run of consecutive positions, so a bulk operation is
+ * reported as a handful of changes rather than one per element.
+ *
+ * @param <E> the type of elements
+ */
+public final class SetListChange<E> {
+    /** The kind of change */
+    public enum Type {
+        /** {@link #getElements()} were inserted starting at {@link #getIndex()} */
+        INSERT,
+        /** {@link #getElements()} were removed starting at {@link #getIndex()} */
+        REMOVE,
+        /** The elements starting at {@link #getIndex()} were replaced by {@link #getElements()} */
+        SET,
+        /** All {@link #getCount()} elements were removed */
+        CLEAR
+    }
+
+    private final Type type;
+    private final int index;
+    private final int count;
+    private final List<E> elements;
+
+    SetListChange(final Type type, final int index, final int count, final List<E> elements) {
+        this.type = type;
+        this.index = index;
+        this.count = count;
+        this.elements = elements;
+    }
+
+    /** @return the kind of change */
+    public Type getType() {
+        return type;
+    }
+
+    /** @return the position of the first element affected; 0 for {@link Type#CLEAR} */
+    public int getIndex() {
+        return index;
+    }
+
+    /** @return the number of positions affected */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return an unmodifiable list of the elements inserted, removed or stored
+     *         by this change; empty for {@link Type#CLEAR}
+     */
+    public List<E> getElements() {
+        return elements;
+    }
+
+    /**
+     * Makes the same change to another list.
+     * <p>
+     * A {@link Type#SET} is applied through a {@link ListIterator}, so a
+     * {@link SetList} replica accepts the intermediate duplicates that a batch of
+     * sets such as a sort passes through.
+     *
+     * @param target the list to change
+     * @throws IndexOutOfBoundsException if the target is too short, which means
+     *                                   it was not in step with the SetList
+     */
+    public void applyTo(final List<? super E> target) {
+        switch (type) {
+            case INSERT:
+                target.addAll(index, elements);
+                break;
+            case REMOVE:
+                target.subList(index, index + count).clear();
+                break;
+            case SET:
+                final ListIterator<? super E> it = target.listIterator(index);
+                for (final E e : elements) {
+                    it.next();
+                    it.set(e);
+                }
+                break;
+            case CLEAR:
+                target.clear();
+                break;
+            default:
+                throw new AssertionError(type);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return type == Type.CLEAR
+                ? String.format("CLEAR(%d)", count)
+                : String.format("%s(%d, %s)", type, index, elements);
+    }
+
+    /** @return a change with the given elements, which the caller must not keep */
+    static <E> SetListChange<E> of(final Type type, final int index, final List<E> elements) {
+        return new SetListChange<>(type, index, elements.size(), Collections.unmodifiableList(elements));
+    }
+
+    static <E> SetListChange<E> clear(final int count) {
+        return new SetListChange<>(Type.CLEAR, 0, count, Collections.emptyList());
+    }
+}
@@ -0,0 +1,29 @@
+package com.noambechhofer.datastructures;
+
+import java.util.List;
+
+/**
+ * Receives the changes made to a {@link SetList}, registered with
+ * {@link SetList#addListener(SetListListener)}.
+ * <p>
+ * Each mutating call on the SetList, or on one of its iterators or views,
+ * delivers one batch once the SetList is consistent again. Applying the
+ * changes of every batch in order, with {@link SetListChange#applyTo(List)},
+ * turns a copy of the SetList's earlier contents into a copy of its current
+ * contents, so a replica can be kept in sync in time proportional to the
+ * changes rather than to the size of the SetList.
+ *
+ * @param <E> the type of elements
+ */
+@FunctionalInterface
+public interface SetListListener<E> {
+    /**
+     * Called on the thread that modified the SetList, after the modification.
+     * The listener must not modify the SetList.
+     *
+     * @param changes the changes, in the order they must be applied. Each
+     *                index refers to the list as it stands after the changes
+     *                before it.
+     */
+    void onChanges(List<SetListChange<E>> changes);
+}
@@ -0,0 +1,107 @@
+package com.noambechhofer.datastructures;
+
+/**
+ * A point-in-time report of what a {@link SetList} costs, returned by
+ * {@link SetList#stats()}.
+ * <p>
+ * The structural figures (sizes, capacities, load factor and probe lengths)
+ * are measured when the report is taken. The counters only advance while
+ * {@link SetList#setStatsEnabled(boolean) stats are enabled}, and read 0
+ * otherwise.
+ */
+public final class SetListStats {
+    private final int size;
+    private final int capacity;
+    private final long estimatedRetainedBytes;
+    private final int indexCapacity;
+    private final double averageProbeLength;
+    private final int maxProbeLength;
+    private final long shifts;
+    private final long lookups;
+    private final long duplicateRejections;
+
+    SetListStats(final int size, final int capacity, final long estimatedRetainedBytes, final int indexCapacity,
+            final double averageProbeLength, final int maxProbeLength, final long shifts, final long lookups,
+            final long duplicateRejections) {
+        this.size = size;
+        this.capacity = capacity;
+        this.estimatedRetainedBytes = estimatedRetainedBytes;
+        this.indexCapacity = indexCapacity;
+        this.averageProbeLength = averageProbeLength;
+        this.maxProbeLength = maxProbeLength;
+        this.shifts = shifts;
+        this.lookups = lookups;
+        this.duplicateRejections = duplicateRejections;
+    }
+
+    /** @return the number of elements */
+    public int getSize() {
+        return size;
+    }
+
+    /** @return the number of elements the backing array can hold before it grows */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return an estimate of the bytes held by the list itself: the backing
+     *         array and the element index, assuming compressed references. The
+     *         elements are not included, since they may be shared.
+     */
+    public long getEstimatedRetainedBytes() {
+        return estimatedRetainedBytes;
+    }
+
+    /** @return the number of slots in the element index */
+    public int getIndexCapacity() {
+        return indexCapacity;
+    }
+
+    /** @return the fraction of the element index's slots that are in use */
+    public double getIndexLoadFactor() {
+        return indexCapacity == 0 ? 0 : (double) size / indexCapacity;
+    }
+
+    /**
+     * @return the mean number of slots a successful lookup examines in the
+     *         element index; 1 is ideal, and 0 means the list is empty
+     */
+    public double getAverageProbeLength() {
+        return averageProbeLength;
+    }
+
+    /** @return the most slots any successful lookup examines */
+    public int getMaxProbeLength() {
+        return maxProbeLength;
+    }
+
+    /**
+     * @return the number of elements moved and renumbered to make or close a gap
+     *         by positional inserts and removals. A count that grows with the
+     *         square of the size points at an O(n) insertion pattern.
+     */
+    public long getShifts() {
+        return shifts;
+    }
+
+    /** @return the number of times an element was looked up in the element index */
+    public long getLookups() {
+        return lookups;
+    }
+
+    /** @return the number of {@code DuplicateElementException}s thrown */
+    public long getDuplicateRejections() {
+        return duplicateRejections;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "SetListStats[size=%d, capacity=%d, estimatedRetainedBytes=%d, indexCapacity=%d, "
+                        + "indexLoadFactor=%.3f, averageProbeLength=%.3f, maxProbeLength=%d, shifts=%d, "
+                        + "lookups=%d, duplicateRejections=%d]",
+                size, capacity, estimatedRetainedBytes, indexCapacity, getIndexLoadFactor(), averageProbeLength,
+                maxProbeLength, shifts, lookups, duplicateRejections);
+    }
+}
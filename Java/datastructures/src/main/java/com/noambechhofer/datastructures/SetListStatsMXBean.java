@@ -0,0 +1,43 @@
+package com.noambechhofer.datastructures;
+
+/**
+ * Management interface through which a {@link SetList} registered with
+ * {@link SetList#registerMBean(javax.management.ObjectName)} reports its
+ * {@link SetListStats}. The probe lengths are measured at most once a second
+ * and shared between reads; every other attribute is read directly and costs
+ * O(1).
+ */
+public interface SetListStatsMXBean {
+    /** @see SetListStats#getSize() */
+    int getSize();
+
+    /** @see SetListStats#getCapacity() */
+    int getCapacity();
+
+    /** @see SetListStats#getEstimatedRetainedBytes() */
+    long getEstimatedRetainedBytes();
+
+    /** @see SetListStats#getIndexCapacity() */
+    int getIndexCapacity();
+
+    /** @see SetListStats#getIndexLoadFactor() */
+    double getIndexLoadFactor();
+
+    /** @see SetListStats#getAverageProbeLength() */
+    double getAverageProbeLength();
+
+    /** @see SetListStats#getMaxProbeLength() */
+    int getMaxProbeLength();
+
+    /** @see SetListStats#getShifts() */
+    long getShifts();
+
+    /** @see SetListStats#getLookups() */
+    long getLookups();
+
+    /** @see SetListStats#getDuplicateRejections() */
+    long getDuplicateRejections();
+
+    /** Zeroes the shift, lookup and duplicate counters. */
+    void resetCounters();
+}
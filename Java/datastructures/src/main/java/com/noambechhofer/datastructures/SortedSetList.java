@@ -0,0 +1,1082 @@
+package com.noambechhofer.datastructures;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * A union of the {@link Set} and {@link List} interfaces: a set of distinct
+ * elements kept in their natural order, which can also be indexed by rank.
+ * Where a {@link SetList} keeps elements in the order they were placed, this
+ * keeps them sorted, so the index of an element is the number of elements
+ * smaller than it.
+ * <p>
+ * Elements live in an AVL tree ordered by value in which every node records
+ * the size of its subtree. {@link #add(Comparable)}, {@link #remove(Object)},
+ * {@link #contains(Object)}, {@link #get(int)}, {@link #indexOf(Object)} and
+ * the navigation methods ({@link #ceiling}, {@link #floor} and so on) all run
+ * in O(log n). Building from a collection that is already sorted and distinct
+ * runs in O(n); any other collection is sorted first.
+ * <p>
+ * Since positions follow from values, {@link #add(int, Comparable)} and
+ * {@link #set(int, Comparable)} are unsupported. {@code null} is not
+ * permitted. The views returned by {@link #subSet}, {@link #headSet},
+ * {@link #tailSet}, {@link #descendingSet()} and {@link #asNavigableSet()} are
+ * backed by this list.
+ * <p>
+ * This class has the methods of a {@link NavigableSet} but does not implement
+ * it, because from Java 21 on {@code NavigableSet.reversed()} and
+ * {@code List.reversed()} cannot both be inherited. Use
+ * {@link #asNavigableSet()} where a {@code NavigableSet} is needed.
+ *
+ * @param <E> the type of elements, which must be mutually comparable
+ */
+@SuppressWarnings("java:S2160")
+/*
+ * SuppressWarnings justification:
+ * equals() and hashCode() are already implemented by AbstractList. See
+ * SetList.
+ */
+public class SortedSetList<E extends Comparable<E>> extends AbstractList<E> implements Set<E>, RandomAccess {
+    private static final class Node<E> {
+        final E element;
+        Node<E> left;
+        Node<E> right;
+        /** number of nodes in the subtree rooted at this node */
+        int size;
+        int height;
+
+        Node(final E element) {
+            this.element = element;
+            this.size = 1;
+            this.height = 1;
+        }
+    }
+
+    /**
+     * Walks the tree in order over the index range [cursor, end), keeping the
+     * path to the next node on a stack, so a full iteration costs O(n).
+     */
+    private class Itr implements Iterator<E> {
+        private final ArrayDeque<Node<E>> path = new ArrayDeque<>();
+        private int cursor;
+        private int end;
+        private boolean canRemove;
+        private int expectedModCount = modCount;
+
+        Itr(final int from, final int end) {
+            this.cursor = from;
+            this.end = end;
+            seek(from);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < end;
+        }
+
+        @Override
+        public E next() {
+            checkForComodification();
+            if (cursor >= end) {
+                throw new NoSuchElementException();
+            }
+
+            final Node<E> node = path.pop();
+            for (Node<E> n = node.right; n != null; n = n.left) {
+                path.push(n);
+            }
+            cursor++;
+            canRemove = true;
+            return node.element;
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+
+            SortedSetList.this.remove(--cursor);
+            end--;
+            canRemove = false;
+            expectedModCount = modCount;
+            seek(cursor);
+        }
+
+        /** Stacks the path to the node at {@code index}. */
+        private void seek(int index) {
+            path.clear();
+            Node<E> node = root;
+            while (node != null) {
+                final int leftSize = size(node.left);
+                if (index <= leftSize) {
+                    path.push(node);
+                    node = node.left;
+                } else {
+                    index -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /** Iterates the index range [from, end) backwards, by rank. */
+    private class DescendingItr implements Iterator<E> {
+        private final int from;
+        private int cursor;
+        private int lastRet = -1;
+        private int expectedModCount = modCount;
+
+        DescendingItr(final int from, final int end) {
+            this.from = from;
+            this.cursor = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor > from;
+        }
+
+        @Override
+        public E next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (cursor <= from) {
+                throw new NoSuchElementException();
+            }
+
+            lastRet = --cursor;
+            return nodeAt(lastRet).element;
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            SortedSetList.this.remove(lastRet);
+            lastRet = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * A view of the elements between two optional bounds, in ascending or
+     * descending order. Bounds are always held in ascending terms.
+     */
+    private final class SubSet extends AbstractSet<E> implements NavigableSet<E> {
+        /** lower bound, or {@code null} if unbounded */
+        private final E lo;
+        private final boolean loInclusive;
+        /** upper bound, or {@code null} if unbounded */
+        private final E hi;
+        private final boolean hiInclusive;
+        private final boolean descending;
+
+        SubSet(final E lo, final boolean loInclusive, final E hi, final boolean hiInclusive,
+                final boolean descending) {
+            if (lo != null && hi != null && lo.compareTo(hi) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        private boolean tooLow(final E e) {
+            if (lo == null) {
+                return false;
+            }
+            final int c = e.compareTo(lo);
+            return c < 0 || (c == 0 && !loInclusive);
+        }
+
+        private boolean tooHigh(final E e) {
+            if (hi == null) {
+                return false;
+            }
+            final int c = e.compareTo(hi);
+            return c > 0 || (c == 0 && !hiInclusive);
+        }
+
+        private boolean inRange(final E e) {
+            return !tooLow(e) && !tooHigh(e);
+        }
+
+        /** @return whether {@code e} may bound a view of this view */
+        private boolean inRange(final E e, final boolean inclusive) {
+            if (inclusive) {
+                return inRange(e);
+            }
+            return (lo == null || e.compareTo(lo) >= 0) && (hi == null || e.compareTo(hi) <= 0);
+        }
+
+        /** @return the rank of the first element in range */
+        private int fromIndex() {
+            return lo == null ? 0 : countBelow(lo, !loInclusive);
+        }
+
+        /** @return one past the rank of the last element in range */
+        private int toIndex() {
+            return hi == null ? SortedSetList.this.size() : countBelow(hi, hiInclusive);
+        }
+
+        private E lowest() {
+            final E e = lo == null ? peekFirst() : loInclusive ? SortedSetList.this.ceiling(lo)
+                    : SortedSetList.this.higher(lo);
+            return e == null || tooHigh(e) ? null : e;
+        }
+
+        private E highest() {
+            final E e = hi == null ? peekLast() : hiInclusive ? SortedSetList.this.floor(hi)
+                    : SortedSetList.this.lower(hi);
+            return e == null || tooLow(e) ? null : e;
+        }
+
+        private E ceilingAscending(final E e) {
+            if (tooLow(e)) {
+                return lowest();
+            }
+            final E r = SortedSetList.this.ceiling(e);
+            return r == null || tooHigh(r) ? null : r;
+        }
+
+        private E higherAscending(final E e) {
+            if (tooLow(e)) {
+                return lowest();
+            }
+            final E r = SortedSetList.this.higher(e);
+            return r == null || tooHigh(r) ? null : r;
+        }
+
+        private E floorAscending(final E e) {
+            if (tooHigh(e)) {
+                return highest();
+            }
+            final E r = SortedSetList.this.floor(e);
+            return r == null || tooLow(r) ? null : r;
+        }
+
+        private E lowerAscending(final E e) {
+            if (tooHigh(e)) {
+                return highest();
+            }
+            final E r = SortedSetList.this.lower(e);
+            return r == null || tooLow(r) ? null : r;
+        }
+
+        @Override
+        public int size() {
+            return Math.max(0, toIndex() - fromIndex());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(final Object o) {
+            return inRange((E) o) && SortedSetList.this.contains(o);
+        }
+
+        @Override
+        public boolean add(final E e) {
+            if (!inRange(e)) {
+                throw new IllegalArgumentException("element out of range");
+            }
+            return SortedSetList.this.add(e);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(final Object o) {
+            return inRange((E) o) && SortedSetList.this.remove(o);
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            final int from = fromIndex();
+            final int to = Math.max(from, toIndex());
+            return descending ? new DescendingItr(from, to) : new Itr(from, to);
+        }
+
+        @Override
+        public Iterator<E> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public E lower(final E e) {
+            return descending ? higherAscending(e) : lowerAscending(e);
+        }
+
+        @Override
+        public E floor(final E e) {
+            return descending ? ceilingAscending(e) : floorAscending(e);
+        }
+
+        @Override
+        public E ceiling(final E e) {
+            return descending ? floorAscending(e) : ceilingAscending(e);
+        }
+
+        @Override
+        public E higher(final E e) {
+            return descending ? lowerAscending(e) : higherAscending(e);
+        }
+
+        @Override
+        public E pollFirst() {
+            final E e = descending ? highest() : lowest();
+            if (e != null) {
+                SortedSetList.this.remove(e);
+            }
+            return e;
+        }
+
+        @Override
+        public E pollLast() {
+            final E e = descending ? lowest() : highest();
+            if (e != null) {
+                SortedSetList.this.remove(e);
+            }
+            return e;
+        }
+
+        @Override
+        public E first() {
+            final E e = descending ? highest() : lowest();
+            if (e == null) {
+                throw new NoSuchElementException();
+            }
+            return e;
+        }
+
+        @Override
+        public E last() {
+            final E e = descending ? lowest() : highest();
+            if (e == null) {
+                throw new NoSuchElementException();
+            }
+            return e;
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            return descending ? Collections.reverseOrder() : null;
+        }
+
+        @Override
+        public NavigableSet<E> descendingSet() {
+            return new SubSet(lo, loInclusive, hi, hiInclusive, !descending);
+        }
+
+        @Override
+        public NavigableSet<E> subSet(final E fromElement, final boolean fromInclusive, final E toElement,
+                final boolean toInclusive) {
+            checkBound(fromElement, fromInclusive);
+            checkBound(toElement, toInclusive);
+            if (descending) {
+                return new SubSet(toElement, toInclusive, fromElement, fromInclusive, true);
+            }
+            return new SubSet(fromElement, fromInclusive, toElement, toInclusive, false);
+        }
+
+        @Override
+        public NavigableSet<E> headSet(final E toElement, final boolean inclusive) {
+            checkBound(toElement, inclusive);
+            return descending ? new SubSet(toElement, inclusive, hi, hiInclusive, true)
+                    : new SubSet(lo, loInclusive, toElement, inclusive, false);
+        }
+
+        @Override
+        public NavigableSet<E> tailSet(final E fromElement, final boolean inclusive) {
+            checkBound(fromElement, inclusive);
+            return descending ? new SubSet(lo, loInclusive, fromElement, inclusive, true)
+                    : new SubSet(fromElement, inclusive, hi, hiInclusive, false);
+        }
+
+        @Override
+        public SortedSet<E> subSet(final E fromElement, final E toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> headSet(final E toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> tailSet(final E fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        /** Rejects a bound for a narrower view that would reach outside this one. */
+        private void checkBound(final E bound, final boolean inclusive) {
+            if (!inRange(Objects.requireNonNull(bound), inclusive)) {
+                throw new IllegalArgumentException("bound out of range");
+            }
+        }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            return Spliterators.spliterator(this, Spliterator.DISTINCT | Spliterator.ORDERED
+                    | Spliterator.NONNULL | (descending ? 0 : Spliterator.SORTED));
+        }
+    }
+
+    private Node<E> root;
+
+    /**
+     * Standard constructor.
+     */
+    public SortedSetList() {
+        // an empty tree
+    }
+
+    /**
+     * Constructs a list containing the distinct elements of the specified
+     * collection, in their natural order. If the collection already iterates
+     * in strictly increasing order, as a {@link SortedSet} with natural ordering
+     * or another {@code SortedSetList} does, the tree is built directly in
+     * O(n); otherwise the elements are sorted first, in O(n log n).
+     *
+     * @param c the collection whose elements are to be placed into this list
+     * @throws NullPointerException if the collection or any of its elements is
+     *                              null
+     * @throws ClassCastException   if the elements are not mutually comparable
+     */
+    public SortedSetList(final Collection<? extends E> c) {
+        addAll(c);
+    }
+
+    /**
+     * Returns the number of elements
+     *
+     * @return number of elements
+     */
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element. Runs in
+     * O(log n).
+     *
+     * @param o element whose presence in this list is to be tested
+     * @return {@code true} if this list contains the specified element.
+     * @throws ClassCastException   if the element cannot be compared with the
+     *                              elements of this list
+     * @throws NullPointerException if the element is null
+     */
+    @Override
+    public boolean contains(final Object o) {
+        return find(o) != null;
+    }
+
+    /**
+     * Returns an iterator over this list in ascending order.
+     *
+     * @return an iterator over this list in ascending order
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr(0, size());
+    }
+
+    /**
+     * Returns an iterator over this list in descending order.
+     *
+     * @return an iterator over this list in descending order
+     */
+    public Iterator<E> descendingIterator() {
+        return new DescendingItr(0, size());
+    }
+
+    /**
+     * Adds the specified element in its sorted position if it is not already
+     * present. Runs in O(log n).
+     * <p>
+     * As with {@link SetList#add(Object)}, insertion of a duplicate returns
+     * false.
+     *
+     * @param e element to be added
+     * @return true if the element was not already present
+     * @throws NullPointerException if the element is null
+     */
+    @Override
+    public boolean add(final E e) {
+        Objects.requireNonNull(e);
+        if (contains(e)) {
+            return false;
+        }
+
+        root = insert(root, e);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Adds all of the elements in the specified collection that are not already
+     * present. Into an empty list, this builds the tree in O(n) from a collection
+     * that iterates in strictly increasing order, and in O(n log n) otherwise.
+     *
+     * @param c collection containing elements to be added to this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws NullPointerException if the collection or any of its elements is
+     *                              null
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean addAll(final Collection<? extends E> c) {
+        if (root != null) {
+            boolean changed = false;
+            for (final E e : c) {
+                changed |= add(e);
+            }
+            return changed;
+        }
+
+        Object[] a = c.toArray();
+        if (a.length == 0) {
+            return false;
+        }
+        if (!strictlyIncreasing(a)) {
+            a = a.clone();
+            Arrays.sort(a);
+            a = distinct(a);
+        }
+        root = build(a, 0, a.length);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Unsupported: an element's position follows from its value.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(final int index, final E element) {
+        throw new UnsupportedOperationException("elements are kept in sorted order");
+    }
+
+    /**
+     * Unsupported: an element's position follows from its value.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public E set(final int index, final E element) {
+        throw new UnsupportedOperationException("elements are kept in sorted order");
+    }
+
+    /**
+     * Unsupported: this list is always sorted by natural ordering.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void sort(final Comparator<? super E> c) {
+        throw new UnsupportedOperationException("elements are kept in sorted order");
+    }
+
+    /**
+     * Removes the specified element from this list, if it is present. Runs in
+     * O(log n).
+     *
+     * @param o element to be removed from this list, if present
+     * @return {@code true} if this list contained the specified element
+     * @throws ClassCastException   if the element cannot be compared with the
+     *                              elements of this list
+     * @throws NullPointerException if the element is null
+     */
+    @Override
+    public boolean remove(final Object o) {
+        final Node<E> node = find(o);
+        if (node == null) {
+            return false;
+        }
+
+        root = delete(root, node.element);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes the element with the specified rank. Runs in O(log n).
+     *
+     * @param index the rank of the element to be removed
+     * @return the element previously at the specified rank
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    @Override
+    public E remove(final int index) {
+        final E e = get(index);
+        root = delete(root, e);
+        modCount++;
+        return e;
+    }
+
+    /**
+     * Removes all of the elements from this list.
+     */
+    @Override
+    public void clear() {
+        root = null;
+        modCount++;
+    }
+
+    /**
+     * Returns the element with the specified rank, i.e. the element that has
+     * exactly {@code index} smaller elements. Runs in O(log n).
+     *
+     * @param index rank of the element to return
+     * @return the element with the specified rank
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   {@code (index < 0 || index >= size())}
+     */
+    @Override
+    public E get(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size()));
+        }
+
+        return nodeAt(index).element;
+    }
+
+    /**
+     * Returns the rank of the specified element, or -1 if this list does not
+     * contain it. Runs in O(log n).
+     *
+     * @param o element to search for
+     * @return the number of elements smaller than {@code o}, or -1 if it is
+     *         absent
+     * @throws ClassCastException   if the element cannot be compared with the
+     *                              elements of this list
+     * @throws NullPointerException if the element is null
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public int indexOf(final Object o) {
+        final E e = (E) Objects.requireNonNull(o);
+        int rank = 0;
+        Node<E> node = root;
+        while (node != null) {
+            final int c = e.compareTo(node.element);
+            if (c < 0) {
+                node = node.left;
+            } else if (c > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Because this list does not allow duplicates, calling this method is
+     * exactly equivalent to calling {@link #indexOf(Object)}.
+     *
+     * @param o element to search for
+     * @return the rank of the element, or -1 if it is absent
+     */
+    @Override
+    public int lastIndexOf(final Object o) {
+        return indexOf(o);
+    }
+
+    /** @return the greatest element strictly less than {@code e}, or {@code null} */
+    public E lower(final E e) {
+        return below(e, false);
+    }
+
+    /** @return the greatest element less than or equal to {@code e}, or {@code null} */
+    public E floor(final E e) {
+        return below(e, true);
+    }
+
+    /** @return the least element greater than or equal to {@code e}, or {@code null} */
+    public E ceiling(final E e) {
+        return above(e, true);
+    }
+
+    /** @return the least element strictly greater than {@code e}, or {@code null} */
+    public E higher(final E e) {
+        return above(e, false);
+    }
+
+    /**
+     * Removes and returns the smallest element, or returns {@code null} if this
+     * list is empty.
+     */
+    public E pollFirst() {
+        return root == null ? null : remove(0);
+    }
+
+    /**
+     * Removes and returns the largest element, or returns {@code null} if this
+     * list is empty.
+     */
+    public E pollLast() {
+        return root == null ? null : remove(size() - 1);
+    }
+
+    /**
+     * @return the smallest element
+     * @throws NoSuchElementException if this list is empty
+     */
+    public E first() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        return peekFirst();
+    }
+
+    /**
+     * @return the largest element
+     * @throws NoSuchElementException if this list is empty
+     */
+    public E last() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        return peekLast();
+    }
+
+    /** @return {@code null}, since elements are in their natural order */
+    public Comparator<? super E> comparator() {
+        return null;
+    }
+
+    public NavigableSet<E> descendingSet() {
+        return new SubSet(null, true, null, true, true);
+    }
+
+    /**
+     * Returns a view of this list as a {@link NavigableSet}, in ascending
+     * order. The view is backed by this list, so changes to either are seen in
+     * the other.
+     *
+     * @return a navigable set view of this list
+     */
+    public NavigableSet<E> asNavigableSet() {
+        return new SubSet(null, true, null, true, false);
+    }
+
+    public NavigableSet<E> subSet(final E fromElement, final boolean fromInclusive, final E toElement,
+            final boolean toInclusive) {
+        return new SubSet(Objects.requireNonNull(fromElement), fromInclusive, Objects.requireNonNull(toElement),
+                toInclusive, false);
+    }
+
+    public NavigableSet<E> headSet(final E toElement, final boolean inclusive) {
+        return new SubSet(null, true, Objects.requireNonNull(toElement), inclusive, false);
+    }
+
+    public NavigableSet<E> tailSet(final E fromElement, final boolean inclusive) {
+        return new SubSet(Objects.requireNonNull(fromElement), inclusive, null, true, false);
+    }
+
+    public SortedSet<E> subSet(final E fromElement, final E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    public SortedSet<E> headSet(final E toElement) {
+        return headSet(toElement, false);
+    }
+
+    public SortedSet<E> tailSet(final E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    /**
+     * Creates a Spliterator over the elements in this list.
+     * <p>
+     * The Spliterator reports Spliterator.SIZED, Spliterator.ORDERED,
+     * Spliterator.SORTED, Spliterator.DISTINCT and Spliterator.NONNULL.
+     *
+     * @return a Spliterator over the elements in this list
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(this,
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    private E peekFirst() {
+        Node<E> node = root;
+        if (node == null) {
+            return null;
+        }
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node.element;
+    }
+
+    private E peekLast() {
+        Node<E> node = root;
+        if (node == null) {
+            return null;
+        }
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node.element;
+    }
+
+    /** @return the greatest element below {@code e}, or equal if {@code inclusive} */
+    private E below(final E e, final boolean inclusive) {
+        Objects.requireNonNull(e);
+        E best = null;
+        Node<E> node = root;
+        while (node != null) {
+            final int c = e.compareTo(node.element);
+            if (c > 0 || (c == 0 && inclusive)) {
+                best = node.element;
+                if (c == 0) {
+                    break;
+                }
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return best;
+    }
+
+    /** @return the least element above {@code e}, or equal if {@code inclusive} */
+    private E above(final E e, final boolean inclusive) {
+        Objects.requireNonNull(e);
+        E best = null;
+        Node<E> node = root;
+        while (node != null) {
+            final int c = e.compareTo(node.element);
+            if (c < 0 || (c == 0 && inclusive)) {
+                best = node.element;
+                if (c == 0) {
+                    break;
+                }
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the number of elements less than {@code e}, or less than or equal
+     *         to it if {@code inclusive}
+     */
+    private int countBelow(final E e, final boolean inclusive) {
+        int count = 0;
+        Node<E> node = root;
+        while (node != null) {
+            final int c = e.compareTo(node.element);
+            if (c > 0 || (c == 0 && inclusive)) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<E> find(final Object o) {
+        final E e = (E) Objects.requireNonNull(o);
+        Node<E> node = root;
+        while (node != null) {
+            final int c = e.compareTo(node.element);
+            if (c == 0) {
+                return node;
+            }
+            node = c < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /** Caller must ensure the index is valid. */
+    private Node<E> nodeAt(int index) {
+        Node<E> node = root;
+        while (true) {
+            final int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    /** Caller must ensure {@code e} is absent. */
+    private static <E extends Comparable<E>> Node<E> insert(final Node<E> node, final E e) {
+        if (node == null) {
+            return new Node<>(e);
+        }
+
+        if (e.compareTo(node.element) < 0) {
+            node.left = insert(node.left, e);
+        } else {
+            node.right = insert(node.right, e);
+        }
+        return rebalance(node);
+    }
+
+    /** Caller must ensure {@code e} is present. */
+    private static <E extends Comparable<E>> Node<E> delete(final Node<E> node, final E e) {
+        final int c = e.compareTo(node.element);
+        if (c < 0) {
+            node.left = delete(node.left, e);
+            return rebalance(node);
+        } else if (c > 0) {
+            node.right = delete(node.right, e);
+            return rebalance(node);
+        }
+
+        if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        }
+
+        // nodes are immutable in their element, so splice the successor in
+        Node<E> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        successor.right = removeMin(node.right);
+        successor.left = node.left;
+        return rebalance(successor);
+    }
+
+    private static <E> Node<E> removeMin(final Node<E> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    /** Builds a perfectly balanced tree over a sorted, distinct range of {@code a}. */
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E> build(final Object[] a, final int from, final int to) {
+        if (from >= to) {
+            return null;
+        }
+
+        final int mid = (from + to) >>> 1;
+        final Node<E> node = new Node<>((E) Objects.requireNonNull(a[mid]));
+        node.left = build(a, from, mid);
+        node.right = build(a, mid + 1, to);
+        update(node);
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean strictlyIncreasing(final Object[] a) {
+        for (int i = 1; i < a.length; i++) {
+            if (((Comparable<Object>) Objects.requireNonNull(a[i - 1])).compareTo(a[i]) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** @return the sorted array {@code a} without repeats */
+    @SuppressWarnings("unchecked")
+    private static Object[] distinct(final Object[] a) {
+        int w = 1;
+        for (int r = 1; r < a.length; r++) {
+            if (((Comparable<Object>) a[w - 1]).compareTo(a[r]) != 0) {
+                a[w++] = a[r];
+            }
+        }
+        return Arrays.copyOf(a, w);
+    }
+
+    private static int size(final Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(final Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(final Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    private static <E> Node<E> rebalance(final Node<E> node) {
+        update(node);
+        final int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        } else if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static <E> Node<E> rotateLeft(final Node<E> node) {
+        final Node<E> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static <E> Node<E> rotateRight(final Node<E> node) {
+        final Node<E> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
@@ -8,13 +8,61 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.lang.reflect.Array;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.junit.jupiter.api.Test;
 
+import com.noambechhofer.datastructures.SetList;
+
 class SortTest {
+    /** Compares by key only, so that sequence numbers reveal whether a sort is stable */
+    private static final class Keyed implements Comparable<Keyed> {
+        /** Calls to compareTo, for checking that adaptive sorts adapt */
+        static long comparisons;
+
+        final int key;
+        final int seq;
+
+        Keyed(int key, int seq) {
+            this.key = key;
+            this.seq = seq;
+        }
+
+        @Override
+        public int compareTo(Keyed o) {
+            comparisons++;
+            return Integer.compare(key, o.key);
+        }
+
+        @Override
+        public String toString() {
+            return key + "#" + seq;
+        }
+    }
+
+    /** @return n elements with keys drawn from [0, keys), numbered in order */
+    private static Keyed[] randomKeyed(Random rn, int n, int keys) {
+        Keyed[] arr = new Keyed[n];
+        for (int i = 0; i < n; i++) {
+            arr[i] = new Keyed(rn.nextInt(keys), i);
+        }
+        return arr;
+    }
+
+    /** Asserts that arr holds exactly the stably sorted contents of original */
+    private static void assertStablySorted(Keyed[] original, Keyed[] arr) {
+        Keyed[] expected = original.clone();
+        // Arrays.sort on objects is a stable merge sort
+        Arrays.sort(expected);
+        assertArrayEquals(expected, arr);
+    }
+
     private static <E extends Comparable<E>> boolean isSorted(E[] arr) {
         for (int i = 0; i < arr.length - 1; i++) {
             if (arr[i].compareTo(arr[i + 1]) > 0) {
@@ -172,6 +220,15 @@ class SortTest {
         for (var list : lists) {
             testListSortForCorrectness(list, Sort::binaryInsertionSort);
         }
+
+        // written back as a permutation, which a SetList accepts
+        SetList<Integer> setList = new SetList<>();
+        setList.addAll(List.of(5, 3, 9, 1, 7));
+        Sort.binaryInsertionSort(setList);
+        assertIterableEquals(List.of(1, 3, 5, 7, 9), setList);
+        Sort.insertionSort(setList, Comparator.reverseOrder());
+        assertIterableEquals(List.of(9, 7, 5, 3, 1), setList);
+        assertEquals(4, setList.indexOf(1));
     }
 
     @Test
@@ -183,6 +240,280 @@ class SortTest {
 
         assertArrayEquals(new Integer[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }, Sort.merge(a, b));
         assertIterableEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), Sort.merge(aList, bList));
+        assertIterableEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10),
+                Sort.merge(new LinkedList<>(bList), new LinkedList<>(aList)));
+        assertIterableEquals(aList, Sort.merge(aList, List.of()));
+        assertIterableEquals(bList, Sort.merge(List.of(), bList));
+        assertIterableEquals(List.of(1, 1, 2, 2), Sort.merge(List.of(1, 2), List.of(1, 2)));
+    }
+
+    @Test
+    void testMergeSort() {
+        for (var arr : getTestArrays()) {
+            testArraySortForCorrectness(arr, Sort::mergeSort);
+        }
+        for (var list : getTestList()) {
+            testListSortForCorrectness(list, Sort::mergeSort);
+        }
+
+        Random rn = new Random(20);
+        Keyed[] buffer = new Keyed[1000];
+        for (int n : new int[] { 31, 32, 33, 64, 65, 100, 1000 }) {
+            Keyed[] original = randomKeyed(rn, n, n / 4 + 1);
+            Keyed[] arr = original.clone();
+            Sort.mergeSort(arr, buffer);
+            assertStablySorted(original, arr);
+
+            arr = original.clone();
+            Sort.mergeSort(arr);
+            assertStablySorted(original, arr);
+
+            List<Keyed> list = new LinkedList<>(Arrays.asList(original));
+            Sort.mergeSort(list);
+            assertStablySorted(original, list.toArray(new Keyed[0]));
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Sort.mergeSort(randomKeyed(rn, 100, 10), new Keyed[99]));
+    }
+
+    @Test
+    void testParallelMergeSort() {
+        for (var arr : getTestArrays()) {
+            testArraySortForCorrectness(arr, Sort::parallelMergeSort);
+        }
+        for (var list : getTestList()) {
+            testListSortForCorrectness(list, Sort::parallelMergeSort);
+        }
+
+        Random rn = new Random(21);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int threshold : new int[] { 1, 2, 7, 100 }) {
+                Keyed[] original = randomKeyed(rn, 5000, 300);
+                Keyed[] arr = original.clone();
+                Sort.parallelMergeSort(arr, threshold, pool);
+                assertStablySorted(original, arr);
+
+                arr = original.clone();
+                Sort.parallelMergeSort(arr, threshold, null);
+                assertStablySorted(original, arr);
+
+                List<Keyed> list = new LinkedList<>(Arrays.asList(original));
+                Sort.parallelMergeSort(list, threshold, pool);
+                assertStablySorted(original, list.toArray(new Keyed[0]));
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Keyed[] original = randomKeyed(rn, 100_000, 1000);
+        Keyed[] arr = original.clone();
+        Sort.parallelMergeSort(arr);
+        assertStablySorted(original, arr);
+
+        assertThrows(IllegalArgumentException.class, () -> Sort.parallelMergeSort(new Integer[] { 1 }, 0, null));
+    }
+
+    @Test
+    void testTimSort() {
+        for (var arr : getTestArrays()) {
+            testArraySortForCorrectness(arr, Sort::timSort);
+        }
+        for (var list : getTestList()) {
+            testListSortForCorrectness(list, Sort::timSort);
+        }
+
+        Random rn = new Random(22);
+        for (int n : new int[] { 10, 63, 64, 65, 1000, 20_000 }) {
+            for (int keys : new int[] { 2, 50, n }) {
+                Keyed[] original = randomKeyed(rn, n, keys);
+                Keyed[] arr = original.clone();
+                Sort.timSort(arr);
+                assertStablySorted(original, arr);
+
+                // a few long sorted runs, some descending, with ties
+                Keyed[] runs = original.clone();
+                for (int lo = 0; lo < n; lo += n / 5 + 1) {
+                    int hi = Math.min(lo + n / 5 + 1, n);
+                    Arrays.sort(runs, lo, hi);
+                    if (rn.nextBoolean()) {
+                        for (int i = lo, j = hi - 1; i < j; i++, j--) {
+                            Keyed t = runs[i];
+                            runs[i] = runs[j];
+                            runs[j] = t;
+                        }
+                    }
+                }
+                arr = runs.clone();
+                Sort.timSort(arr);
+                assertStablySorted(runs, arr);
+            }
+        }
+
+        List<Keyed> list = new LinkedList<>(Arrays.asList(randomKeyed(rn, 500, 40)));
+        Keyed[] before = list.toArray(new Keyed[0]);
+        Sort.timSort(list);
+        assertStablySorted(before, list.toArray(new Keyed[0]));
+
+        // nearly sorted input: an appended log with a few late arrivals
+        int n = 100_000;
+        Keyed[] nearly = new Keyed[n];
+        for (int i = 0; i < n; i++) {
+            nearly[i] = new Keyed(i, i);
+        }
+        for (int i = 0; i < 10; i++) {
+            int at = rn.nextInt(n);
+            nearly[at] = new Keyed(rn.nextInt(n), at);
+        }
+        Keyed[] arr = nearly.clone();
+        Keyed.comparisons = 0;
+        Sort.timSort(arr);
+        assertStablySorted(nearly, arr);
+        assertTrue(Keyed.comparisons < 3L * n, "comparisons: " + Keyed.comparisons);
+
+        // strictly descending input is reversed in a single pass
+        Integer[] descending = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            descending[i] = n - i;
+        }
+        Sort.timSort(descending);
+        assertTrue(isSorted(descending));
+    }
+
+    @Test
+    void testRadixSort() {
+        Random rn = new Random(23);
+        for (int n : new int[] { 0, 1, 5, 63, 64, 1000, 50_000 }) {
+            int[] ints = new int[n];
+            long[] longs = new long[n];
+            float[] floats = new float[n];
+            double[] doubles = new double[n];
+            for (int i = 0; i < n; i++) {
+                ints[i] = rn.nextInt(4) == 0 ? rn.nextInt(100) - 50 : rn.nextInt();
+                longs[i] = rn.nextInt(4) == 0 ? rn.nextInt(100) - 50 : rn.nextLong();
+                floats[i] = (float) rn.nextGaussian() * 1e6f;
+                doubles[i] = rn.nextGaussian() * 1e300;
+            }
+            float[] specialFloats = { Float.NaN, -0.0f, 0.0f, Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY,
+                    Float.MIN_VALUE, -Float.MIN_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE,
+                    Float.intBitsToFloat(0xffc00001) };
+            double[] specialDoubles = { Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                    Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE };
+            for (int i = 0; i < n / 4; i++) {
+                floats[rn.nextInt(n)] = specialFloats[rn.nextInt(specialFloats.length)];
+                doubles[rn.nextInt(n)] = specialDoubles[rn.nextInt(specialDoubles.length)];
+            }
+            if (n > 2) {
+                ints[0] = Integer.MIN_VALUE;
+                ints[1] = Integer.MAX_VALUE;
+                longs[0] = Long.MIN_VALUE;
+                longs[1] = Long.MAX_VALUE;
+            }
+
+            int[] expectedInts = ints.clone();
+            Arrays.sort(expectedInts);
+            Sort.radixSort(ints);
+            assertArrayEquals(expectedInts, ints);
+
+            long[] expectedLongs = longs.clone();
+            Arrays.sort(expectedLongs);
+            Sort.radixSort(longs);
+            assertArrayEquals(expectedLongs, longs);
+
+            // assertArrayEquals tells -0.0 from 0.0 and treats every NaN alike
+            float[] expectedFloats = floats.clone();
+            Arrays.sort(expectedFloats);
+            Sort.radixSort(floats);
+            assertArrayEquals(expectedFloats, floats);
+
+            double[] expectedDoubles = doubles.clone();
+            Arrays.sort(expectedDoubles);
+            Sort.radixSort(doubles);
+            assertArrayEquals(expectedDoubles, doubles);
+        }
+
+        // small values share their high digits, so those passes are skipped
+        int[] small = new int[1000];
+        for (int i = 0; i < small.length; i++) {
+            small[i] = small.length - i;
+        }
+        Sort.radixSort(small);
+        for (int i = 0; i < small.length; i++) {
+            assertEquals(i + 1, small[i]);
+        }
+    }
+
+    @Test
+    void testComparatorOverloads() {
+        Random rn = new Random(24);
+        Comparator<Keyed> byKey = Comparator.comparingInt(k -> k.key);
+        Comparator<Keyed> byKeyReversed = byKey.reversed();
+        List<Consumer<Keyed[]>> arraySorts = List.of(
+                arr -> Sort.insertionSort(arr, byKeyReversed),
+                arr -> Sort.binaryInsertionSort(arr, byKeyReversed),
+                arr -> Sort.mergeSort(arr, byKeyReversed),
+                arr -> Sort.mergeSort(arr, new Keyed[arr.length], byKeyReversed),
+                arr -> Sort.parallelMergeSort(arr, byKeyReversed, 64, null),
+                arr -> Sort.timSort(arr, byKeyReversed));
+        List<Consumer<List<Keyed>>> listSorts = List.of(
+                list -> Sort.insertionSort(list, byKeyReversed),
+                list -> Sort.binaryInsertionSort(list, byKeyReversed),
+                list -> Sort.mergeSort(list, byKeyReversed),
+                list -> Sort.parallelMergeSort(list, byKeyReversed, 64, null),
+                list -> Sort.timSort(list, byKeyReversed));
+
+        for (int n : new int[] { 0, 1, 33, 500, 3000 }) {
+            Keyed[] original = randomKeyed(rn, n, 20);
+            Keyed[] expected = original.clone();
+            Arrays.sort(expected, byKeyReversed);
+            for (Consumer<Keyed[]> sort : arraySorts) {
+                Keyed[] arr = original.clone();
+                sort.accept(arr);
+                assertArrayEquals(expected, arr);
+            }
+            for (Consumer<List<Keyed>> sort : listSorts) {
+                List<Keyed> list = new LinkedList<>(Arrays.asList(original));
+                sort.accept(list);
+                assertArrayEquals(expected, list.toArray());
+            }
+        }
+
+        // a null comparator means natural order
+        Integer[] arr = { 3, 1, 2 };
+        Sort.timSort(arr, null);
+        assertArrayEquals(new Integer[] { 1, 2, 3 }, arr);
+        List<String> words = new LinkedList<>(List.of("pear", "fig", "apple"));
+        Sort.mergeSort(words, null);
+        assertIterableEquals(List.of("apple", "fig", "pear"), words);
     }
 
+    @Test
+    void testSortByKey() {
+        Random rn = new Random(25);
+        for (int n : new int[] { 0, 1, 32, 33, 1000, 10_000 }) {
+            Keyed[] original = randomKeyed(rn, n, 30);
+            Keyed[] arr = original.clone();
+            int[] calls = { 0 };
+            Sort.sortByKey(arr, k -> {
+                calls[0]++;
+                return k.key;
+            });
+            assertEquals(n, calls[0]);
+            assertStablySorted(original, arr);
+
+            List<Keyed> list = new LinkedList<>(Arrays.asList(original));
+            calls[0] = 0;
+            Sort.sortByKey(list, k -> {
+                calls[0]++;
+                return -k.key;
+            }, Comparator.reverseOrder());
+            assertEquals(n, calls[0]);
+            assertStablySorted(original, list.toArray(new Keyed[0]));
+        }
+
+        List<String> words = new LinkedList<>(List.of("banana", "fig", "kiwi", "apple", "date"));
+        Sort.sortByKey(words, String::length);
+        assertIterableEquals(List.of("fig", "kiwi", "date", "apple", "banana"), words);
+    }
 }
@@ -0,0 +1,146 @@
+package com.noambechhofer.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.noambechhofer.datastructures.BoundedCache.Policy;
+
+class BoundedCacheTest {
+    @Test
+    void testLru() {
+        List<String> evicted = new ArrayList<>();
+        BoundedCache<String, Integer> cache = new BoundedCache<>(Policy.LRU, 3, (k, v) -> 1,
+                (k, v) -> evicted.add(k));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        assertEquals(1, cache.get("a"));
+        cache.put("d", 4);
+        assertEquals(List.of("b"), evicted);
+        assertFalse(cache.containsKey("b"));
+
+        assertEquals(3, cache.put("c", 30));
+        cache.put("e", 5);
+        assertEquals(List.of("b", "a"), evicted);
+        assertEquals(30, cache.get("c"));
+        assertEquals(3, cache.size());
+
+        assertEquals(4, cache.remove("d"));
+        assertNull(cache.remove("d"));
+        assertEquals(2, cache.size());
+        assertEquals(List.of("b", "a"), evicted);
+
+        assertThrows(NullPointerException.class, () -> cache.put(null, 1));
+        assertThrows(NullPointerException.class, () -> cache.put("x", null));
+    }
+
+    @Test
+    void testLruAgainstLinkedHashMap() {
+        final int capacity = 50;
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(Policy.LRU, capacity);
+        Map<Integer, Integer> expected = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > capacity;
+            }
+        };
+        Random rn = new Random(16);
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = rn.nextInt(200);
+            switch (rn.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.put(key, i), cache.put(key, i));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), cache.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), cache.get(key));
+            }
+            assertEquals(expected.size(), cache.size());
+        }
+        for (Integer key : expected.keySet())
+            assertTrue(cache.containsKey(key));
+    }
+
+    @Test
+    void testLfu() {
+        List<String> evicted = new ArrayList<>();
+        BoundedCache<String, Integer> cache = new BoundedCache<>(Policy.LFU, 3, (k, v) -> 1,
+                (k, v) -> evicted.add(k));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+
+        // c and d are tied on one use; c was used longer ago
+        cache.put("d", 4);
+        assertEquals(List.of("c"), evicted);
+        cache.put("e", 5);
+        assertEquals(List.of("c", "d"), evicted);
+
+        // e is the only entry used once, so a new entry goes first
+        cache.get("e");
+        cache.put("f", 6);
+        assertEquals(List.of("c", "d", "f"), evicted);
+
+        assertEquals(5, cache.remove("e"));
+        cache.put("g", 7);
+        assertEquals(List.of("c", "d", "f"), evicted);
+        assertTrue(cache.containsKey("a"));
+        assertTrue(cache.containsKey("b"));
+        assertTrue(cache.containsKey("g"));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weight());
+        cache.put("f", 6);
+        assertEquals(6, cache.get("f"));
+    }
+
+    @Test
+    void testWeightsAndStats() {
+        List<String> evicted = new ArrayList<>();
+        BoundedCache<String, String> cache = new BoundedCache<>(Policy.LRU, 10, (k, v) -> v.length(),
+                (k, v) -> evicted.add(k));
+        cache.put("a", "xxxx");
+        cache.put("b", "xxxx");
+        assertEquals(8, cache.weight());
+        cache.put("c", "xxx");
+        assertEquals(List.of("a"), evicted);
+        assertEquals(7, cache.weight());
+
+        cache.put("b", "x");
+        assertEquals(4, cache.weight());
+        cache.put("huge", "xxxxxxxxxxx");
+        assertEquals(List.of("a", "huge"), evicted);
+        assertEquals(4, cache.weight());
+        assertEquals(2, cache.evictionCount());
+
+        assertEquals("x", cache.get("b"));
+        assertNull(cache.get("a"));
+        assertEquals("xxx", cache.get("c"));
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(2.0 / 3, cache.hitRate());
+
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>(Policy.LFU, -1));
+        BoundedCache<String, Integer> negative = new BoundedCache<>(Policy.LFU, 10, (k, v) -> v, (k, v) -> {
+        });
+        assertThrows(IllegalArgumentException.class, () -> negative.put("a", -1));
+    }
+}
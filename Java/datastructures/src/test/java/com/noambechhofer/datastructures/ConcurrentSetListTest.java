@@ -0,0 +1,193 @@
+package com.noambechhofer.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.noambechhofer.datastructures.utils.DuplicateElementException;
+
+class ConcurrentSetListTest {
+    @Test
+    void testListAndSetContract() {
+        ConcurrentSetList<String> list = new ConcurrentSetList<>();
+        assertTrue(list.add("b"));
+        assertFalse(list.add("b"));
+        list.add(0, "a");
+        assertThrows(DuplicateElementException.class, () -> list.add(0, "b"));
+        assertThrows(DuplicateElementException.class, () -> list.set(0, "b"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(3, "c"));
+
+        assertTrue(list.addAll(List.of("c", "a", "d", "c")));
+        assertEquals(List.of("a", "b", "c", "d"), list);
+        assertThrows(DuplicateElementException.class, () -> list.addAll(1, List.of("x", "d")));
+        assertEquals(4, list.size());
+
+        assertEquals("a", list.set(0, "z"));
+        assertEquals(0, list.indexOf("z"));
+        assertEquals(-1, list.indexOf("a"));
+        assertTrue(list.remove("b"));
+        assertEquals("c", list.remove(1));
+        assertEquals(List.of("z", "d"), list);
+        assertEquals(1, list.indexOf("d"));
+
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertEquals(new ConcurrentSetList<>(List.of(1, 2, 1, 3)), List.of(1, 2, 3));
+    }
+
+    @Test
+    void testSnapshotIterator() {
+        ConcurrentSetList<Integer> list = new ConcurrentSetList<>(List.of(1, 2, 3));
+        Iterator<Integer> it = list.iterator();
+
+        list.add(4);
+        list.remove((Integer) 1);
+
+        List<Integer> seen = new ArrayList<>();
+        it.forEachRemaining(seen::add);
+        assertEquals(List.of(1, 2, 3), seen);
+        assertThrows(UnsupportedOperationException.class, it::remove);
+        assertEquals(List.of(2, 3, 4), list);
+    }
+
+    @Test
+    void testSubList() {
+        ConcurrentSetList<Integer> list = new ConcurrentSetList<>(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+        list.subList(0, 1).clear();
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9), list);
+
+        List<Integer> sub = list.subList(2, 7);
+        assertEquals(List.of(3, 4, 5, 6, 7), sub);
+        assertTrue(sub.removeIf(e -> e % 2 == 0));
+        assertEquals(List.of(3, 5, 7), sub);
+        assertTrue(sub.removeAll(Set.of(5, 9)));
+        assertTrue(sub.retainAll(List.of(1, 7)));
+        assertEquals(List.of(7), sub);
+        sub.add(0, 4);
+        assertFalse(sub.add(1));
+        Iterator<Integer> it = sub.iterator();
+        it.next();
+        it.remove();
+        assertEquals(List.of(1, 2, 7, 8, 9), list);
+        assertEquals(2, list.indexOf(7));
+
+        sub.clear();
+        assertTrue(sub.isEmpty());
+        assertEquals(List.of(1, 2, 8, 9), list);
+        list.subList(1, 3).subList(0, 1).clear();
+        assertEquals(List.of(1, 8, 9), list);
+
+        list.add(10);
+        assertThrows(ConcurrentModificationException.class, sub::size);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.subList(0, 5));
+    }
+
+    @Test
+    void testSubListAddAndLookup() {
+        ConcurrentSetList<String> list = new ConcurrentSetList<>(List.of("a", "b", "c", "d"));
+        List<String> sub = list.subList(1, 3);
+
+        // a failed bulk insert leaves the list as it was
+        assertThrows(DuplicateElementException.class, () -> sub.addAll(List.of("x", "y", "b")));
+        assertEquals(List.of("a", "b", "c", "d"), list);
+        assertEquals(2, sub.size());
+
+        assertFalse(sub.add("d"));
+        assertTrue(sub.addAll(0, List.of("x", "y")));
+        assertEquals(List.of("a", "x", "y", "b", "c", "d"), list);
+        assertEquals(List.of("x", "y", "b", "c"), sub);
+        assertTrue(sub.add("z"));
+        assertEquals(List.of("a", "x", "y", "b", "c", "z", "d"), list);
+
+        assertTrue(sub.contains("c"));
+        assertFalse(sub.contains("a"));
+        assertFalse(sub.contains("d"));
+        assertEquals(3, sub.indexOf("c"));
+        assertEquals(-1, sub.lastIndexOf("d"));
+        assertFalse(sub.remove("a"));
+        assertTrue(sub.remove("y"));
+        assertEquals(List.of("a", "x", "b", "c", "z", "d"), list);
+        assertEquals(List.of("x", "b", "c", "z"), sub);
+    }
+
+    @Test
+    void testSubListSeesWritesFromOtherThreads() throws Exception {
+        ConcurrentSetList<Integer> list = new ConcurrentSetList<>(List.of(0, 1, 2, 3, 4, 5));
+        List<Integer> sub = list.subList(2, 5);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+
+        try {
+            pool.submit(() -> list.add(-1)).get(30, TimeUnit.SECONDS);
+            pool.submit(() -> list.remove(Integer.valueOf(-1))).get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Same contents as when the view was made, but a different snapshot
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), list);
+        assertThrows(ConcurrentModificationException.class, () -> sub.set(0, 9));
+        assertThrows(ConcurrentModificationException.class, () -> sub.removeIf(e -> true));
+        assertThrows(ConcurrentModificationException.class, sub::clear);
+        assertThrows(ConcurrentModificationException.class, () -> sub.remove(0));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), list);
+    }
+
+    @Test
+    void testConcurrentReadersAndWriters() throws Exception {
+        ConcurrentSetList<Integer> list = new ConcurrentSetList<>();
+        int writers = 4;
+        int perWriter = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 2);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perWriter; i++)
+                        list.add(i); // every writer races to add the same values
+                    return null;
+                }));
+            }
+            for (int r = 0; r < 2; r++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perWriter; i++) {
+                        Set<Integer> seen = new HashSet<>();
+                        for (int e : list)
+                            assertTrue(seen.add(e));
+                        int index = list.indexOf(i);
+                        assertTrue(index == -1 || index < list.size());
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> f : futures)
+                f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(perWriter, list.size());
+        for (int i = 0; i < list.size(); i++)
+            assertEquals(i, list.indexOf(list.get(i)));
+    }
+}
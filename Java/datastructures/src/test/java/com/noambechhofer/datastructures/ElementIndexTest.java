@@ -0,0 +1,67 @@
+package com.noambechhofer.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ElementIndexTest {
+    @Test
+    void testBasicOperations() {
+        ElementIndex<String> index = new ElementIndex<>();
+        assertEquals(-1, index.get("a"));
+        assertEquals(-1, index.put("a", 0));
+        assertEquals(0, index.put("a", 1));
+        assertEquals(1, index.putIfAbsent("a", 2));
+        assertEquals(-1, index.putIfAbsent("b", 2));
+        assertEquals(2, index.size());
+
+        assertEquals(-1, index.put(null, 3));
+        assertTrue(index.containsKey(null));
+        assertEquals(3, index.remove(null));
+        assertFalse(index.containsKey(null));
+
+        assertEquals(1, index.remove("a"));
+        assertEquals(-1, index.remove("a"));
+        assertEquals(2, index.get("b"));
+
+        assertEquals(1, index.totalProbeLength());
+        assertEquals(1, index.maxProbeLength());
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(0, index.maxProbeLength());
+        assertFalse(index.containsKey("b"));
+    }
+
+    /** Colliding hash codes force long probe runs through backward-shift deletion. */
+    @Test
+    void testAgainstHashMap() {
+        ElementIndex<Integer> index = new ElementIndex<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random rn = new Random(5);
+
+        for (int i = 0; i < 50_000; i++) {
+            int key = rn.nextInt(2000) * 1024;
+            if (rn.nextBoolean()) {
+                assertEquals(expected.getOrDefault(key, -1), index.put(key, i));
+                expected.put(key, i);
+            } else {
+                Integer old = expected.remove(key);
+                assertEquals(old == null ? -1 : old, index.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        assertTrue(index.capacity() * 3 / 4 >= index.size());
+        assertTrue(index.totalProbeLength() >= index.size());
+        assertTrue(index.maxProbeLength() <= index.size());
+        for (Map.Entry<Integer, Integer> e : expected.entrySet())
+            assertEquals(e.getValue(), index.get(e.getKey()));
+    }
+}
@@ -0,0 +1,136 @@
+package com.noambechhofer.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.noambechhofer.datastructures.utils.DuplicateElementException;
+
+class IndexedTreeSetListTest {
+    @Test
+    void testAdd() {
+        IndexedTreeSetList<String> list = new IndexedTreeSetList<>();
+        assertTrue(list.add("Test"));
+        assertFalse(list.add("Test"));
+        assertEquals(1, list.size());
+
+        list.add(0, "First");
+        assertThrows(DuplicateElementException.class, () -> list.add(0, "Test"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(3, "Other"));
+        assertEquals(List.of("First", "Test"), list);
+    }
+
+    @Test
+    void testAddAll() {
+        IndexedTreeSetList<Integer> list = new IndexedTreeSetList<>();
+        list.addAll(List.of(1, 5, 9));
+        assertThrows(DuplicateElementException.class, () -> list.addAll(0, List.of(7, 31, 5)));
+        assertThrows(DuplicateElementException.class, () -> list.addAll(1, List.of(2, 2)));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.addAll(4, List.of(2)));
+        assertEquals(List.of(1, 5, 9), list);
+        assertFalse(list.contains(7));
+
+        assertTrue(list.addAll(1, List.of(2, 3, 4)));
+        assertFalse(list.addAll(0, List.of()));
+        assertEquals(List.of(1, 2, 3, 4, 5, 9), list);
+        assertEquals(4, list.indexOf(5));
+    }
+
+    @Test
+    void testRemove() {
+        IndexedTreeSetList<Integer> list = new IndexedTreeSetList<>();
+        for (int i = 0; i < 10; i++)
+            list.add(i);
+
+        assertEquals(0, list.remove(0));
+        assertTrue(list.remove((Integer) 5));
+        assertFalse(list.remove((Integer) 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.remove(8));
+        assertEquals(List.of(1, 2, 3, 4, 6, 7, 8, 9), list);
+        assertEquals(4, list.indexOf(6));
+    }
+
+    @Test
+    void testSet() {
+        IndexedTreeSetList<String> list = new IndexedTreeSetList<>();
+        list.add("Test");
+        assertThrows(DuplicateElementException.class, () -> list.set(0, "Test"));
+        assertEquals("Test", list.set(0, "NewValue"));
+        assertFalse(list.contains("Test"));
+        assertEquals(0, list.indexOf("NewValue"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(1, "Other"));
+    }
+
+    @Test
+    void testAgainstArrayList() {
+        IndexedTreeSetList<Integer> list = new IndexedTreeSetList<>();
+        List<Integer> expected = new ArrayList<>();
+        Random rn = new Random(42);
+
+        for (int i = 0; i < 5000; i++) {
+            int op = rn.nextInt(3);
+            if (op < 2 || expected.isEmpty()) {
+                int index = rn.nextInt(expected.size() + 1);
+                list.add(index, i);
+                expected.add(index, i);
+            } else {
+                int index = rn.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.remove(index));
+            }
+        }
+
+        assertEquals(expected, list);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), list.get(i));
+            assertEquals(i, list.indexOf(expected.get(i)));
+        }
+    }
+
+    @Test
+    void testIterator() {
+        IndexedTreeSetList<Integer> list = new IndexedTreeSetList<>();
+        for (int i = 0; i < 100; i++)
+            list.add(i);
+
+        Iterator<Integer> it = list.iterator();
+        while (it.hasNext()) {
+            if (it.next() % 3 != 0)
+                it.remove();
+        }
+
+        assertEquals(34, list.size());
+        for (int i = 0; i < list.size(); i++)
+            assertEquals(i * 3, list.get(i));
+
+        Iterator<Integer> it2 = list.iterator();
+        it2.next();
+        list.add(-1);
+        assertThrows(ConcurrentModificationException.class, it2::next);
+    }
+
+    @Test
+    void testSort() {
+        IndexedTreeSetList<Integer> list = new IndexedTreeSetList<>();
+        Random rn = new Random(7);
+        for (int i = 0; i < 1000; i++)
+            list.add(rn.nextInt());
+
+        List<Integer> expected = new ArrayList<>(list);
+        Collections.sort(expected);
+        Collections.sort(list);
+
+        assertEquals(expected, list);
+        for (int i = 0; i < list.size(); i++)
+            assertEquals(i, list.indexOf(expected.get(i)));
+    }
+}
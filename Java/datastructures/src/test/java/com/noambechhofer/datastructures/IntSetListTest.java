@@ -0,0 +1,135 @@
+package com.noambechhofer.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Test;
+
+import com.noambechhofer.algorithms.Sort;
+import com.noambechhofer.datastructures.utils.DuplicateElementException;
+
+class IntSetListTest {
+    @Test
+    void testPrimitiveOperations() {
+        IntSetList list = new IntSetList();
+        assertTrue(list.add(1));
+        assertFalse(list.add(1));
+        list.add(0, 2);
+        assertThrows(DuplicateElementException.class, () -> list.add(1, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(3, 3));
+
+        assertEquals(2, list.getInt(0));
+        assertEquals(1, list.indexOf(1));
+        assertEquals(-1, list.indexOf(3));
+        assertTrue(list.contains(2));
+
+        assertEquals(2, list.setInt(0, 3));
+        assertFalse(list.contains(2));
+        assertThrows(DuplicateElementException.class, () -> list.setInt(0, 1));
+
+        assertTrue(list.removeValue(3));
+        assertFalse(list.removeValue(3));
+        assertEquals(0, list.indexOf(1));
+        assertEquals(1, list.removeInt(0));
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    void testBoxedView() {
+        IntSetList list = new IntSetList();
+        List<Integer> boxed = list;
+        boxed.add((Integer) 1);
+        boxed.add((Integer) 2);
+
+        assertEquals(List.of((Integer) 1, (Integer) 2), list);
+        assertTrue(boxed.contains((Integer) 2));
+        assertFalse(boxed.contains("not a number"));
+        assertTrue(boxed.remove((Integer) 1));
+        assertEquals(0, boxed.indexOf((Integer) 2));
+        assertThrows(NullPointerException.class, () -> boxed.add(null));
+    }
+
+    @Test
+    void testAgainstArrayList() {
+        IntSetList list = new IntSetList(0);
+        List<Integer> expected = new ArrayList<>();
+        Random rn = new Random(11);
+
+        for (int i = 0; i < 20_000; i++) {
+            int value = rn.nextInt() % 5000;
+            int op = rn.nextInt(4);
+            if (op == 0 && !expected.isEmpty()) {
+                int index = rn.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.removeInt(index));
+            } else if (op == 1) {
+                assertEquals(expected.remove((Integer) value), list.removeValue(value));
+            } else if (op == 2 && !expected.contains(value)) {
+                int index = rn.nextInt(expected.size() + 1);
+                list.add(index, value);
+                expected.add(index, value);
+            } else if (!expected.contains(value)) {
+                assertTrue(list.add(value));
+                expected.add(value);
+            }
+        }
+
+        assertEquals(expected, list);
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(i, list.indexOf((int) expected.get(i)));
+
+        List<Integer> seen = new ArrayList<>();
+        list.forEachInt(seen::add);
+        assertEquals(expected, seen);
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), list.toIntArray());
+        assertEquals(expected.stream().mapToInt(Integer::intValue).sum(),
+                StreamSupport.intStream(list.spliterator(), true).sum());
+
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertEquals(-1, list.indexOf(expected.get(0)));
+    }
+
+    @Test
+    void testSort() {
+        IntSetList list = new IntSetList();
+        list.add(3);
+        list.add(1);
+        list.add(2);
+        list.sort(null);
+        assertEquals(List.of((Integer) 1, (Integer) 2, (Integer) 3), list);
+
+        Collections.sort(list, Comparator.reverseOrder());
+        assertEquals(List.of((Integer) 3, (Integer) 2, (Integer) 1), list);
+        assertEquals(2, list.indexOf(1));
+
+        // sorts that write back through the list iterator
+        Random rn = new Random(12);
+        List<Integer> expected = new ArrayList<>();
+        list.clear();
+        for (int i = 0; i < 1000; i++) {
+            int value = rn.nextInt(5000);
+            if (list.add(value)) {
+                expected.add(value);
+            }
+        }
+        Sort.mergeSort(list);
+        Collections.sort(expected);
+        assertEquals(expected, list);
+        Sort.insertionSort(list, Comparator.reverseOrder());
+        Collections.reverse(expected);
+        assertEquals(expected, list);
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(i, list.indexOf((int) expected.get(i)));
+        assertThrows(DuplicateElementException.class, () -> list.add(0, expected.get(0)));
+    }
+}
@@ -0,0 +1,135 @@
+package com.noambechhofer.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Test;
+
+import com.noambechhofer.algorithms.Sort;
+import com.noambechhofer.datastructures.utils.DuplicateElementException;
+
+class LongSetListTest {
+    @Test
+    void testPrimitiveOperations() {
+        LongSetList list = new LongSetList();
+        assertTrue(list.add(1L));
+        assertFalse(list.add(1L));
+        list.add(0, 2L);
+        assertThrows(DuplicateElementException.class, () -> list.add(1, 1L));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(3, 3L));
+
+        assertEquals(2L, list.getLong(0));
+        assertEquals(1, list.indexOf(1L));
+        assertEquals(-1, list.indexOf(3L));
+        assertTrue(list.contains(2L));
+
+        assertEquals(2L, list.setLong(0, 3L));
+        assertFalse(list.contains(2L));
+        assertThrows(DuplicateElementException.class, () -> list.setLong(0, 1L));
+
+        assertTrue(list.removeValue(3L));
+        assertFalse(list.removeValue(3L));
+        assertEquals(0, list.indexOf(1L));
+        assertEquals(1L, list.removeLong(0));
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    void testBoxedView() {
+        LongSetList list = new LongSetList();
+        List<Long> boxed = list;
+        boxed.add((Long) 1L);
+        boxed.add((Long) 2L);
+
+        assertEquals(List.of((Long) 1L, (Long) 2L), list);
+        assertTrue(boxed.contains((Long) 2L));
+        assertFalse(boxed.contains("not a number"));
+        assertTrue(boxed.remove((Long) 1L));
+        assertEquals(0, boxed.indexOf((Long) 2L));
+        assertThrows(NullPointerException.class, () -> boxed.add(null));
+    }
+
+    @Test
+    void testAgainstArrayList() {
+        LongSetList list = new LongSetList(0);
+        List<Long> expected = new ArrayList<>();
+        Random rn = new Random(11);
+
+        for (int i = 0; i < 20_000; i++) {
+            long value = rn.nextLong() % 5000;
+            int op = rn.nextInt(4);
+            if (op == 0 && !expected.isEmpty()) {
+                int index = rn.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.removeLong(index));
+            } else if (op == 1) {
+                assertEquals(expected.remove((Long) value), list.removeValue(value));
+            } else if (op == 2 && !expected.contains(value)) {
+                int index = rn.nextInt(expected.size() + 1);
+                list.add(index, value);
+                expected.add(index, value);
+            } else if (!expected.contains(value)) {
+                assertTrue(list.add(value));
+                expected.add(value);
+            }
+        }
+
+        assertEquals(expected, list);
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(i, list.indexOf((long) expected.get(i)));
+
+        List<Long> seen = new ArrayList<>();
+        list.forEachLong(seen::add);
+        assertEquals(expected, seen);
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), list.toLongArray());
+        assertEquals(expected.stream().mapToLong(Long::longValue).sum(),
+                StreamSupport.longStream(list.spliterator(), true).sum());
+
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertEquals(-1, list.indexOf(expected.get(0)));
+    }
+
+    @Test
+    void testSort() {
+        LongSetList list = new LongSetList();
+        list.add(3L);
+        list.add(1L);
+        list.add(2L);
+        list.sort(null);
+        assertEquals(List.of((Long) 1L, (Long) 2L, (Long) 3L), list);
+
+        Collections.sort(list, Comparator.reverseOrder());
+        assertEquals(List.of((Long) 3L, (Long) 2L, (Long) 1L), list);
+        assertEquals(2, list.indexOf(1L));
+
+        // sorts that write back through the list iterator
+        Random rn = new Random(12);
+        List<Long> expected = new ArrayList<>();
+        list.clear();
+        for (int i = 0; i < 1000; i++) {
+            long value = rn.nextInt(5000);
+            if (list.add(value)) {
+                expected.add(value);
+            }
+        }
+        Sort.mergeSort(list);
+        Collections.sort(expected);
+        assertEquals(expected, list);
+        Sort.insertionSort(list, Comparator.reverseOrder());
+        Collections.reverse(expected);
+        assertEquals(expected, list);
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(i, list.indexOf((long) expected.get(i)));
+        assertThrows(DuplicateElementException.class, () -> list.add(0, expected.get(0)));
+    }
+}
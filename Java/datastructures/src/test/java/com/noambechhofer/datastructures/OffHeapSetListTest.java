@@ -0,0 +1,187 @@
+package com.noambechhofer.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.noambechhofer.datastructures.utils.DuplicateElementException;
+
+class OffHeapSetListTest {
+    /** An odd width exercises the byte-at-a-time tails of hashing and moving. */
+    private static final ElementCodec<String> THREE_CHARS = new ElementCodec<>() {
+        @Override
+        public int width() {
+            return 3;
+        }
+
+        @Override
+        public void encode(String element, ByteBuffer buffer, int offset) {
+            for (int i = 0; i < 3; i++)
+                buffer.put(offset + i, (byte) element.charAt(i));
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer, int offset) {
+            char[] chars = new char[3];
+            for (int i = 0; i < 3; i++)
+                chars[i] = (char) buffer.get(offset + i);
+            return new String(chars);
+        }
+    };
+
+    @Test
+    void testListAndSetContract() {
+        try (OffHeapSetList<String> list = new OffHeapSetList<>(THREE_CHARS, 0)) {
+            assertTrue(list.add("bbb"));
+            assertFalse(list.add("bbb"));
+            list.add(0, "aaa");
+            assertThrows(DuplicateElementException.class, () -> list.add(1, "bbb"));
+            assertThrows(IndexOutOfBoundsException.class, () -> list.add(3, "ccc"));
+            assertThrows(NullPointerException.class, () -> list.add(null));
+
+            assertEquals(List.of("aaa", "bbb"), list);
+            assertEquals(1, list.indexOf("bbb"));
+            assertFalse(list.contains("ccc"));
+
+            assertEquals("aaa", list.set(0, "zzz"));
+            assertThrows(DuplicateElementException.class, () -> list.set(0, "bbb"));
+            assertFalse(list.contains("aaa"));
+            assertTrue(list.remove("zzz"));
+            assertEquals(0, list.indexOf("bbb"));
+        }
+    }
+
+    @Test
+    void testAddAll() {
+        try (OffHeapSetList<Integer> list = new OffHeapSetList<>(ElementCodec.INTEGER, 2)) {
+            list.addAll(List.of(1, 2, 3));
+            assertThrows(DuplicateElementException.class, () -> list.addAll(0, List.of(3, 3, 21)));
+            assertThrows(DuplicateElementException.class, () -> list.addAll(1, List.of(21, 22, 21)));
+            assertThrows(IndexOutOfBoundsException.class, () -> list.addAll(4, List.of(21)));
+            assertEquals(List.of(1, 2, 3), list);
+            assertFalse(list.contains(21));
+
+            List<Integer> many = new ArrayList<>();
+            for (int i = 100; i < 200; i++)
+                many.add(i);
+            assertTrue(list.addAll(1, many));
+            assertFalse(list.addAll(0, List.of()));
+            List<Integer> expected = new ArrayList<>(List.of(1, 2, 3));
+            expected.addAll(1, many);
+            assertEquals(expected, list);
+            for (int i = 0; i < expected.size(); i++)
+                assertEquals(i, list.indexOf(expected.get(i)));
+        }
+    }
+
+    @Test
+    void testAgainstArrayList() {
+        try (OffHeapSetList<Long> list = new OffHeapSetList<>(ElementCodec.LONG)) {
+            List<Long> expected = new ArrayList<>();
+            Random rn = new Random(3);
+
+            for (int i = 0; i < 20_000; i++) {
+                long value = rn.nextInt(5000);
+                int op = rn.nextInt(4);
+                if (op == 0 && !expected.isEmpty()) {
+                    int index = rn.nextInt(expected.size());
+                    assertEquals(expected.remove(index), list.remove(index));
+                } else if (op == 1) {
+                    assertEquals(expected.remove(value), list.remove(value));
+                } else if (op == 2 && !expected.contains(value)) {
+                    int index = rn.nextInt(expected.size() + 1);
+                    list.add(index, value);
+                    expected.add(index, value);
+                } else {
+                    assertEquals(!expected.contains(value), list.add(value));
+                    if (!expected.contains(value))
+                        expected.add(value);
+                }
+            }
+
+            assertEquals(expected, list);
+            for (int i = 0; i < expected.size(); i++)
+                assertEquals(i, list.indexOf(expected.get(i)));
+
+            Collections.sort(expected);
+            Collections.sort(list);
+            assertEquals(expected, list);
+            for (int i = 0; i < expected.size(); i++)
+                assertEquals(i, list.indexOf(expected.get(i)));
+        }
+    }
+
+    @Test
+    void testClose() {
+        OffHeapSetList<Integer> list = new OffHeapSetList<>(ElementCodec.INTEGER);
+        for (int i = 0; i < 1000; i++)
+            list.add(i);
+        assertTrue(list.nativeBytes() >= 1000 * Integer.BYTES);
+
+        list.close();
+        list.close();
+        assertEquals(0, list.nativeBytes());
+        assertThrows(IllegalStateException.class, list::size);
+        assertThrows(IllegalStateException.class, () -> list.get(0));
+        assertThrows(IllegalStateException.class, () -> list.add(1));
+    }
+
+    @Test
+    void testWriteAndMap(@TempDir Path dir) throws IOException {
+        List<String> expected = List.of("abc", "def", "ghi", "jkl", "abc", "mno");
+        Path indexed = dir.resolve("indexed.bin");
+        Path bare = dir.resolve("bare.bin");
+        OffHeapSetList.write(expected, THREE_CHARS, indexed, true);
+        OffHeapSetList.write(expected, THREE_CHARS, bare, false);
+        assertTrue(Files.size(bare) < Files.size(indexed));
+
+        for (Path path : List.of(indexed, bare)) {
+            try (OffHeapSetList<String> list = OffHeapSetList.map(path, THREE_CHARS)) {
+                assertEquals(List.of("abc", "def", "ghi", "jkl", "mno"), list);
+                assertEquals(3, list.indexOf("jkl"));
+                assertFalse(list.contains("xyz"));
+
+                // updates go to a private copy, never to the file
+                list.add(0, "xyz");
+                list.remove("def");
+                assertEquals(List.of("xyz", "abc", "ghi", "jkl", "mno"), list);
+                assertEquals(4, list.indexOf("mno"));
+            }
+            try (OffHeapSetList<String> list = OffHeapSetList.map(path, THREE_CHARS)) {
+                assertEquals(List.of("abc", "def", "ghi", "jkl", "mno"), list);
+                SetList<String> heap = new SetList<>();
+                heap.addAll(list);
+                assertEquals(list, heap);
+            }
+        }
+
+        assertThrows(IOException.class, () -> OffHeapSetList.map(indexed, ElementCodec.INTEGER));
+        Path junk = dir.resolve("junk.bin");
+        Files.write(junk, new byte[] { 1, 2, 3 });
+        assertThrows(IOException.class, () -> OffHeapSetList.map(junk, THREE_CHARS));
+
+        // every slot occupied: must be rejected rather than probed forever
+        byte[] bytes = Files.readAllBytes(indexed);
+        ByteBuffer file = ByteBuffer.wrap(bytes);
+        int slots = file.getInt(16);
+        int table = 20 + 5 * 3;
+        for (int slot = 0; slot < slots; slot++)
+            file.putInt(table + slot * 8 + 4, 1);
+        Path full = dir.resolve("full.bin");
+        Files.write(full, bytes);
+        assertThrows(IOException.class, () -> OffHeapSetList.map(full, THREE_CHARS));
+    }
+}
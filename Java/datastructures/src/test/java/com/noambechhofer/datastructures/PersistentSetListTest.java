@@ -0,0 +1,247 @@
+package com.noambechhofer.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.noambechhofer.datastructures.utils.DuplicateElementException;
+
+class PersistentSetListTest {
+    /** Every instance hashes alike, to exercise the trie's collision nodes */
+    private static final class Clash {
+        final int id;
+
+        Clash(final int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Clash && ((Clash) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 7;
+        }
+    }
+
+    @Test
+    void testListAndSetContract() {
+        PersistentSetList<String> list = new PersistentSetList<>();
+        assertTrue(list.add("b"));
+        assertFalse(list.add("b"));
+        list.add(0, "a");
+        assertThrows(DuplicateElementException.class, () -> list.add(0, "b"));
+        assertThrows(DuplicateElementException.class, () -> list.set(0, "b"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(3, "c"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(2));
+
+        assertTrue(list.addAll(List.of("c", "a", "d", "c")));
+        assertEquals(List.of("a", "b", "c", "d"), list);
+
+        assertEquals("a", list.set(0, "z"));
+        assertEquals(0, list.indexOf("z"));
+        assertEquals(-1, list.indexOf("a"));
+        assertTrue(list.remove("b"));
+        assertEquals("c", list.remove(1));
+        assertEquals(List.of("z", "d"), list);
+        assertEquals(1, list.indexOf("d"));
+
+        list.add(null);
+        assertEquals(2, list.indexOf(null));
+
+        final Iterator<String> it = list.iterator();
+        it.next();
+        it.remove();
+        assertEquals("d", it.next());
+        assertEquals(Arrays.asList("d", null), list);
+
+        list.clear();
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    void testAddAll() {
+        PersistentSetList<Integer> list = new PersistentSetList<>(List.of(1, 5, 9));
+        PersistentSetList<Integer> before = list.snapshot();
+        assertThrows(DuplicateElementException.class, () -> list.addAll(0, List.of(7, 31, 5)));
+        assertThrows(DuplicateElementException.class, () -> list.addAll(1, List.of(2, 2)));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.addAll(4, List.of(2)));
+        assertEquals(List.of(1, 5, 9), list);
+        assertFalse(list.contains(7));
+
+        List<Integer> many = new ArrayList<>();
+        for (int i = 100; i < 300; i++)
+            many.add(i);
+        assertTrue(list.addAll(1, many));
+        assertFalse(list.addAll(0, List.of()));
+        List<Integer> expected = new ArrayList<>(List.of(1, 5, 9));
+        expected.addAll(1, many);
+        assertEquals(expected, list);
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(i, list.indexOf(expected.get(i)));
+        assertEquals(List.of(1, 5, 9), before);
+        assertThrows(UnsupportedOperationException.class, () -> before.addAll(0, List.of(2)));
+    }
+
+    @Test
+    void testSnapshots() {
+        PersistentSetList<Integer> list = new PersistentSetList<>(List.of(1, 2, 3));
+        PersistentSetList<Integer> before = list.snapshot();
+
+        list.add(0, 0);
+        list.remove((Integer) 2);
+        list.set(0, 9);
+        assertEquals(List.of(9, 1, 3), list);
+        assertEquals(List.of(1, 2, 3), before);
+        assertEquals(1, before.indexOf(2));
+        assertFalse(before.contains(9));
+
+        assertSame(before, before.snapshot());
+        assertThrows(UnsupportedOperationException.class, () -> before.add(4));
+        assertThrows(UnsupportedOperationException.class, () -> before.remove(0));
+        assertThrows(UnsupportedOperationException.class, before::clear);
+
+        PersistentSetList<Integer> thawed = new PersistentSetList<>(before);
+        thawed.add(4);
+        assertEquals(List.of(1, 2, 3, 4), thawed);
+        assertEquals(List.of(1, 2, 3), before);
+
+        list.clear();
+        assertEquals(List.of(1, 2, 3), before);
+    }
+
+    @Test
+    void testAgainstArrayList() {
+        PersistentSetList<Integer> list = new PersistentSetList<>();
+        List<Integer> ref = new ArrayList<>();
+        List<PersistentSetList<Integer>> snapshots = new ArrayList<>();
+        List<List<Integer>> expected = new ArrayList<>();
+        Random rand = new Random(12);
+
+        for (int i = 0; i < 5000; i++) {
+            final int e = rand.nextInt(2000);
+            final int op = rand.nextInt(4);
+            if (op < 2 && !list.contains(e)) {
+                final int index = rand.nextInt(ref.size() + 1);
+                list.add(index, e);
+                ref.add(index, e);
+            } else if (op == 2 && !ref.isEmpty()) {
+                final int index = rand.nextInt(ref.size());
+                assertEquals(ref.remove(index), list.remove(index));
+            } else if (op == 3 && !ref.isEmpty() && !list.contains(e)) {
+                final int index = rand.nextInt(ref.size());
+                assertEquals(ref.set(index, e), list.set(index, e));
+            }
+
+            if (i % 250 == 0) {
+                snapshots.add(list.snapshot());
+                expected.add(new ArrayList<>(ref));
+            }
+        }
+
+        assertEquals(ref, list);
+        for (int j = 0; j < ref.size(); j++)
+            assertEquals(j, list.indexOf(ref.get(j)));
+        for (int s = 0; s < snapshots.size(); s++) {
+            assertEquals(expected.get(s), snapshots.get(s));
+            for (int j = 0; j < expected.get(s).size(); j++)
+                assertEquals(j, snapshots.get(s).indexOf(expected.get(s).get(j)));
+        }
+    }
+
+    @Test
+    void testRelabelling() {
+        PersistentSetList<Integer> list = new PersistentSetList<>();
+        List<Integer> ref = new ArrayList<>();
+        list.add(-1);
+        list.add(-2);
+        ref.add(-1);
+        ref.add(-2);
+
+        // always inserting at the same spot exhausts the labels between neighbours
+        for (int i = 0; i < 3000; i++) {
+            list.add(1, i);
+            ref.add(1, i);
+        }
+        for (int i = 3000; i < 6000; i++) {
+            list.add(0, i);
+            ref.add(0, i);
+        }
+
+        assertEquals(ref, list);
+        for (int j = 0; j < ref.size(); j++)
+            assertEquals(j, list.indexOf(ref.get(j)));
+    }
+
+    @Test
+    void testHashCollisions() {
+        PersistentSetList<Clash> list = new PersistentSetList<>();
+        for (int i = 0; i < 10; i++)
+            list.add(new Clash(i));
+        PersistentSetList<Clash> snapshot = list.snapshot();
+
+        assertEquals(3, list.indexOf(new Clash(3)));
+        assertTrue(list.remove(new Clash(3)));
+        assertEquals(-1, list.indexOf(new Clash(3)));
+        assertEquals(3, list.indexOf(new Clash(4)));
+        assertEquals(3, snapshot.indexOf(new Clash(3)));
+        while (!list.isEmpty())
+            list.remove(0);
+        assertFalse(list.contains(new Clash(9)));
+        assertEquals(10, snapshot.size());
+    }
+
+    @Test
+    void testSort() {
+        PersistentSetList<Integer> list = new PersistentSetList<>(List.of(3, 1, 2));
+        PersistentSetList<Integer> snapshot = list.snapshot();
+        list.sort(Comparator.naturalOrder());
+        assertEquals(List.of(1, 2, 3), list);
+        assertEquals(2, list.indexOf(3));
+        assertEquals(List.of(3, 1, 2), snapshot);
+    }
+
+    @Test
+    void testSubList() {
+        PersistentSetList<String> list = new PersistentSetList<>(List.of("a", "b", "c", "d"));
+        List<String> sub = list.subList(1, 3);
+
+        // a failed bulk insert leaves the list as it was
+        assertThrows(DuplicateElementException.class, () -> sub.addAll(List.of("x", "y", "b")));
+        assertEquals(List.of("a", "b", "c", "d"), list);
+        assertEquals(2, sub.size());
+
+        assertFalse(sub.add("d"));
+        assertTrue(sub.addAll(0, List.of("x", "y")));
+        assertEquals(List.of("a", "x", "y", "b", "c", "d"), list);
+        assertEquals(List.of("x", "y", "b", "c"), sub);
+        assertEquals(3, sub.indexOf("c"));
+        assertFalse(sub.contains("d"));
+        assertTrue(sub.remove("y"));
+
+        PersistentSetList<String> snapshot = list.snapshot();
+        sub.subList(1, 3).clear();
+        assertEquals(List.of("x"), sub);
+        assertEquals(List.of("a", "x", "d"), list);
+        assertEquals(-1, list.indexOf("b"));
+        assertEquals(List.of("a", "x", "b", "c", "d"), snapshot);
+
+        list.add("e");
+        assertThrows(ConcurrentModificationException.class, sub::size);
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.subList(0, 2).clear());
+    }
+}
@@ -1,14 +1,27 @@
 package com.noambechhofer.datastructures;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.junit.jupiter.api.Test;
 // import com.noambechhofer.datastructures.DuplicateElementException;
@@ -94,6 +107,8 @@ public class SetListTest {
         list.add("Test");
         assertThrows(DuplicateElementException.class, () -> list.set(0, "Test"));
         assertEquals("Test", list.set(0, "NewValue"));
+        assertFalse(list.contains("Test"));
+        assertEquals(0, list.indexOf("NewValue"));
         assertThrows(IndexOutOfBoundsException.class, () -> list.set(1, "Other"));
     }
 
@@ -170,12 +185,37 @@ public class SetListTest {
 
     @Test
     public void testAddAll() {
+        SetList<Integer> sl = new SetList<>();
+        sl.add(1);
 
+        assertTrue(sl.addAll(List.of(1, 2, 3, 2, 4)));
+        assertEquals(List.of(1, 2, 3, 4), sl);
+        assertFalse(sl.addAll(List.of(4, 3)));
+        assertFalse(sl.addAll(List.of()));
+
+        for (int i = 0; i < sl.size(); i++)
+            assertEquals(i, sl.indexOf(sl.get(i)));
     }
 
     @Test
     public void testAddAll2() {
+        SetList<Integer> sl = new SetList<>();
+        sl.addAll(List.of(1, 2, 3));
+
+        assertTrue(sl.addAll(1, List.of(10, 11, 12)));
+        assertEquals(List.of(1, 10, 11, 12, 2, 3), sl);
+        for (int i = 0; i < sl.size(); i++)
+            assertEquals(i, sl.indexOf(sl.get(i)));
 
+        assertFalse(sl.addAll(6, List.of()));
+        assertThrows(IndexOutOfBoundsException.class, () -> sl.addAll(7, List.of(20)));
+
+        // atomic on duplicates, whether already present or repeated in the batch
+        assertThrows(DuplicateElementException.class, () -> sl.addAll(0, List.of(20, 21, 2)));
+        assertThrows(DuplicateElementException.class, () -> sl.addAll(0, List.of(20, 21, 20)));
+        assertEquals(List.of(1, 10, 11, 12, 2, 3), sl);
+        assertFalse(sl.contains(20));
+        assertEquals(5, sl.indexOf(3));
     }
 
     @Test
@@ -195,7 +235,12 @@ public class SetListTest {
 
     @Test
     public void testContainsAll() {
+        SetList<Integer> sl = new SetList<>();
+        sl.addAll(List.of(1, 2, 3));
 
+        assertTrue(sl.containsAll(List.of(3, 1)));
+        assertTrue(sl.containsAll(List.of()));
+        assertFalse(sl.containsAll(List.of(1, 4)));
     }
 
     @Test
@@ -232,47 +277,294 @@ public class SetListTest {
 
     @Test
     public void testIterator() {
+        SetList<Integer> sl = new SetList<>();
+        for (int i = 0; i < 10; i++)
+            sl.add(i);
+
+        int expected = 0;
+        for (int i : sl)
+            assertEquals(expected++, i);
+        assertEquals(10, expected);
+
+        Iterator<Integer> it = sl.iterator();
+        it.next();
+        sl.add(10);
+        assertThrows(ConcurrentModificationException.class, it::next);
+
+        Iterator<Integer> it2 = sl.iterator();
+        assertThrows(IllegalStateException.class, it2::remove);
+        it2.next();
+        sl.remove(0);
+        assertThrows(ConcurrentModificationException.class, it2::remove);
 
+        assertThrows(ConcurrentModificationException.class, () -> sl.forEach(sl::remove));
+
+        List<Integer> seen = new ArrayList<>();
+        Iterator<Integer> it3 = sl.iterator();
+        it3.next();
+        it3.forEachRemaining(seen::add);
+        assertEquals(sl.subList(1, sl.size()), seen);
+        assertFalse(it3.hasNext());
+        assertThrows(NoSuchElementException.class, it3::next);
     }
 
     @Test
     public void testListIterator() {
+        SetList<String> sl = new SetList<>();
+        sl.addAll(List.of("a", "b", "c"));
+
+        ListIterator<String> it = sl.listIterator(sl.size());
+        assertFalse(it.hasNext());
+        assertEquals("c", it.previous());
+        it.set("z");
+        assertEquals(List.of("a", "b", "z"), sl);
+        assertFalse(sl.contains("c"));
+        assertEquals(2, sl.indexOf("z"));
+
+        assertEquals("b", it.previous());
+        it.add("y");
+        assertThrows(IllegalStateException.class, () -> it.set("x"));
+        assertEquals(List.of("a", "y", "b", "z"), sl);
+        assertEquals(2, it.nextIndex());
+        assertEquals("b", it.next());
+        assertThrows(DuplicateElementException.class, () -> it.add("a"));
 
+        assertThrows(IndexOutOfBoundsException.class, () -> sl.listIterator(5));
     }
 
     @Test
     public void testListIterator2() {
+        SetList<Integer> sl = new SetList<>();
+        sl.addAll(List.of(3, 1, 2));
+
+        // a rotation through set() passes through duplicate states
+        ListIterator<Integer> it = sl.listIterator();
+        it.next();
+        it.set(1);
+        it.next();
+        it.set(2);
+        it.next();
+        it.set(3);
 
+        assertEquals(List.of(1, 2, 3), sl);
+        for (int i = 0; i < sl.size(); i++)
+            assertEquals(i, sl.indexOf(sl.get(i)));
     }
 
     @Test
     public void testRemove() {
+        SetList<Integer> sl = new SetList<>();
 
+        for (int i = 0; i < 10; i++)
+            sl.add(i);
+
+        assertTrue(sl.remove((Integer) 4));
+        assertFalse(sl.remove((Integer) 4));
+        assertFalse(sl.remove((Integer) 42));
+
+        assertEquals(9, sl.size());
+        assertEquals(-1, sl.indexOf(4));
+        for (int i = 0; i < sl.size(); i++)
+            assertEquals(i, sl.indexOf(sl.get(i)));
+        assertEquals(4, sl.lastIndexOf(5));
     }
 
     @Test
     public void testRemove2() {
+        SetList<Integer> sl = new SetList<>();
 
+        for (int i = 0; i < 10; i++)
+            sl.add(i);
+
+        ListIterator<Integer> it = sl.listIterator();
+        while (it.hasNext()) {
+            if (it.next() % 2 == 0)
+                it.remove();
+        }
+
+        assertEquals(List.of(1, 3, 5, 7, 9), sl);
+
+        while (it.hasPrevious()) {
+            if (it.previous() == 5)
+                it.remove();
+        }
+
+        assertEquals(List.of(1, 3, 7, 9), sl);
+        assertEquals(2, sl.indexOf(7));
     }
 
     @Test
     public void testRemoveAll() {
+        SetList<Integer> sl = new SetList<>();
+        for (int i = 0; i < 10; i++)
+            sl.add(i);
+
+        assertTrue(sl.removeAll(List.of(0, 5, 9, 42)));
+        assertFalse(sl.removeAll(List.of(0, 42)));
+        assertEquals(List.of(1, 2, 3, 4, 6, 7, 8), sl);
+        for (int i = 0; i < sl.size(); i++)
+            assertEquals(i, sl.indexOf(sl.get(i)));
 
+        assertTrue(sl.removeIf(i -> i % 2 == 0));
+        assertEquals(List.of(1, 3, 7), sl);
+        assertEquals(-1, sl.indexOf(2));
     }
 
     @Test
     public void testRetainAll() {
+        SetList<Integer> sl = new SetList<>();
+        for (int i = 0; i < 10; i++)
+            sl.add(i);
+
+        assertTrue(sl.retainAll(Set.of(9, 3, 4, 42)));
+        assertFalse(sl.retainAll(Set.of(9, 3, 4)));
+        assertEquals(List.of(3, 4, 9), sl);
+        assertEquals(2, sl.indexOf(9));
+        assertFalse(sl.contains(0));
 
+        assertThrows(ArithmeticException.class, () -> sl.removeIf(i -> i / (i - 4) > 0));
+        assertEquals(List.of(3, 4, 9), sl);
     }
 
     @Test
-    public void testSubList() {
+    public void testSpliterator() {
+        SetList<Integer> sl = new SetList<>();
+        for (int i = 0; i < 100_000; i++)
+            sl.add(i);
+
+        Spliterator<Integer> spliterator = sl.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED
+                | Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL));
 
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertEquals(50_000, prefix.estimateSize());
+        assertEquals(50_000, spliterator.estimateSize());
+        assertTrue(prefix.tryAdvance(i -> assertEquals(0, i)));
+        spliterator.tryAdvance(i -> assertEquals(50_000, i));
+
+        assertEquals(4_999_950_000L, sl.parallelStream().mapToLong(i -> i).sum());
+        assertEquals(sl, sl.parallelStream().collect(Collectors.toList()));
+
+        sl.add(null);
+        assertFalse(sl.spliterator().hasCharacteristics(Spliterator.NONNULL));
+
+        assertThrows(ConcurrentModificationException.class,
+                () -> sl.spliterator().tryAdvance(i -> sl.add(-1)));
+    }
+
+    @Test
+    public void testSubList() {
+        SetList<Integer> sl = new SetList<>();
+        for (int i = 0; i < 10; i++)
+            sl.add(i);
+        sl.removeFirst();
+        sl.addFirst(0);
+
+        List<Integer> sub = sl.subList(2, 7);
+        assertEquals(List.of(2, 3, 4, 5, 6), sub);
+        assertTrue(sub.contains(4));
+        assertFalse(sub.contains(1));
+        assertFalse(sub.contains(7));
+        assertEquals(0, sub.indexOf(2));
+        assertEquals(-1, sub.indexOf(9));
+        assertEquals(3, sub.lastIndexOf(5));
+
+        assertFalse(sub.add(8));
+        assertThrows(DuplicateElementException.class, () -> sub.add(0, 8));
+        assertThrows(DuplicateElementException.class, () -> sub.set(0, 8));
+        assertTrue(sub.add(20));
+        sub.add(0, 21);
+        assertEquals(List.of(0, 1, 21, 2, 3, 4, 5, 6, 20, 7, 8, 9), sl);
+        assertEquals(7, sub.size());
+
+        List<Integer> inner = sub.subList(1, 4);
+        assertEquals(List.of(2, 3, 4), inner);
+        inner.remove((Integer) 3);
+        assertEquals(6, sub.size());
+        inner.clear();
+        assertEquals(List.of(21, 5, 6, 20), sub);
+        assertEquals(List.of(0, 1, 21, 5, 6, 20, 7, 8, 9), sl);
+        for (int i = 0; i < sl.size(); i++)
+            assertEquals(i, sl.indexOf(sl.get(i)));
+
+        sub.removeIf(i -> i > 10);
+        assertEquals(List.of(5, 6), sub);
+        Iterator<Integer> it = sub.iterator();
+        it.next();
+        it.remove();
+        assertEquals(List.of(0, 1, 6, 7, 8, 9), sl);
+
+        sl.add(100);
+        assertThrows(ConcurrentModificationException.class, sub::size);
+        assertThrows(IndexOutOfBoundsException.class, () -> sl.subList(-1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> sl.subList(0, 8));
+        assertThrows(IllegalArgumentException.class, () -> sl.subList(3, 2));
+
+        // range removal against ArrayList, from both sides of the ring buffer
+        Random rn = new Random(18);
+        List<Integer> expected = new ArrayList<>(sl);
+        for (int round = 0; round < 500; round++) {
+            if (rn.nextBoolean() || sl.size() < 4) {
+                int e = 1000 + round;
+                sl.addFirst(e);
+                expected.add(0, e);
+                sl.add(e + 10_000);
+                expected.add(e + 10_000);
+            } else {
+                int from = rn.nextInt(sl.size());
+                int to = from + rn.nextInt(Math.min(4, sl.size() - from) + 1);
+                sl.subList(from, to).clear();
+                expected.subList(from, to).clear();
+            }
+            assertEquals(expected, sl);
+        }
+        for (int i = 0; i < sl.size(); i++)
+            assertEquals(i, sl.indexOf(sl.get(i)));
     }
 
     @Test
     public void testToArray() {
+        SetList<Integer> sl = new SetList<>(0);
+
+        assertArrayEquals(new Object[0], sl.toArray());
 
+        for (int i = 0; i < 100; i++)
+            sl.add(i);
+        sl.remove(0);
+        sl.add(0, -1);
+
+        Object[] arr = sl.toArray();
+        assertEquals(100, arr.length);
+        assertEquals(-1, arr[0]);
+        for (int i = 1; i < arr.length; i++)
+            assertEquals(i, arr[i]);
+
+        Integer[] intArr = sl.toArray(new Integer[0]);
+        assertArrayEquals(arr, intArr);
+    }
+
+    @Test
+    public void testGrowth() {
+        SetList<Integer> sl = new SetList<>(1);
+
+        for (int i = 0; i < 1000; i++)
+            sl.add(0, i);
+
+        assertEquals(1000, sl.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(999 - i, sl.get(i));
+            assertEquals(i, sl.indexOf(999 - i));
+        }
+
+        for (int i = 0; i < 500; i++)
+            sl.remove(0);
+
+        assertEquals(500, sl.size());
+        assertEquals(499, sl.get(0));
+        assertEquals(0, sl.indexOf(499));
+        assertFalse(sl.contains(500));
+
+        assertThrows(IllegalArgumentException.class, () -> new SetList<>(-1));
     }
 
     @Test
@@ -303,4 +595,364 @@ public class SetListTest {
 
         strList.toArray(new String[0]);
     }
+
+    @Test
+    public void testDeque() {
+        SetList<Integer> sl = new SetList<>();
+
+        assertNull(sl.pollFirst());
+        assertNull(sl.peekLast());
+        assertThrows(NoSuchElementException.class, sl::removeFirst);
+        assertThrows(NoSuchElementException.class, sl::getLast);
+
+        sl.addLast(2);
+        sl.addFirst(1);
+        sl.addLast(3);
+        sl.push(0);
+        assertEquals(List.of(0, 1, 2, 3), sl);
+        assertThrows(DuplicateElementException.class, () -> sl.addFirst(3));
+        assertThrows(DuplicateElementException.class, () -> sl.addLast(0));
+        assertFalse(sl.offerFirst(2));
+        assertTrue(sl.offerLast(4));
+
+        assertEquals(0, sl.getFirst());
+        assertEquals(4, sl.peekLast());
+        assertEquals(0, sl.pollFirst());
+        assertEquals(4, sl.pollLast());
+        assertEquals(List.of(1, 2, 3), sl);
+        assertEquals(0, sl.indexOf(1));
+        assertEquals(2, sl.indexOf(3));
+
+        final Iterator<Integer> it = sl.descendingIterator();
+        assertEquals(3, it.next());
+        it.remove();
+        assertEquals(2, it.next());
+        assertEquals(1, it.next());
+        assertFalse(it.hasNext());
+        assertEquals(List.of(1, 2), sl);
+    }
+
+    @Test
+    public void testDequeAgainstArrayList() {
+        SetList<Integer> sl = new SetList<>(4);
+        List<Integer> ref = new ArrayList<>();
+        Random rand = new Random(11);
+
+        // a sliding work queue wraps around the ring buffer many times
+        for (int i = 0; i < 20000; i++) {
+            final int op = rand.nextInt(8);
+            final int e = rand.nextInt(500);
+            if (op == 0 && sl.offerFirst(e)) {
+                ref.add(0, e);
+            } else if (op == 1 && sl.offerLast(e)) {
+                ref.add(e);
+            } else if (op == 2) {
+                assertEquals(ref.isEmpty() ? null : ref.remove(0), sl.pollFirst());
+            } else if (op == 3) {
+                assertEquals(ref.isEmpty() ? null : ref.remove(ref.size() - 1), sl.pollLast());
+            } else if (op == 4 && !sl.contains(e)) {
+                final int index = rand.nextInt(ref.size() + 1);
+                sl.add(index, e);
+                ref.add(index, e);
+            } else if (op == 5 && !ref.isEmpty()) {
+                final int index = rand.nextInt(ref.size());
+                assertEquals(ref.remove(index), sl.remove(index));
+            } else if (op == 6) {
+                assertEquals(ref.remove((Integer) e), sl.remove((Integer) e));
+            } else if (op == 7 && !ref.isEmpty() && !sl.contains(e)) {
+                final int index = rand.nextInt(ref.size());
+                assertEquals(ref.set(index, e), sl.set(index, e));
+            }
+
+            if (i % 97 == 0) {
+                assertEquals(ref, sl);
+                for (int j = 0; j < ref.size(); j++)
+                    assertEquals(j, sl.indexOf(ref.get(j)));
+            }
+        }
+
+        assertEquals(ref, sl);
+        assertArrayEquals(ref.toArray(), sl.toArray());
+        sl.addAll(2, List.of(-1, -2));
+        ref.addAll(2, List.of(-1, -2));
+        sl.removeIf(e -> e % 3 == 0);
+        ref.removeIf(e -> e % 3 == 0);
+        assertEquals(ref, sl);
+        for (int j = 0; j < ref.size(); j++)
+            assertEquals(j, sl.indexOf(ref.get(j)));
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        SetList<Integer> sl = new SetList<>();
+        sl.add(1);
+        assertEquals(0, sl.stats().getLookups());
+        assertFalse(sl.isStatsEnabled());
+
+        sl.setStatsEnabled(true);
+        for (int i = 2; i <= 10; i++)
+            sl.add(i);
+        sl.add(5, 100);
+        assertThrows(DuplicateElementException.class, () -> sl.add(0, 3));
+        assertThrows(DuplicateElementException.class, () -> sl.set(0, 3));
+        assertEquals(2, sl.indexOf(3));
+
+        SetListStats stats = sl.stats();
+        assertEquals(11, stats.getSize());
+        // the insert at 5 moves the 5 elements before it, the shorter side
+        assertEquals(5, stats.getShifts());
+        assertEquals(2, stats.getDuplicateRejections());
+        assertEquals(13, stats.getLookups());
+        assertEquals(11.0 / stats.getIndexCapacity(), stats.getIndexLoadFactor());
+        assertTrue(stats.getAverageProbeLength() >= 1);
+        assertTrue(stats.getMaxProbeLength() >= 1);
+        assertTrue(stats.getEstimatedRetainedBytes() > 4L * (stats.getCapacity() + 2 * stats.getIndexCapacity()));
+
+        ObjectName name = new ObjectName("com.noambechhofer.datastructures:type=SetList,name=testStats");
+        sl.registerMBean(name);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(11, server.getAttribute(name, "Size"));
+            assertEquals(2L, server.getAttribute(name, "DuplicateRejections"));
+            assertEquals(stats.getCapacity(), server.getAttribute(name, "Capacity"));
+            assertEquals(stats.getIndexCapacity(), server.getAttribute(name, "IndexCapacity"));
+            assertEquals(stats.getIndexLoadFactor(), server.getAttribute(name, "IndexLoadFactor"));
+            assertEquals(stats.getEstimatedRetainedBytes(), server.getAttribute(name, "EstimatedRetainedBytes"));
+            assertEquals(stats.getAverageProbeLength(), server.getAttribute(name, "AverageProbeLength"));
+            assertEquals(stats.getMaxProbeLength(), server.getAttribute(name, "MaxProbeLength"));
+            server.invoke(name, "resetCounters", null, null);
+            assertEquals(0L, server.getAttribute(name, "Shifts"));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+
+        sl.setStatsEnabled(false);
+        assertEquals(0, sl.stats().getDuplicateRejections());
+    }
+
+    @Test
+    public void testEdit() {
+        SetList<String> list = new SetList<>();
+        list.addAll(List.of("a", "b", "c", "d"));
+        list.removeFirst();
+        list.addFirst("a");
+        list.edit(batch -> {
+            batch.add(4, "f");
+            batch.remove(1);
+            batch.add(0, "x");
+            batch.set(2, "C");
+            batch.add(0, "y");
+            batch.add("g");
+            assertEquals("d", batch.get(3));
+            assertEquals(4, batch.size());
+        });
+        assertEquals(List.of("x", "y", "a", "C", "d", "f", "g"), list);
+        for (int i = 0; i < list.size(); i++)
+            assertEquals(i, list.indexOf(list.get(i)));
+        assertFalse(list.contains("b"));
+
+        // moving an element by removing and reinserting it is allowed
+        list.edit(batch -> {
+            batch.remove(0);
+            batch.add(7, "x");
+        });
+        assertEquals(List.of("y", "a", "C", "d", "f", "g", "x"), list);
+        assertEquals(6, list.indexOf("x"));
+
+        List<String> before = new ArrayList<>(list);
+        assertThrows(DuplicateElementException.class, () -> list.edit(batch -> {
+            batch.remove(0);
+            batch.add(0, "a");
+        }));
+        assertThrows(DuplicateElementException.class, () -> list.edit(batch -> {
+            batch.add(0, "n");
+            batch.set(3, "n");
+        }));
+        assertThrows(IllegalArgumentException.class, () -> list.edit(batch -> {
+            batch.remove(2);
+            batch.set(2, "z");
+        }));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.edit(batch -> batch.remove(7)));
+        assertThrows(ConcurrentModificationException.class, () -> list.edit(batch -> list.add("q")));
+        list.remove("q");
+        assertEquals(before, list);
+        for (int i = 0; i < list.size(); i++)
+            assertEquals(i, list.indexOf(list.get(i)));
+
+        List<SetList.Editor<String>> escaped = new ArrayList<>();
+        list.edit(escaped::add);
+        assertThrows(IllegalStateException.class, () -> escaped.get(0).add("z"));
+    }
+
+    @Test
+    public void testEditAgainstArrayList() {
+        Random rn = new Random(17);
+        SetList<Integer> list = new SetList<>();
+        for (int i = 0; i < 200; i++)
+            list.add(i);
+        int next = 200;
+
+        for (int round = 0; round < 200; round++) {
+            int n = list.size();
+            List<List<Integer>> inserts = new ArrayList<>();
+            for (int i = 0; i <= n; i++)
+                inserts.add(new ArrayList<>());
+            Integer[] replaced = new Integer[n];
+            boolean[] removed = new boolean[n];
+            List<int[]> insertOps = new ArrayList<>();
+            List<int[]> editOps = new ArrayList<>();
+
+            for (int k = rn.nextInt(30); k > 0; k--) {
+                int i = rn.nextInt(n + 1);
+                if (rn.nextBoolean()) {
+                    inserts.get(i).add(next);
+                    insertOps.add(new int[] { i, next++ });
+                } else if (i < n && !removed[i] && replaced[i] == null) {
+                    if (rn.nextBoolean()) {
+                        removed[i] = true;
+                        editOps.add(new int[] { i, -1 });
+                    } else {
+                        replaced[i] = next;
+                        editOps.add(new int[] { i, next++ });
+                    }
+                }
+            }
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i <= n; i++) {
+                expected.addAll(inserts.get(i));
+                if (i < n && !removed[i])
+                    expected.add(replaced[i] == null ? list.get(i) : replaced[i]);
+            }
+
+            list.edit(batch -> {
+                for (int[] op : insertOps)
+                    batch.add(op[0], op[1]);
+                for (int[] op : editOps) {
+                    if (op[1] < 0)
+                        batch.remove(op[0]);
+                    else
+                        batch.set(op[0], op[1]);
+                }
+            });
+            assertEquals(expected, list);
+            for (int i = 0; i < list.size(); i++)
+                assertEquals(i, list.indexOf(list.get(i)));
+
+            // keep the ring buffer wrapped
+            if (!list.isEmpty())
+                list.addFirst(-round - 1);
+        }
+    }
+
+    @Test
+    public void testListeners() {
+        SetList<Integer> sl = new SetList<>();
+        sl.addAll(List.of(0, 1, 2, 3, 4, 5, 6, 7));
+        List<Integer> replica = new ArrayList<>(sl);
+        List<List<SetListChange<Integer>>> batches = new ArrayList<>();
+        SetListListener<Integer> listener = changes -> {
+            batches.add(changes);
+            for (SetListChange<Integer> change : changes)
+                change.applyTo(replica);
+        };
+        sl.addListener(listener);
+
+        sl.removeIf(i -> i % 2 == 0);
+        assertEquals(1, batches.size());
+        assertEquals(4, batches.get(0).size());
+        assertEquals(SetListChange.Type.REMOVE, batches.get(0).get(1).getType());
+        assertEquals(1, batches.get(0).get(1).getIndex());
+        assertEquals(List.of(2), batches.get(0).get(1).getElements());
+
+        sl.addAll(1, List.of(10, 11, 12));
+        assertEquals(2, batches.size());
+        assertEquals(1, batches.get(1).size());
+        assertEquals(3, batches.get(1).get(0).getCount());
+        assertEquals(sl, replica);
+
+        sl.edit(batch -> {
+            batch.remove(1);
+            batch.remove(2);
+            batch.set(3, 20);
+            batch.add(0, 21);
+            batch.add(0, 22);
+        });
+        assertEquals(3, batches.size());
+        assertEquals("[INSERT(0, [21, 22]), REMOVE(3, [10, 11]), SET(3, [20])]", batches.get(2).toString());
+        assertEquals(sl, replica);
+
+        sl.sort(null);
+        assertEquals(4, batches.size());
+        assertEquals(sl, replica);
+
+        Random rn = new Random(19);
+        for (int i = 0; i < 3000; i++) {
+            int value = rn.nextInt(100);
+            switch (rn.nextInt(12)) {
+                case 0:
+                    sl.offerFirst(value);
+                    break;
+                case 1:
+                    sl.pollLast();
+                    break;
+                case 2:
+                    if (!sl.contains(value))
+                        sl.add(rn.nextInt(sl.size() + 1), value);
+                    break;
+                case 3:
+                    if (!sl.isEmpty())
+                        sl.remove(rn.nextInt(sl.size()));
+                    break;
+                case 4:
+                    if (!sl.isEmpty() && !sl.contains(value))
+                        sl.set(rn.nextInt(sl.size()), value);
+                    break;
+                case 5: {
+                    ListIterator<Integer> it = sl.listIterator();
+                    while (it.hasNext()) {
+                        int e = it.next();
+                        if (e % 7 == value % 7)
+                            it.remove();
+                        else if (e % 5 == 0 && !sl.contains(e + 1000))
+                            it.set(e + 1000);
+                    }
+                    if (!sl.contains(value))
+                        it.add(value);
+                    break;
+                }
+                case 6:
+                    if (sl.size() > 4)
+                        sl.subList(1, 1 + rn.nextInt(sl.size() - 2)).clear();
+                    break;
+                case 7:
+                    sl.removeAll(List.of(value, value + 1, value + 2));
+                    break;
+                case 8:
+                    if (rn.nextInt(10) == 0)
+                        sl.clear();
+                    break;
+                case 9:
+                    sl.sort(rn.nextBoolean() ? null : Collections.reverseOrder());
+                    break;
+                case 10:
+                    sl.addAll(List.of(value, value + 100, value + 200));
+                    break;
+                default:
+                    sl.edit(batch -> {
+                        if (batch.size() > 0)
+                            batch.remove(rn.nextInt(batch.size()));
+                        if (!sl.contains(value))
+                            batch.add(rn.nextInt(batch.size() + 1), value);
+                    });
+            }
+            assertEquals(sl, replica);
+        }
+
+        assertTrue(sl.removeListener(listener));
+        assertFalse(sl.removeListener(listener));
+        int delivered = batches.size();
+        sl.add(-1);
+        assertEquals(delivered, batches.size());
+    }
 }
@@ -0,0 +1,149 @@
+package com.noambechhofer.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+class SortedSetListTest {
+    @Test
+    void testListAndSetContract() {
+        SortedSetList<String> list = new SortedSetList<>();
+        assertTrue(list.add("m"));
+        assertTrue(list.add("c"));
+        assertTrue(list.add("x"));
+        assertFalse(list.add("c"));
+        assertEquals(List.of("c", "m", "x"), list);
+        assertEquals(1, list.indexOf("m"));
+        assertEquals(-1, list.indexOf("a"));
+        assertEquals("x", list.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(3));
+        assertThrows(NullPointerException.class, () -> list.add(null));
+
+        assertThrows(UnsupportedOperationException.class, () -> list.add(0, "a"));
+        assertThrows(UnsupportedOperationException.class, () -> list.set(0, "a"));
+
+        assertEquals("c", list.first());
+        assertEquals("x", list.last());
+        assertEquals("m", list.ceiling("d"));
+        assertEquals("c", list.floor("d"));
+        assertEquals("m", list.floor("m"));
+        assertEquals("x", list.higher("m"));
+        assertNull(list.lower("c"));
+        assertNull(list.higher("x"));
+
+        assertEquals("c", list.pollFirst());
+        assertEquals("x", list.pollLast());
+        assertEquals("m", list.remove(0));
+        assertNull(list.pollFirst());
+        assertThrows(NoSuchElementException.class, list::first);
+    }
+
+    @Test
+    void testAgainstTreeSet() {
+        SortedSetList<Integer> list = new SortedSetList<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random rn = new Random(15);
+
+        for (int i = 0; i < 20_000; i++) {
+            int value = rn.nextInt(3000);
+            if (rn.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), list.remove((Integer) value));
+            } else {
+                assertEquals(expected.add(value), list.add(value));
+            }
+            if (i % 500 == 0) {
+                assertEquals(expected.ceiling(value), list.ceiling(value));
+                assertEquals(expected.lower(value), list.lower(value));
+            }
+        }
+
+        assertEquals(new ArrayList<>(expected), list);
+        int rank = 0;
+        for (Integer e : expected) {
+            assertEquals(rank, list.indexOf(e));
+            assertEquals(e, list.get(rank++));
+        }
+
+        Iterator<Integer> it = list.iterator();
+        while (it.hasNext()) {
+            if (it.next() % 2 == 0)
+                it.remove();
+        }
+        expected.removeIf(e -> e % 2 == 0);
+        assertEquals(new ArrayList<>(expected), list);
+    }
+
+    @Test
+    void testBulkLoad() {
+        List<Integer> sorted = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            sorted.add(i * 2);
+        SortedSetList<Integer> list = new SortedSetList<>(sorted);
+        assertEquals(sorted, list);
+        assertEquals(500, list.indexOf(1000));
+
+        SortedSetList<Integer> unsorted = new SortedSetList<>(List.of(5, 3, 9, 3, 1, 5));
+        assertEquals(List.of(1, 3, 5, 9), unsorted);
+        unsorted.addAll(List.of(4, 3));
+        assertEquals(List.of(1, 3, 4, 5, 9), unsorted);
+
+        assertEquals(list, new SortedSetList<>(list));
+    }
+
+    @Test
+    void testViews() {
+        SortedSetList<Integer> list = new SortedSetList<>(List.of(1, 3, 5, 7, 9, 11));
+        TreeSet<Integer> expected = new TreeSet<>(list);
+
+        assertEquals(expected.subSet(3, 9), list.subSet(3, 9));
+        assertEquals(expected.headSet(7, true), list.headSet(7, true));
+        assertEquals(expected.tailSet(4), list.tailSet(4));
+        assertEquals(new ArrayList<>(expected.descendingSet()), new ArrayList<>(list.descendingSet()));
+
+        NavigableSet<Integer> sub = list.subSet(3, false, 11, false);
+        assertEquals(3, sub.size());
+        assertEquals(5, sub.first());
+        assertEquals(9, sub.last());
+        assertEquals(5, sub.ceiling(0));
+        assertNull(sub.higher(9));
+        assertThrows(IllegalArgumentException.class, () -> sub.add(2));
+        assertThrows(IllegalArgumentException.class, () -> sub.headSet(11, true));
+
+        NavigableSet<Integer> down = sub.descendingSet();
+        assertEquals(List.of(9, 7, 5), new ArrayList<>(down));
+        assertEquals(7, down.ceiling(8));
+        assertEquals(List.of(7, 5), new ArrayList<>(down.tailSet(7, true)));
+
+        // views write through
+        sub.add(6);
+        assertTrue(list.contains(6));
+        assertEquals(9, down.pollFirst());
+        assertFalse(list.contains(9));
+        Iterator<Integer> it = down.iterator();
+        it.next();
+        it.remove();
+        assertEquals(List.of(1, 3, 5, 6, 11), list);
+
+        NavigableSet<Integer> set = list.asNavigableSet();
+        assertEquals(new TreeSet<>(list), set);
+        assertEquals(5, set.ceiling(4));
+        assertEquals(List.of(11, 6, 5, 3, 1), new ArrayList<>(set.descendingSet()));
+        assertTrue(set.add(8));
+        assertFalse(set.add(8));
+        assertEquals(4, list.indexOf(8));
+        assertEquals(1, set.pollFirst());
+        assertEquals(List.of(3, 5, 6, 8, 11), list);
+    }
+}